@@ -70,6 +70,12 @@ public class InfraManagerBatchConfig {
   @Value("classpath:org/springframework/batch/core/schema-sqlite.sql")
   private Resource dataRepositorySchema;
 
+  @Value("classpath:infra-manager-schema-drop-sqlite.sql")
+  private Resource dropInfraManagerTables;
+
+  @Value("classpath:infra-manager-schema-sqlite.sql")
+  private Resource infraManagerSchema;
+
   @Value("${infra-manager.batch.db.init:false}")
   private boolean dropDatabaseOnStartup;
 
@@ -100,9 +106,11 @@ public class InfraManagerBatchConfig {
     ResourceDatabasePopulator databasePopulator = new ResourceDatabasePopulator();
     if (dropDatabaseOnStartup) {
       databasePopulator.addScript(dropRepositoryTables);
+      databasePopulator.addScript(dropInfraManagerTables);
       databasePopulator.setIgnoreFailedDrops(true);
     }
     databasePopulator.addScript(dataRepositorySchema);
+    databasePopulator.addScript(infraManagerSchema);
     databasePopulator.setContinueOnError(true);
 
     DataSourceInitializer initializer = new DataSourceInitializer();
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.springframework.batch.core.repository.dao.AbstractJdbcBatchMetadataDao;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Stores the last processed position of the scheduled jobs in the job repository database.
+ * The rows are not removed by the clean-up of the old job executions.
+ */
+@Repository
+public class JobWatermarkDao extends AbstractJdbcBatchMetadataDao {
+
+  private final TransactionTemplate transactionTemplate;
+
+  @Inject
+  public JobWatermarkDao(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+    setJdbcTemplate(jdbcTemplate);
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  public Optional<String> find(String key) {
+    List<String> watermarks = getJdbcTemplate().queryForList(
+            getQuery("SELECT WATERMARK FROM %PREFIX%JOB_WATERMARK WHERE WATERMARK_KEY = ?"), String.class, key);
+    return watermarks.stream().findFirst();
+  }
+
+  public void save(String key, String watermark) {
+    transactionTemplate.execute(transactionStatus -> {
+      Date now = new Date();
+      int updated = getJdbcTemplate().update(
+              getQuery("UPDATE %PREFIX%JOB_WATERMARK SET WATERMARK = ?, LAST_UPDATED = ? WHERE WATERMARK_KEY = ?"), watermark, now, key);
+      if (updated == 0)
+        getJdbcTemplate().update(
+                getQuery("INSERT INTO %PREFIX%JOB_WATERMARK (WATERMARK_KEY, WATERMARK, LAST_UPDATED) VALUES (?, ?, ?)"), key, watermark, now);
+      return null;
+    });
+  }
+}
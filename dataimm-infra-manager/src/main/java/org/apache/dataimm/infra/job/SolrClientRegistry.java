@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.http.client.HttpClient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.impl.HttpClientUtil;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.zookeeper.client.ConnectStringParser;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Named
+public class SolrClientRegistry {
+  private static final Logger logger = LogManager.getLogger(SolrClientRegistry.class);
+
+  private final SolrClientProperties properties;
+  private final Map<String, Entry> clients = new HashMap<>();
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong evictedCount = new AtomicLong();
+  private final AtomicLong acquiredCount = new AtomicLong();
+
+  @Inject
+  public SolrClientRegistry(SolrClientProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    Gauge.builder("infra.solr.client.pool.size", this, SolrClientRegistry::getClientCount).register(meterRegistry);
+    Gauge.builder("infra.solr.client.leases", this, SolrClientRegistry::getLeaseCount).register(meterRegistry);
+    FunctionCounter.builder("infra.solr.client.created", createdCount, AtomicLong::get).register(meterRegistry);
+    FunctionCounter.builder("infra.solr.client.evicted", evictedCount, AtomicLong::get).register(meterRegistry);
+    FunctionCounter.builder("infra.solr.client.acquired", acquiredCount, AtomicLong::get).register(meterRegistry);
+  }
+
+  public synchronized Lease acquire(String zooKeeperConnectionString) {
+    ConnectStringParser connectStringParser = new ConnectStringParser(zooKeeperConnectionString);
+    List<String> zkHosts = connectStringParser.getServerAddresses().stream()
+            .map(InetSocketAddress::toString)
+            .sorted()
+            .collect(Collectors.toList());
+    String chroot = connectStringParser.getChrootPath();
+    String key = String.join(",", zkHosts) + (chroot == null ? "" : chroot);
+
+    Entry entry = clients.computeIfAbsent(key, k -> createEntry(k, zkHosts, chroot));
+    ++entry.leaseCount;
+    acquiredCount.incrementAndGet();
+    return new Lease(entry);
+  }
+
+  private Entry createEntry(String key, List<String> zkHosts, String chroot) {
+    logger.info("Creating solr client for zookeeper ensemble {}", key);
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(HttpClientUtil.PROP_MAX_CONNECTIONS, properties.getMaxConnections());
+    params.set(HttpClientUtil.PROP_MAX_CONNECTIONS_PER_HOST, properties.getMaxConnectionsPerHost());
+    params.set(HttpClientUtil.PROP_CONNECTION_TIMEOUT, (int) properties.getConnectionTimeout().toMillis());
+    params.set(HttpClientUtil.PROP_SO_TIMEOUT, (int) properties.getSocketTimeout().toMillis());
+    HttpClient httpClient = HttpClientUtil.createClient(params);
+    CloudSolrClient client = new CloudSolrClient.Builder(zkHosts, Optional.ofNullable(chroot))
+            .withHttpClient(httpClient)
+            .withConnectionTimeout((int) properties.getConnectionTimeout().toMillis())
+            .withSocketTimeout((int) properties.getSocketTimeout().toMillis())
+            .build();
+    createdCount.incrementAndGet();
+    return new Entry(key, client, httpClient);
+  }
+
+  private synchronized void release(Entry entry) {
+    --entry.leaseCount;
+    entry.lastReleased = System.currentTimeMillis();
+  }
+
+  @Scheduled(fixedDelayString = "${infra-manager.solr-client.eviction-interval-ms:60000}")
+  public synchronized void evictIdleClients() {
+    long now = System.currentTimeMillis();
+    Iterator<Entry> iterator = clients.values().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.leaseCount > 0 || now - entry.lastReleased < properties.getIdleTimeout().toMillis())
+        continue;
+      logger.info("Closing idle solr client for zookeeper ensemble {}", entry.key);
+      iterator.remove();
+      entry.close();
+      evictedCount.incrementAndGet();
+    }
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    clients.values().forEach(Entry::close);
+    clients.clear();
+  }
+
+  public synchronized int getClientCount() {
+    return clients.size();
+  }
+
+  public synchronized int getLeaseCount() {
+    return clients.values().stream().mapToInt(entry -> entry.leaseCount).sum();
+  }
+
+  private static class Entry {
+    private final String key;
+    private final CloudSolrClient client;
+    private final HttpClient httpClient;
+    private int leaseCount = 0;
+    private long lastReleased = System.currentTimeMillis();
+
+    private Entry(String key, CloudSolrClient client, HttpClient httpClient) {
+      this.key = key;
+      this.client = client;
+      this.httpClient = httpClient;
+    }
+
+    private void close() {
+      try {
+        client.close();
+      } catch (IOException e) {
+        logger.warn("Unable to close solr client " + key, e);
+      }
+      HttpClientUtil.close(httpClient);
+    }
+  }
+
+  public class Lease implements AutoCloseable {
+    private final Entry entry;
+    private boolean released = false;
+
+    private Lease(Entry entry) {
+      this.entry = entry;
+    }
+
+    public CloudSolrClient getClient() {
+      return entry.client;
+    }
+
+    public HttpClient getHttpClient() {
+      return entry.httpClient;
+    }
+
+    @Override
+    public void close() {
+      if (released)
+        return;
+      released = true;
+      release(entry);
+    }
+  }
+}
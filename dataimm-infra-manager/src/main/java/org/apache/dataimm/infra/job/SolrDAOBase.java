@@ -20,56 +20,118 @@ package org.apache.dataimm.infra.job;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
-import org.apache.zookeeper.client.ConnectStringParser;
+import org.apache.solr.client.solrj.request.UpdateRequest;
 
 public abstract class SolrDAOBase {
   private static final Logger logger = LogManager.getLogger(SolrDAOBase.class);
 
+  private final SolrClientRegistry solrClientRegistry;
   private final String zooKeeperConnectionString;
   private final String defaultCollection;
+  private Duration commitWithin = null;
 
-  protected SolrDAOBase(String zooKeeperConnectionString, String defaultCollection) {
+  protected SolrDAOBase(SolrClientRegistry solrClientRegistry, String zooKeeperConnectionString, String defaultCollection) {
+    this.solrClientRegistry = solrClientRegistry;
     this.zooKeeperConnectionString = zooKeeperConnectionString;
     this.defaultCollection = defaultCollection;
   }
 
+  /**
+   * @param commitWithin when it is not null deletes are sent with commitWithin instead of being followed by a hard commit
+   */
+  public void setCommitWithin(Duration commitWithin) {
+    this.commitWithin = commitWithin;
+  }
+
+  protected Duration getCommitWithin() {
+    return commitWithin;
+  }
+
+  public void commit() {
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      logger.info("Committing collection {}", defaultCollection);
+      lease.getClient().commit(defaultCollection);
+    } catch (SolrServerException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   protected void delete(String deleteQueryText) {
-    try (CloudSolrClient client = createClient()) {
+    delete(deleteQueryText, true);
+  }
+
+  /**
+   * @param commit when it is false and commitWithin is not set the deletes become visible at the next commit
+   */
+  protected void delete(String deleteQueryText, boolean commit) {
+    logger.info("Executing solr delete by query {}", deleteQueryText);
+    update(request -> request.deleteByQuery(deleteQueryText), commit);
+  }
+
+  protected void deleteById(List<String> ids) {
+    deleteById(ids, true);
+  }
+
+  /**
+   * @param commit when it is false and commitWithin is not set the deletes become visible at the next commit
+   */
+  protected void deleteById(List<String> ids, boolean commit) {
+    if (ids.isEmpty())
+      return;
+    logger.info("Executing solr delete of {} documents by id", ids.size());
+    update(request -> request.deleteById(ids), commit);
+  }
+
+  private void update(Consumer<UpdateRequest> requestBuilder, boolean commit) {
+    UpdateRequest request = new UpdateRequest();
+    requestBuilder.accept(request);
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      CloudSolrClient client = lease.getClient();
+      if (commitWithin != null || !commit) {
+        // Not rolled back on failure: a rollback would drop the uncommitted updates of the previous requests too
+        if (commitWithin != null)
+          request.setCommitWithin((int) commitWithin.toMillis());
+        try {
+          request.process(client, defaultCollection);
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+        return;
+      }
+
       try {
-        logger.info("Executing solr delete by query {}", deleteQueryText);
-        client.deleteByQuery(deleteQueryText);
-        client.commit();
+        request.process(client, defaultCollection);
+        client.commit(defaultCollection);
       } catch (Exception e) {
         try {
-          client.rollback();
-        } catch (SolrServerException e1) {
+          client.rollback(defaultCollection);
+        } catch (Exception e1) {
           logger.warn("Unable to rollback after solr delete operation failure.", e1);
         }
         throw new RuntimeException(e);
       }
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
     }
   }
 
-  protected CloudSolrClient createClient() {
-    ConnectStringParser connectStringParser = new ConnectStringParser(zooKeeperConnectionString);
-    List<String> zkHosts = connectStringParser.getServerAddresses().stream()
-            .map(InetSocketAddress::toString)
-            .collect(Collectors.toList());
-    CloudSolrClient client = new CloudSolrClient.Builder(
-            zkHosts, Optional.ofNullable(connectStringParser.getChrootPath())).build();
-    client.setDefaultCollection(defaultCollection);
-    return client;
+  protected SolrClientRegistry.Lease acquireClient() {
+    return solrClientRegistry.acquire(zooKeeperConnectionString);
   }
-}
 
+  protected String getZooKeeperConnectionString() {
+    return zooKeeperConnectionString;
+  }
+
+  protected String getCollection() {
+    return defaultCollection;
+  }
+}
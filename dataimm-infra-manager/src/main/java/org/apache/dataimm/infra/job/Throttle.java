@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Token buckets limiting the documents and bytes processed per second. A bucket holds at most one second worth of tokens.
+ * Acquiring may take the bucket into debt which is paid back by waiting, so the amount does not have to be known in advance.
+ * <p>
+ * When the query time or the error rate of the solr queries exceed the thresholds the rates are halved, down to
+ * 1/20 of the configured ones, and they are raised again by 1/20 after every query below the thresholds.
+ * The rates can be changed while the job is running. 0 means unlimited.
+ */
+public class Throttle {
+  private static final Logger logger = LogManager.getLogger(Throttle.class);
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+  private static final double MIN_FACTOR = 0.05;
+  private static final double ERROR_RATE_WEIGHT = 0.1;
+
+  private final LongSupplier nanoTime;
+  private final long maxQueryTimeMillis;
+  private final double maxErrorRate;
+  private long documentsPerSecond;
+  private long bytesPerSecond;
+  private double factor = 1;
+  private double errorRate = 0;
+  private double documentBalance = 0;
+  private double byteBalance = 0;
+  private long lastRefill;
+
+  /**
+   * @param maxQueryTime the query time is not checked when it is null
+   * @param maxErrorRate the ratio of failed queries is not checked when it is 0
+   */
+  public Throttle(long documentsPerSecond, long bytesPerSecond, Duration maxQueryTime, double maxErrorRate) {
+    this(documentsPerSecond, bytesPerSecond, maxQueryTime, maxErrorRate, System::nanoTime);
+  }
+
+  Throttle(long documentsPerSecond, long bytesPerSecond, Duration maxQueryTime, double maxErrorRate, LongSupplier nanoTime) {
+    this.documentsPerSecond = documentsPerSecond;
+    this.bytesPerSecond = bytesPerSecond;
+    this.maxQueryTimeMillis = maxQueryTime == null ? 0 : maxQueryTime.toMillis();
+    this.maxErrorRate = maxErrorRate;
+    this.nanoTime = nanoTime;
+    this.lastRefill = nanoTime.getAsLong();
+  }
+
+  public synchronized long getDocumentsPerSecond() {
+    return documentsPerSecond;
+  }
+
+  public synchronized long getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  /**
+   * Ratio of the configured rates allowed by the query time and the error rate.
+   */
+  public synchronized double getFactor() {
+    return factor;
+  }
+
+  public synchronized boolean isLimitingBytes() {
+    return bytesPerSecond > 0;
+  }
+
+  public synchronized void setRates(long documentsPerSecond, long bytesPerSecond) {
+    refill();
+    this.documentsPerSecond = documentsPerSecond;
+    this.bytesPerSecond = bytesPerSecond;
+    logger.info("Throttle rates are set to {} documents/s and {} bytes/s", documentsPerSecond, bytesPerSecond);
+    notifyAll();
+  }
+
+  /**
+   * Blocks until the documents and bytes fit into the rates.
+   */
+  public synchronized void acquire(int documents, long bytes) throws InterruptedException {
+    long waitNanos = reserve(documents, bytes);
+    while (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+      waitNanos = reserve(0, 0);
+    }
+  }
+
+  /**
+   * Takes the tokens and returns the time to wait until the buckets are out of debt.
+   */
+  synchronized long reserve(int documents, long bytes) {
+    refill();
+    documentBalance -= documents;
+    byteBalance -= bytes;
+    return Math.max(waitNanos(documentBalance, rate(documentsPerSecond)), waitNanos(byteBalance, rate(bytesPerSecond)));
+  }
+
+  private void refill() {
+    long now = nanoTime.getAsLong();
+    double seconds = (double) (now - lastRefill) / NANOS_PER_SECOND;
+    lastRefill = now;
+    documentBalance = refill(documentBalance, rate(documentsPerSecond), seconds);
+    byteBalance = refill(byteBalance, rate(bytesPerSecond), seconds);
+  }
+
+  private double refill(double balance, double rate, double seconds) {
+    if (rate <= 0)
+      return 0;
+    return Math.min(rate, balance + rate * seconds);
+  }
+
+  private double rate(long configuredRate) {
+    return configuredRate * factor;
+  }
+
+  private long waitNanos(double balance, double rate) {
+    if (rate <= 0 || balance >= 0)
+      return 0;
+    return (long) Math.ceil(-balance / rate * NANOS_PER_SECOND);
+  }
+
+  /**
+   * @param queryTimeMillis the QTime reported by solr
+   * @param failed          true if the query failed or returned partial results
+   */
+  public synchronized void recordQuery(long queryTimeMillis, boolean failed) {
+    if (maxQueryTimeMillis <= 0 && maxErrorRate <= 0)
+      return;
+
+    refill();
+    errorRate = errorRate * (1 - ERROR_RATE_WEIGHT) + (failed ? ERROR_RATE_WEIGHT : 0);
+    double previousFactor = factor;
+    if ((maxQueryTimeMillis > 0 && queryTimeMillis > maxQueryTimeMillis) || (maxErrorRate > 0 && errorRate > maxErrorRate))
+      factor = Math.max(MIN_FACTOR, factor / 2);
+    else
+      factor = Math.min(1, factor + MIN_FACTOR);
+
+    if (factor < previousFactor)
+      logger.info("Throttling to {}% of the configured rates, query time {} ms, error rate {}", Math.round(factor * 100), queryTimeMillis, errorRate);
+    notifyAll();
+  }
+}
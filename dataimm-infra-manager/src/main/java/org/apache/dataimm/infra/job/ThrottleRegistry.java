@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Named;
+
+/**
+ * Throttles of the running job executions. The step scoped beans of the partitions and the REST API find them by job execution id.
+ */
+@Named
+public class ThrottleRegistry {
+  private final Map<Long, Throttle> throttles = new ConcurrentHashMap<>();
+
+  public void register(Long jobExecutionId, Throttle throttle) {
+    throttles.put(jobExecutionId, throttle);
+  }
+
+  public Optional<Throttle> get(Long jobExecutionId) {
+    return Optional.ofNullable(throttles.get(jobExecutionId));
+  }
+
+  public void remove(Long jobExecutionId) {
+    throttles.remove(jobExecutionId);
+  }
+}
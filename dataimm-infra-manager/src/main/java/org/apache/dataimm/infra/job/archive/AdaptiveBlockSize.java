@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Number of rows requested by a query. After every block it is moved toward the number of rows which
+ * would be returned within the target latency and would fit into the byte budget, between the bounds.
+ * It grows at most to the double per block but shrinks at once so an unusually large block of documents
+ * is not followed by another one.
+ */
+public class AdaptiveBlockSize {
+  private final int minBlockSize;
+  private final int maxBlockSize;
+  private final long targetLatencyNanos;
+  private final long targetBytes;
+  private int blockSize;
+
+  /**
+   * @param targetLatency the latency is not limited when it is null
+   * @param targetBytes   the estimated size of a block is not limited when it is 0
+   */
+  public AdaptiveBlockSize(int initialBlockSize, int minBlockSize, int maxBlockSize, Duration targetLatency, long targetBytes) {
+    this.minBlockSize = minBlockSize;
+    this.maxBlockSize = maxBlockSize;
+    this.targetLatencyNanos = targetLatency == null ? 0 : targetLatency.toNanos();
+    this.targetBytes = targetBytes;
+    this.blockSize = bound(initialBlockSize);
+  }
+
+  public synchronized int get() {
+    return blockSize;
+  }
+
+  /**
+   * @param documentCount number of documents returned by the query
+   * @param latencyNanos  time of executing the query
+   * @param bytes         estimated size of the returned documents
+   */
+  public synchronized void record(int documentCount, long latencyNanos, long bytes) {
+    if (documentCount == 0)
+      return;
+
+    double target = maxBlockSize;
+    if (targetLatencyNanos > 0)
+      target = Math.min(target, (double) documentCount * targetLatencyNanos / Math.max(latencyNanos, 1));
+    if (targetBytes > 0)
+      target = Math.min(target, (double) documentCount * targetBytes / Math.max(bytes, 1));
+    blockSize = bound((int) Math.min(target, blockSize * 2L));
+  }
+
+  private int bound(int value) {
+    return Math.max(minBlockSize, Math.min(maxBlockSize, value));
+  }
+
+  /**
+   * Rough size of the document on the heap: strings are counted by their characters, other values by a fixed size.
+   */
+  public static long estimateSize(Document document) {
+    long size = 0;
+    for (Map.Entry<String, Object> field : document.getFieldMap().entrySet())
+      size += estimateSize(field.getKey()) + estimateSize(field.getValue());
+    return size;
+  }
+
+  private static long estimateSize(Object value) {
+    if (value instanceof CharSequence)
+      return 40 + 2L * ((CharSequence) value).length();
+    if (value instanceof Collection) {
+      long size = 16;
+      for (Object element : (Collection<?>) value)
+        size += estimateSize(element);
+      return size;
+    }
+    return 16;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+/**
+ * Rolls the file over after a number of documents which is adjusted toward the target file size using the
+ * size of the completed files. Unlike {@link SizeRolloverPolicy} it does not depend on how much data the
+ * compressor holds back while the file is written.
+ */
+public class AdaptiveDocumentCountRolloverPolicy implements RolloverPolicy {
+  private final long targetFileSize;
+  private final int minDocumentCount;
+  private final int maxDocumentCount;
+  private double bytesPerDocument = 0;
+  private volatile int documentCount;
+
+  public AdaptiveDocumentCountRolloverPolicy(long targetFileSize, int initialDocumentCount, int minDocumentCount, int maxDocumentCount) {
+    this.targetFileSize = targetFileSize;
+    this.minDocumentCount = minDocumentCount;
+    this.maxDocumentCount = maxDocumentCount;
+    this.documentCount = bound(initialDocumentCount);
+  }
+
+  public int getDocumentCount() {
+    return documentCount;
+  }
+
+  @Override
+  public boolean shouldRollover(DocumentItemWriter writer, int documentCount, Document firstDocument, Document nextDocument) {
+    return documentCount >= this.documentCount;
+  }
+
+  @Override
+  public synchronized void fileCompleted(DocumentItemWriter writer, int documentCount) {
+    long fileSize = writer.getFileSize();
+    if (documentCount == 0 || fileSize == 0)
+      return;
+
+    // The average of the files is weighted toward the recent ones as the documents change over time
+    double fileBytesPerDocument = (double) fileSize / documentCount;
+    bytesPerDocument = bytesPerDocument == 0 ? fileBytesPerDocument : (bytesPerDocument + fileBytesPerDocument) / 2;
+    this.documentCount = bound((int) Math.min(Integer.MAX_VALUE, targetFileSize / bytesPerDocument));
+  }
+
+  private int bound(int value) {
+    return Math.max(minDocumentCount, Math.min(maxDocumentCount, value));
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Block index of an archive file read back from the file written by {@link ArchiveManifestWriter}.
+ */
+public class ArchiveManifest {
+  private static final ObjectMapper json = new ObjectMapper();
+
+  private final ArchiveFormat format;
+  private final CompressionCodec compression;
+  private final List<String> columns;
+  private final List<Block> blocks;
+
+  public ArchiveManifest(ArchiveFormat format, CompressionCodec compression, List<String> columns, List<Block> blocks) {
+    this.format = format;
+    this.compression = compression;
+    this.columns = columns;
+    this.blocks = blocks;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static ArchiveManifest read(InputStream inputStream) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    String line = reader.readLine();
+    if (line == null)
+      throw new IOException("Manifest header is missing!");
+
+    JsonNode header = json.readTree(line);
+    int version = header.path("version").asInt();
+    if (version != ArchiveManifestWriter.VERSION)
+      throw new IOException(String.format("Unsupported manifest version %d!", version));
+    List<String> columns = new ArrayList<>();
+    header.path("columns").forEach(column -> columns.add(column.asText()));
+
+    List<Block> blocks = new ArrayList<>();
+    while ((line = reader.readLine()) != null) {
+      if (line.isEmpty())
+        continue;
+      JsonNode block = json.readTree(line);
+      blocks.add(new Block(
+              block.path("offset").asLong(),
+              block.path("length").asLong(),
+              block.path("count").asInt(),
+              json.convertValue(block.path("min"), Map.class),
+              json.convertValue(block.path("max"), Map.class)));
+    }
+
+    return new ArchiveManifest(
+            ArchiveFormat.valueOf(header.path("format").asText()),
+            CompressionCodec.valueOf(header.path("compression").asText()),
+            Collections.unmodifiableList(columns),
+            Collections.unmodifiableList(blocks));
+  }
+
+  public ArchiveFormat getFormat() {
+    return format;
+  }
+
+  public CompressionCodec getCompression() {
+    return compression;
+  }
+
+  public List<String> getColumns() {
+    return columns;
+  }
+
+  public List<Block> getBlocks() {
+    return blocks;
+  }
+
+  public static class Block {
+    private final long offset;
+    private final long length;
+    private final int count;
+    private final Map<String, Object> min;
+    private final Map<String, Object> max;
+
+    public Block(long offset, long length, int count, Map<String, Object> min, Map<String, Object> max) {
+      this.offset = offset;
+      this.length = length;
+      this.count = count;
+      this.min = min == null ? Collections.emptyMap() : min;
+      this.max = max == null ? Collections.emptyMap() : max;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public long getLength() {
+      return length;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public Map<String, Object> getMin() {
+      return min;
+    }
+
+    public Map<String, Object> getMax() {
+      return max;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the manifest of an archive file as json lines: a header followed by a line per block as soon as the block is completed.
+ * <pre>
+ * {"version":1,"format":"JSON","compression":"BZIP2","columns":["logtime","id"]}
+ * {"offset":0,"length":52311,"count":10000,"min":{"logtime":"...","id":"..."},"max":{"logtime":"...","id":"..."}}
+ * </pre>
+ * Offset and length are the position and size of the independently compressed block in the archive file.
+ */
+public class ArchiveManifestWriter implements Closeable {
+  public static final String EXTENSION = ".manifest";
+  public static final int VERSION = 1;
+
+  private static final ObjectMapper json = new ObjectMapper();
+
+  private final BufferedWriter writer;
+
+  public ArchiveManifestWriter(OutputStream outputStream, ArchiveFormat format, CompressionCodec compression, List<String> columns) throws IOException {
+    this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    Map<String, Object> header = new LinkedHashMap<>();
+    header.put("version", VERSION);
+    header.put("format", format.name());
+    header.put("compression", compression.name());
+    header.put("columns", columns);
+    writeLine(header);
+  }
+
+  public void writeBlock(long offset, long length, int count, Map<String, Object> min, Map<String, Object> max) throws IOException {
+    Map<String, Object> block = new LinkedHashMap<>();
+    block.put("offset", offset);
+    block.put("length", length);
+    block.put("count", count);
+    block.put("min", min);
+    block.put("max", max);
+    writeLine(block);
+  }
+
+  private void writeLine(Map<String, Object> line) throws IOException {
+    writer.write(json.writeValueAsString(line));
+    writer.newLine();
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.dataimm.infra.job.JobWatermarkDao;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sort key of the last archived document of a job. Scheduled runs without start continue the archiving after it.
+ */
+public class ArchiveWatermark {
+  private static final Logger logger = LogManager.getLogger(ArchiveWatermark.class);
+  private static final ObjectMapper json = new ObjectMapper();
+
+  private final JobWatermarkDao jobWatermarkDao;
+  private final String key;
+  private final String[] sortColumns;
+
+  public ArchiveWatermark(JobWatermarkDao jobWatermarkDao, String jobName, String shard, String[] sortColumns) {
+    this.jobWatermarkDao = jobWatermarkDao;
+    this.key = shard == null ? jobName : String.format("%s:%s", jobName, shard);
+    this.sortColumns = sortColumns;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public Optional<Document> load() {
+    return jobWatermarkDao.find(key).map(this::parse);
+  }
+
+  private Document parse(String watermark) {
+    try {
+      return json.readValue(watermark, Document.class);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void save(Document lastDocument) {
+    Map<String, Object> sortKey = new HashMap<>();
+    for (String column : sortColumns) {
+      Object value = lastDocument.get(column);
+      if (value != null)
+        sortKey.put(column, value);
+    }
+
+    try {
+      String watermark = json.writeValueAsString(sortKey);
+      jobWatermarkDao.save(key, watermark);
+      logger.info("Watermark of {} is set to {}", key, watermark);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
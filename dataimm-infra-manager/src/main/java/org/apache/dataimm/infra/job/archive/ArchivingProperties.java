@@ -18,23 +18,32 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
+import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 import static org.apache.dataimm.infra.job.archive.ExportDestination.HDFS;
 import static org.apache.dataimm.infra.job.archive.ExportDestination.LOCAL;
+import static org.apache.dataimm.infra.job.archive.ReadMode.CURSOR_MARK;
+import static org.apache.dataimm.infra.job.archive.ReadMode.EXPORT;
 import static org.apache.dataimm.infra.json.StringToDurationConverter.toDuration;
 import static org.apache.dataimm.infra.json.StringToFsPermissionConverter.toFsPermission;
 import static org.apache.commons.lang.StringUtils.isBlank;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.apache.dataimm.infra.job.JobProperties;
+import org.apache.dataimm.infra.job.Throttle;
 import org.apache.dataimm.infra.job.Validatable;
 import org.apache.dataimm.infra.json.DurationToStringConverter;
 import org.apache.dataimm.infra.json.FsPermissionToStringConverter;
 import org.apache.dataimm.infra.json.StringToDurationConverter;
 import org.apache.dataimm.infra.json.StringToFsPermissionConverter;
 import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.springframework.batch.core.JobParameters;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -42,7 +51,38 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 public class ArchivingProperties extends JobProperties<ArchivingProperties> implements Validatable {
   private int readBlockSize;
+  private ReadMode readMode = ReadMode.FILTER_QUERY;
+  private int readPrefetchDepth = 0;
+  private int readMinBlockSize = 10;
+  private int readMaxBlockSize = 10000;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration readTargetLatency;
+  private long readTargetBytes = 0;
+  private PartitionMode partitionMode = PartitionMode.NONE;
+  private int partitionThreadCount = 4;
+  private String partitionColumn;
+  private int partitionCount = 8;
   private int writeBlockSize;
+  private int writeMinBlockSize = 100;
+  private int writeMaxBlockSize = 1000000;
+  private long writeTargetFileSize = 0;
+  private long rolloverUncompressedSize = 0;
+  private long rolloverFileSize = 0;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration rolloverTimeBucket;
+  private CompressionCodec compression = CompressionCodec.BZIP2;
+  private int compressionLevel = CompressionCodec.DEFAULT_LEVEL;
+  private int compressionThreadCount = 1;
+  private ArchiveFormat format = ArchiveFormat.JSON;
+  private CompressionCodecName parquetCompression = CompressionCodecName.SNAPPY;
+  private int parquetRowGroupSize = 64 * 1024 * 1024;
+  private int parquetSchemaSampleSize = 1000;
+  private int javabinBlockSize = JavabinDocumentWriter.DEFAULT_BLOCK_SIZE;
+  private int manifestBlockSize = 0;
+  private int postProcessingThreadCount = 0;
+  private int postProcessingQueueSize = 2;
   private ExportDestination destination;
   private String localDestinationDirectory;
   private String fileNameSuffixColumn;
@@ -55,11 +95,29 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
   private FsPermission hdfsFilePermission;
   private String hdfsKerberosPrincipal;
   private String hdfsKerberosKeytabPath;
+  private boolean hdfsLocalStaging = false;
+  private int deleteBatchSize = 1;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration deleteCommitWithin;
+  private boolean deleteCommitAtEnd = false;
+  private long throttleDocumentsPerSecond = 0;
+  private long throttleBytesPerSecond = 0;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration throttleMaxQueryTime;
+  private double throttleMaxErrorRate = 0;
+  private boolean watermarkEnabled = false;
+  private boolean resetWatermark = false;
   private String start;
   private String end;
   @JsonSerialize(converter = DurationToStringConverter.class)
   @JsonDeserialize(converter = StringToDurationConverter.class)
   private Duration ttl;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration timeShardPeriod;
+  private int timeShardCreateAheadCount = 1;
 
   public int getReadBlockSize() {
     return readBlockSize;
@@ -69,6 +127,95 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     this.readBlockSize = readBlockSize;
   }
 
+  public ReadMode getReadMode() {
+    return readMode;
+  }
+
+  public void setReadMode(ReadMode readMode) {
+    this.readMode = readMode;
+  }
+
+  public int getReadPrefetchDepth() {
+    return readPrefetchDepth;
+  }
+
+  public void setReadPrefetchDepth(int readPrefetchDepth) {
+    this.readPrefetchDepth = readPrefetchDepth;
+  }
+
+  public int getReadMinBlockSize() {
+    return readMinBlockSize;
+  }
+
+  public void setReadMinBlockSize(int readMinBlockSize) {
+    this.readMinBlockSize = readMinBlockSize;
+  }
+
+  public int getReadMaxBlockSize() {
+    return readMaxBlockSize;
+  }
+
+  public void setReadMaxBlockSize(int readMaxBlockSize) {
+    this.readMaxBlockSize = readMaxBlockSize;
+  }
+
+  public Duration getReadTargetLatency() {
+    return readTargetLatency;
+  }
+
+  public void setReadTargetLatency(Duration readTargetLatency) {
+    this.readTargetLatency = readTargetLatency;
+  }
+
+  public long getReadTargetBytes() {
+    return readTargetBytes;
+  }
+
+  public void setReadTargetBytes(long readTargetBytes) {
+    this.readTargetBytes = readTargetBytes;
+  }
+
+  /**
+   * Returns null if the readBlockSize is fixed: neither target latency nor target bytes is set.
+   */
+  public AdaptiveBlockSize adaptiveReadBlockSize() {
+    if (readTargetLatency == null && readTargetBytes <= 0)
+      return null;
+    return new AdaptiveBlockSize(readBlockSize, readMinBlockSize, readMaxBlockSize, readTargetLatency, readTargetBytes);
+  }
+
+  public PartitionMode getPartitionMode() {
+    return partitionMode;
+  }
+
+  public void setPartitionMode(PartitionMode partitionMode) {
+    this.partitionMode = partitionMode;
+  }
+
+  public int getPartitionThreadCount() {
+    return partitionThreadCount;
+  }
+
+  public void setPartitionThreadCount(int partitionThreadCount) {
+    this.partitionThreadCount = partitionThreadCount;
+  }
+
+  public String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  public void setPartitionColumn(String partitionColumn) {
+    this.partitionColumn = partitionColumn;
+  }
+
+  public int getPartitionCount() {
+    return partitionCount;
+  }
+
+  public void setPartitionCount(int partitionCount) {
+    this.partitionCount = partitionCount;
+  }
+
   public int getWriteBlockSize() {
     return writeBlockSize;
   }
@@ -77,6 +224,190 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     this.writeBlockSize = writeBlockSize;
   }
 
+  public int getWriteMinBlockSize() {
+    return writeMinBlockSize;
+  }
+
+  public void setWriteMinBlockSize(int writeMinBlockSize) {
+    this.writeMinBlockSize = writeMinBlockSize;
+  }
+
+  public int getWriteMaxBlockSize() {
+    return writeMaxBlockSize;
+  }
+
+  public void setWriteMaxBlockSize(int writeMaxBlockSize) {
+    this.writeMaxBlockSize = writeMaxBlockSize;
+  }
+
+  public long getWriteTargetFileSize() {
+    return writeTargetFileSize;
+  }
+
+  public void setWriteTargetFileSize(long writeTargetFileSize) {
+    this.writeTargetFileSize = writeTargetFileSize;
+  }
+
+  public long getRolloverUncompressedSize() {
+    return rolloverUncompressedSize;
+  }
+
+  public void setRolloverUncompressedSize(long rolloverUncompressedSize) {
+    this.rolloverUncompressedSize = rolloverUncompressedSize;
+  }
+
+  public long getRolloverFileSize() {
+    return rolloverFileSize;
+  }
+
+  public void setRolloverFileSize(long rolloverFileSize) {
+    this.rolloverFileSize = rolloverFileSize;
+  }
+
+  public Duration getRolloverTimeBucket() {
+    return rolloverTimeBucket;
+  }
+
+  public void setRolloverTimeBucket(Duration rolloverTimeBucket) {
+    this.rolloverTimeBucket = rolloverTimeBucket;
+  }
+
+  public RolloverPolicy rolloverPolicy() {
+    CompositeRolloverPolicy rolloverPolicy = new CompositeRolloverPolicy(writeTargetFileSize > 0 ?
+            new AdaptiveDocumentCountRolloverPolicy(writeTargetFileSize, writeBlockSize, writeMinBlockSize, writeMaxBlockSize) :
+            new DocumentCountRolloverPolicy(writeBlockSize));
+    if (rolloverUncompressedSize > 0)
+      rolloverPolicy.add(new SizeRolloverPolicy(SizeRolloverPolicy.Measure.UNCOMPRESSED, rolloverUncompressedSize));
+    if (rolloverFileSize > 0)
+      rolloverPolicy.add(new SizeRolloverPolicy(SizeRolloverPolicy.Measure.FILE, rolloverFileSize));
+    if (rolloverTimeBucket != null)
+      rolloverPolicy.add(new TimeBucketRolloverPolicy(fileNameSuffixColumn, rolloverTimeBucket));
+    return rolloverPolicy;
+  }
+
+  public CompressionCodec getCompression() {
+    return compression;
+  }
+
+  public void setCompression(CompressionCodec compression) {
+    this.compression = compression;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  public void setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+  }
+
+  public int getCompressionThreadCount() {
+    return compressionThreadCount;
+  }
+
+  public void setCompressionThreadCount(int compressionThreadCount) {
+    this.compressionThreadCount = compressionThreadCount;
+  }
+
+  public StreamCompressor streamCompressor() {
+    return new StreamCompressor(compression, compressionLevel, compressionThreadCount);
+  }
+
+  public ArchiveFormat getFormat() {
+    return format;
+  }
+
+  public void setFormat(ArchiveFormat format) {
+    this.format = format;
+  }
+
+  public CompressionCodecName getParquetCompression() {
+    return parquetCompression;
+  }
+
+  public void setParquetCompression(CompressionCodecName parquetCompression) {
+    this.parquetCompression = parquetCompression;
+  }
+
+  public int getParquetRowGroupSize() {
+    return parquetRowGroupSize;
+  }
+
+  public void setParquetRowGroupSize(int parquetRowGroupSize) {
+    this.parquetRowGroupSize = parquetRowGroupSize;
+  }
+
+  public int getParquetSchemaSampleSize() {
+    return parquetSchemaSampleSize;
+  }
+
+  public void setParquetSchemaSampleSize(int parquetSchemaSampleSize) {
+    this.parquetSchemaSampleSize = parquetSchemaSampleSize;
+  }
+
+  public int getJavabinBlockSize() {
+    return javabinBlockSize;
+  }
+
+  public void setJavabinBlockSize(int javabinBlockSize) {
+    this.javabinBlockSize = javabinBlockSize;
+  }
+
+  public int getManifestBlockSize() {
+    return manifestBlockSize;
+  }
+
+  public void setManifestBlockSize(int manifestBlockSize) {
+    this.manifestBlockSize = manifestBlockSize;
+  }
+
+  /**
+   * Block index settings of the json and javabin formats, null when manifests are disabled.
+   * Min/max values of the sort columns and of the file name suffix column are recorded for every block.
+   */
+  public ManifestSettings manifestSettings() {
+    if (manifestBlockSize <= 0)
+      return null;
+
+    Set<String> columns = new LinkedHashSet<>();
+    if (solr != null && solr.getSortColumn() != null)
+      columns.addAll(asList(solr.getSortColumn()));
+    if (!isBlank(fileNameSuffixColumn))
+      columns.add(fileNameSuffixColumn);
+    return new ManifestSettings(manifestBlockSize, new ArrayList<>(columns));
+  }
+
+  /**
+   * @param streamCompressor compresses the json and javabin files, see {@link #streamCompressor()}
+   * @param collectionSchema reads the field definitions of the archived collection, called for the parquet format only
+   */
+  public DocumentFileFormat fileFormat(StreamCompressor streamCompressor, Supplier<CollectionSchema> collectionSchema) {
+    switch (format) {
+      case PARQUET:
+        return new ParquetFileFormat(parquetCompression, parquetRowGroupSize, parquetSchemaSampleSize, collectionSchema.get());
+      case JAVABIN:
+        return new JavabinFileFormat(streamCompressor, javabinBlockSize, manifestSettings());
+      default:
+        return new JsonFileFormat(streamCompressor, manifestSettings());
+    }
+  }
+
+  public int getPostProcessingThreadCount() {
+    return postProcessingThreadCount;
+  }
+
+  public void setPostProcessingThreadCount(int postProcessingThreadCount) {
+    this.postProcessingThreadCount = postProcessingThreadCount;
+  }
+
+  public int getPostProcessingQueueSize() {
+    return postProcessingQueueSize;
+  }
+
+  public void setPostProcessingQueueSize(int postProcessingQueueSize) {
+    this.postProcessingQueueSize = postProcessingQueueSize;
+  }
+
   public ExportDestination getDestination() {
     return destination;
   }
@@ -157,6 +488,14 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     this.hdfsKerberosKeytabPath = hdfsKerberosKeytabPath;
   }
 
+  public boolean isHdfsLocalStaging() {
+    return hdfsLocalStaging;
+  }
+
+  public void setHdfsLocalStaging(boolean hdfsLocalStaging) {
+    this.hdfsLocalStaging = hdfsLocalStaging;
+  }
+
   public Optional<HdfsProperties> hdfsProperties() {
     if (isBlank(hdfsDestinationDirectory))
       return Optional.empty();
@@ -169,6 +508,96 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
             hdfsKerberosKeytabPath));
   }
 
+  public int getDeleteBatchSize() {
+    return deleteBatchSize;
+  }
+
+  public void setDeleteBatchSize(int deleteBatchSize) {
+    this.deleteBatchSize = deleteBatchSize;
+  }
+
+  public Duration getDeleteCommitWithin() {
+    return deleteCommitWithin;
+  }
+
+  public void setDeleteCommitWithin(Duration deleteCommitWithin) {
+    this.deleteCommitWithin = deleteCommitWithin;
+  }
+
+  public boolean isDeleteCommitAtEnd() {
+    return deleteCommitAtEnd;
+  }
+
+  public void setDeleteCommitAtEnd(boolean deleteCommitAtEnd) {
+    this.deleteCommitAtEnd = deleteCommitAtEnd;
+  }
+
+  public long getThrottleDocumentsPerSecond() {
+    return throttleDocumentsPerSecond;
+  }
+
+  public void setThrottleDocumentsPerSecond(long throttleDocumentsPerSecond) {
+    this.throttleDocumentsPerSecond = throttleDocumentsPerSecond;
+  }
+
+  public long getThrottleBytesPerSecond() {
+    return throttleBytesPerSecond;
+  }
+
+  public void setThrottleBytesPerSecond(long throttleBytesPerSecond) {
+    this.throttleBytesPerSecond = throttleBytesPerSecond;
+  }
+
+  public Duration getThrottleMaxQueryTime() {
+    return throttleMaxQueryTime;
+  }
+
+  public void setThrottleMaxQueryTime(Duration throttleMaxQueryTime) {
+    this.throttleMaxQueryTime = throttleMaxQueryTime;
+  }
+
+  public double getThrottleMaxErrorRate() {
+    return throttleMaxErrorRate;
+  }
+
+  public void setThrottleMaxErrorRate(double throttleMaxErrorRate) {
+    this.throttleMaxErrorRate = throttleMaxErrorRate;
+  }
+
+  public Throttle throttle() {
+    return new Throttle(throttleDocumentsPerSecond, throttleBytesPerSecond, throttleMaxQueryTime, throttleMaxErrorRate);
+  }
+
+  public boolean isWatermarkEnabled() {
+    return watermarkEnabled;
+  }
+
+  public void setWatermarkEnabled(boolean watermarkEnabled) {
+    this.watermarkEnabled = watermarkEnabled;
+  }
+
+  public boolean isResetWatermark() {
+    return resetWatermark;
+  }
+
+  public void setResetWatermark(boolean resetWatermark) {
+    this.resetWatermark = resetWatermark;
+  }
+
+  /**
+   * Runs without explicit start continue after the watermark unless it is reset.
+   */
+  public boolean readsFromWatermark() {
+    return updatesWatermark() && !resetWatermark;
+  }
+
+  /**
+   * Runs with explicit start are manual re-archiving of an interval: they neither read nor move the watermark.
+   */
+  public boolean updatesWatermark() {
+    return watermarkEnabled && isBlank(start);
+  }
+
   public String getStart() {
     return start;
   }
@@ -193,18 +622,101 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     this.ttl = ttl;
   }
 
+  public Duration getTimeShardPeriod() {
+    return timeShardPeriod;
+  }
+
+  public void setTimeShardPeriod(Duration timeShardPeriod) {
+    this.timeShardPeriod = timeShardPeriod;
+  }
+
+  public int getTimeShardCreateAheadCount() {
+    return timeShardCreateAheadCount;
+  }
+
+  public void setTimeShardCreateAheadCount(int timeShardCreateAheadCount) {
+    this.timeShardCreateAheadCount = timeShardCreateAheadCount;
+  }
+
   @Override
   public void validate() {
     if (readBlockSize <= 0)
       throw new IllegalArgumentException("The property readBlockSize must be greater than 0!");
 
+    if (readPrefetchDepth < 0)
+      throw new IllegalArgumentException("The property readPrefetchDepth can not be negative!");
+    if (readTargetLatency != null && (readTargetLatency.isNegative() || readTargetLatency.isZero()))
+      throw new IllegalArgumentException("The property readTargetLatency must be greater than 0!");
+    if (readTargetBytes < 0)
+      throw new IllegalArgumentException("The property readTargetBytes can not be negative!");
+    if (adaptiveReadBlockSize() != null) {
+      if (readMinBlockSize <= 0)
+        throw new IllegalArgumentException("The property readMinBlockSize must be greater than 0!");
+      if (readMaxBlockSize < readMinBlockSize)
+        throw new IllegalArgumentException("The property readMaxBlockSize can not be less than readMinBlockSize!");
+    }
+
+    requireNonNull(partitionMode, "The property partitionMode can not be null!");
+    if (partitionMode != PartitionMode.NONE && partitionThreadCount <= 0)
+      throw new IllegalArgumentException(String.format(
+              "The property partitionThreadCount must be greater than 0 when partitionMode is set to %s!", partitionMode.name()));
+    if (partitionMode == PartitionMode.TIME_RANGE) {
+      if (isBlank(partitionColumn))
+        throw new IllegalArgumentException(String.format(
+                "The property partitionColumn can not be null or empty string when partitionMode is set to %s!", PartitionMode.TIME_RANGE.name()));
+      if (partitionCount <= 0)
+        throw new IllegalArgumentException(String.format(
+                "The property partitionCount must be greater than 0 when partitionMode is set to %s!", PartitionMode.TIME_RANGE.name()));
+      if (watermarkEnabled)
+        throw new IllegalArgumentException(String.format(
+                "The property watermarkEnabled can not be set when partitionMode is set to %s!", PartitionMode.TIME_RANGE.name()));
+    }
+
     if (writeBlockSize <= 0)
       throw new IllegalArgumentException("The property writeBlockSize must be greater than 0!");
+    if (writeTargetFileSize < 0)
+      throw new IllegalArgumentException("The property writeTargetFileSize can not be negative!");
+    if (writeTargetFileSize > 0) {
+      if (writeMinBlockSize <= 0)
+        throw new IllegalArgumentException("The property writeMinBlockSize must be greater than 0!");
+      if (writeMaxBlockSize < writeMinBlockSize)
+        throw new IllegalArgumentException("The property writeMaxBlockSize can not be less than writeMinBlockSize!");
+    }
+    if (rolloverUncompressedSize < 0)
+      throw new IllegalArgumentException("The property rolloverUncompressedSize can not be negative!");
+    if (rolloverFileSize < 0)
+      throw new IllegalArgumentException("The property rolloverFileSize can not be negative!");
+    if (rolloverTimeBucket != null && (rolloverTimeBucket.isNegative() || rolloverTimeBucket.isZero()))
+      throw new IllegalArgumentException("The property rolloverTimeBucket must be greater than 0!");
 
     if (isBlank(fileNameSuffixColumn)) {
       throw new IllegalArgumentException("The property fileNameSuffixColumn can not be null or empty string!");
     }
 
+    requireNonNull(compression, "The property compression can not be null!");
+    if (!compression.isValidLevel(compressionLevel))
+      throw new IllegalArgumentException(String.format("The property compressionLevel %d is not supported by %s!", compressionLevel, compression.name()));
+    if (compressionThreadCount <= 0)
+      throw new IllegalArgumentException("The property compressionThreadCount must be greater than 0!");
+
+    requireNonNull(format, "The property format can not be null!");
+    if (format == ArchiveFormat.PARQUET) {
+      requireNonNull(parquetCompression, "The property parquetCompression can not be null!");
+      if (parquetRowGroupSize <= 0)
+        throw new IllegalArgumentException("The property parquetRowGroupSize must be greater than 0!");
+      if (parquetSchemaSampleSize <= 0)
+        throw new IllegalArgumentException("The property parquetSchemaSampleSize must be greater than 0!");
+    }
+    if (format == ArchiveFormat.JAVABIN && javabinBlockSize <= 0)
+      throw new IllegalArgumentException("The property javabinBlockSize must be greater than 0!");
+    if (manifestBlockSize < 0)
+      throw new IllegalArgumentException("The property manifestBlockSize can not be negative!");
+
+    if (postProcessingThreadCount < 0)
+      throw new IllegalArgumentException("The property postProcessingThreadCount can not be negative!");
+    if (postProcessingThreadCount > 0 && postProcessingQueueSize <= 0)
+      throw new IllegalArgumentException("The property postProcessingQueueSize must be greater than 0!");
+
     requireNonNull(destination, "The property destination can not be null!");
     switch (destination) {
       case LOCAL:
@@ -219,15 +731,93 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
                 .validate();
     }
 
+    if (deleteBatchSize <= 0)
+      throw new IllegalArgumentException("The property deleteBatchSize must be greater than 0!");
+
+    if (throttleDocumentsPerSecond < 0)
+      throw new IllegalArgumentException("The property throttleDocumentsPerSecond can not be negative!");
+    if (throttleBytesPerSecond < 0)
+      throw new IllegalArgumentException("The property throttleBytesPerSecond can not be negative!");
+    if (throttleMaxQueryTime != null && (throttleMaxQueryTime.isNegative() || throttleMaxQueryTime.isZero()))
+      throw new IllegalArgumentException("The property throttleMaxQueryTime must be greater than 0!");
+    if (throttleMaxErrorRate < 0 || throttleMaxErrorRate >= 1)
+      throw new IllegalArgumentException("The property throttleMaxErrorRate must be between 0 and 1!");
+
     requireNonNull(solr, "No solr query was specified for archiving job!");
     solr.validate();
+
+    requireNonNull(readMode, "The property readMode can not be null!");
+    if (readMode == CURSOR_MARK && (solr.getSortColumn() == null || !asList(solr.getSortColumn()).contains(solr.getUniqueKey())))
+      throw new IllegalArgumentException(String.format(
+              "The property sortColumn must contain the unique key field when readMode is set to %s!", CURSOR_MARK.name()));
+    if (readMode == EXPORT) {
+      if (solr.getSortColumn() == null || solr.getSortColumn().length == 0)
+        throw new IllegalArgumentException(String.format("The property sortColumn can not be empty when readMode is set to %s!", EXPORT.name()));
+      if (solr.getFields() == null || solr.getFields().length == 0)
+        throw new IllegalArgumentException(String.format("The property fields can not be empty when readMode is set to %s!", EXPORT.name()));
+      if (isBlank(solr.getFilterQueryText()))
+        throw new IllegalArgumentException(String.format("The property filterQueryText is required for restarting when readMode is set to %s!", EXPORT.name()));
+      if (readPrefetchDepth > 0)
+        throw new IllegalArgumentException(String.format("The property readPrefetchDepth must be 0 when readMode is set to %s!", EXPORT.name()));
+    }
+
+    if (timeShardPeriod != null) {
+      if (!TimeShardRotation.isValidPeriod(timeShardPeriod))
+        throw new IllegalArgumentException("The property timeShardPeriod must be at least a minute and divide a day or be a multiple of days!");
+      if (partitionMode != PartitionMode.SHARD)
+        throw new IllegalArgumentException(String.format(
+                "The property partitionMode must be set to %s when timeShardPeriod is set!", PartitionMode.SHARD.name()));
+      requireNonNull(ttl, "The property ttl can not be null when timeShardPeriod is set!");
+      if (!isBlank(solr.getDeleteQueryText()))
+        throw new IllegalArgumentException("The property deleteQueryText can not be set when timeShardPeriod is set: expired shards are deleted as a whole!");
+      if (!isBlank(start))
+        throw new IllegalArgumentException("The property start can not be set when timeShardPeriod is set: expired shards are archived as a whole!");
+      if (watermarkEnabled)
+        throw new IllegalArgumentException("The property watermarkEnabled can not be set when timeShardPeriod is set: expired shards are archived as a whole!");
+      if (timeShardCreateAheadCount < 0)
+        throw new IllegalArgumentException("The property timeShardCreateAheadCount can not be negative!");
+    }
+
+    if (watermarkEnabled) {
+      if (solr.getSortColumn() == null || solr.getSortColumn().length == 0)
+        throw new IllegalArgumentException("The property sortColumn can not be empty when watermarkEnabled is set!");
+      if (isBlank(solr.getFilterQueryText()))
+        throw new IllegalArgumentException("The property filterQueryText is required for continuing from the watermark when watermarkEnabled is set!");
+    }
   }
 
   @Override
   public ArchivingProperties merge(JobParameters jobParameters) {
     ArchivingProperties archivingProperties = new ArchivingProperties();
     archivingProperties.setReadBlockSize(getIntJobParameter(jobParameters, "readBlockSize", readBlockSize));
+    archivingProperties.setReadMode(ReadMode.valueOf(jobParameters.getString("readMode", readMode.name())));
+    archivingProperties.setReadPrefetchDepth(getIntJobParameter(jobParameters, "readPrefetchDepth", readPrefetchDepth));
+    archivingProperties.setReadMinBlockSize(getIntJobParameter(jobParameters, "readMinBlockSize", readMinBlockSize));
+    archivingProperties.setReadMaxBlockSize(getIntJobParameter(jobParameters, "readMaxBlockSize", readMaxBlockSize));
+    archivingProperties.setReadTargetLatency(toDuration(jobParameters.getString("readTargetLatency", DurationToStringConverter.toString(readTargetLatency))));
+    archivingProperties.setReadTargetBytes(getLongJobParameter(jobParameters, "readTargetBytes", readTargetBytes));
+    archivingProperties.setPartitionMode(PartitionMode.valueOf(jobParameters.getString("partitionMode", partitionMode.name())));
+    archivingProperties.setPartitionThreadCount(getIntJobParameter(jobParameters, "partitionThreadCount", partitionThreadCount));
+    archivingProperties.setPartitionColumn(jobParameters.getString("partitionColumn", partitionColumn));
+    archivingProperties.setPartitionCount(getIntJobParameter(jobParameters, "partitionCount", partitionCount));
     archivingProperties.setWriteBlockSize(getIntJobParameter(jobParameters, "writeBlockSize", writeBlockSize));
+    archivingProperties.setWriteMinBlockSize(getIntJobParameter(jobParameters, "writeMinBlockSize", writeMinBlockSize));
+    archivingProperties.setWriteMaxBlockSize(getIntJobParameter(jobParameters, "writeMaxBlockSize", writeMaxBlockSize));
+    archivingProperties.setWriteTargetFileSize(getLongJobParameter(jobParameters, "writeTargetFileSize", writeTargetFileSize));
+    archivingProperties.setRolloverUncompressedSize(getLongJobParameter(jobParameters, "rolloverUncompressedSize", rolloverUncompressedSize));
+    archivingProperties.setRolloverFileSize(getLongJobParameter(jobParameters, "rolloverFileSize", rolloverFileSize));
+    archivingProperties.setRolloverTimeBucket(toDuration(jobParameters.getString("rolloverTimeBucket", DurationToStringConverter.toString(rolloverTimeBucket))));
+    archivingProperties.setCompression(CompressionCodec.valueOf(jobParameters.getString("compression", compression.name())));
+    archivingProperties.setCompressionLevel(getIntJobParameter(jobParameters, "compressionLevel", compressionLevel));
+    archivingProperties.setCompressionThreadCount(getIntJobParameter(jobParameters, "compressionThreadCount", compressionThreadCount));
+    archivingProperties.setFormat(ArchiveFormat.valueOf(jobParameters.getString("format", format.name())));
+    archivingProperties.setParquetCompression(CompressionCodecName.valueOf(jobParameters.getString("parquetCompression", parquetCompression.name())));
+    archivingProperties.setParquetRowGroupSize(getIntJobParameter(jobParameters, "parquetRowGroupSize", parquetRowGroupSize));
+    archivingProperties.setParquetSchemaSampleSize(getIntJobParameter(jobParameters, "parquetSchemaSampleSize", parquetSchemaSampleSize));
+    archivingProperties.setJavabinBlockSize(getIntJobParameter(jobParameters, "javabinBlockSize", javabinBlockSize));
+    archivingProperties.setManifestBlockSize(getIntJobParameter(jobParameters, "manifestBlockSize", manifestBlockSize));
+    archivingProperties.setPostProcessingThreadCount(getIntJobParameter(jobParameters, "postProcessingThreadCount", postProcessingThreadCount));
+    archivingProperties.setPostProcessingQueueSize(getIntJobParameter(jobParameters, "postProcessingQueueSize", postProcessingQueueSize));
     archivingProperties.setDestination(ExportDestination.valueOf(jobParameters.getString("destination", destination.name())));
     archivingProperties.setLocalDestinationDirectory(jobParameters.getString("localDestinationDirectory", localDestinationDirectory));
     archivingProperties.setFileNameSuffixColumn(jobParameters.getString("fileNameSuffixColumn", fileNameSuffixColumn));
@@ -237,10 +827,22 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     archivingProperties.setHdfsFilePermission(toFsPermission(jobParameters.getString("hdfsFilePermission", FsPermissionToStringConverter.toString(hdfsFilePermission))));
     archivingProperties.setHdfsKerberosPrincipal(jobParameters.getString("hdfsKerberosPrincipal", hdfsKerberosPrincipal));
     archivingProperties.setHdfsKerberosKeytabPath(jobParameters.getString("hdfsKerberosKeytabPath", hdfsKerberosKeytabPath));
+    archivingProperties.setHdfsLocalStaging(Boolean.parseBoolean(jobParameters.getString("hdfsLocalStaging", Boolean.toString(hdfsLocalStaging))));
     archivingProperties.setSolr(solr.merge(jobParameters));
+    archivingProperties.setDeleteBatchSize(getIntJobParameter(jobParameters, "deleteBatchSize", deleteBatchSize));
+    archivingProperties.setDeleteCommitWithin(toDuration(jobParameters.getString("deleteCommitWithin", DurationToStringConverter.toString(deleteCommitWithin))));
+    archivingProperties.setDeleteCommitAtEnd(Boolean.parseBoolean(jobParameters.getString("deleteCommitAtEnd", Boolean.toString(deleteCommitAtEnd))));
+    archivingProperties.setThrottleDocumentsPerSecond(getLongJobParameter(jobParameters, "throttleDocumentsPerSecond", throttleDocumentsPerSecond));
+    archivingProperties.setThrottleBytesPerSecond(getLongJobParameter(jobParameters, "throttleBytesPerSecond", throttleBytesPerSecond));
+    archivingProperties.setThrottleMaxQueryTime(toDuration(jobParameters.getString("throttleMaxQueryTime", DurationToStringConverter.toString(throttleMaxQueryTime))));
+    archivingProperties.setThrottleMaxErrorRate(Double.parseDouble(jobParameters.getString("throttleMaxErrorRate", Double.toString(throttleMaxErrorRate))));
+    archivingProperties.setWatermarkEnabled(Boolean.parseBoolean(jobParameters.getString("watermarkEnabled", Boolean.toString(watermarkEnabled))));
+    archivingProperties.setResetWatermark(Boolean.parseBoolean(jobParameters.getString("resetWatermark", Boolean.toString(resetWatermark))));
     archivingProperties.setStart(jobParameters.getString("start"));
     archivingProperties.setEnd(jobParameters.getString("end"));
     archivingProperties.setTtl(toDuration(jobParameters.getString("ttl", DurationToStringConverter.toString(ttl))));
+    archivingProperties.setTimeShardPeriod(toDuration(jobParameters.getString("timeShardPeriod", DurationToStringConverter.toString(timeShardPeriod))));
+    archivingProperties.setTimeShardCreateAheadCount(getIntJobParameter(jobParameters, "timeShardCreateAheadCount", timeShardCreateAheadCount));
     return archivingProperties;
   }
 
@@ -250,4 +852,11 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
       return defaultValue;
     return Integer.parseInt(valueText);
   }
+
+  private long getLongJobParameter(JobParameters jobParameters, String parameterName, long defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Long.parseLong(valueText);
+  }
 }
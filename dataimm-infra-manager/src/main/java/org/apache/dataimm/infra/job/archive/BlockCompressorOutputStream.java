@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+
+/**
+ * Compresses the data written between two {@link #finishBlock()} calls into independent compressed streams.
+ * The concatenated streams can be decompressed as a whole, or each block alone starting from its offset.
+ */
+public class BlockCompressorOutputStream extends OutputStream {
+  private final CountingOutputStream outputStream;
+  private final StreamCompressor streamCompressor;
+  private OutputStream blockOutputStream = null;
+
+  public BlockCompressorOutputStream(OutputStream outputStream, StreamCompressor streamCompressor) {
+    this.outputStream = new CountingOutputStream(outputStream);
+    this.streamCompressor = streamCompressor;
+  }
+
+  private OutputStream blockOutputStream() throws IOException {
+    if (blockOutputStream == null)
+      blockOutputStream = streamCompressor.compress(new CloseShieldOutputStream(outputStream));
+    return blockOutputStream;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    blockOutputStream().write(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    blockOutputStream().write(b, off, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (blockOutputStream != null)
+      blockOutputStream.flush();
+  }
+
+  /**
+   * Completes the compressed stream of the current block.
+   * @return the position in the underlying stream where the next block starts
+   */
+  public long finishBlock() throws IOException {
+    if (blockOutputStream != null) {
+      blockOutputStream.close();
+      blockOutputStream = null;
+    }
+    return outputStream.getByteCount();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finishBlock();
+    }
+    finally {
+      outputStream.close();
+    }
+  }
+}
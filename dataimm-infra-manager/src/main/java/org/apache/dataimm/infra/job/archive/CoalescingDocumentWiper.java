@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Collects the document ranges of consecutive files and deletes them with one delete when batchSize ranges are
+ * collected or the export is completed. The collected range is saved in the execution context so a restarted job
+ * deletes the documents archived before the failure too. Closing the stream after a failure deletes nothing.
+ */
+public class CoalescingDocumentWiper extends ItemStreamSupport implements DocumentWiper {
+  private static final Logger logger = LogManager.getLogger(CoalescingDocumentWiper.class);
+
+  public static final String PENDING_START = "pending-delete-start";
+  public static final String PENDING_END = "pending-delete-end";
+  public static final String PENDING_COUNT = "pending-delete-count";
+
+  private final DocumentWiper documentWiper;
+  private final int batchSize;
+  private final Runnable commitAction;
+  private Document pendingStart = null;
+  private Document pendingEnd = null;
+  private int pendingCount = 0;
+
+  /**
+   * @param commitAction executed after the last delete when the export is completed, may be null
+   */
+  public CoalescingDocumentWiper(DocumentWiper documentWiper, int batchSize, Runnable commitAction) {
+    this.documentWiper = documentWiper;
+    this.batchSize = batchSize;
+    this.commitAction = commitAction;
+    setName(ClassUtils.getShortName(CoalescingDocumentWiper.class));
+  }
+
+  @Override
+  public synchronized void delete(Document firstDocument, Document lastDocument) {
+    if (pendingStart == null)
+      pendingStart = firstDocument;
+    pendingEnd = lastDocument;
+    ++pendingCount;
+
+    if (pendingCount >= batchSize)
+      flush();
+  }
+
+  @Override
+  public synchronized void open(ExecutionContext executionContext) {
+    pendingStart = (Document) executionContext.get(PENDING_START);
+    pendingEnd = (Document) executionContext.get(PENDING_END);
+    pendingCount = executionContext.getInt(PENDING_COUNT, 0);
+    if (pendingStart != null)
+      logger.info("Restored {} archived files waiting for delete", pendingCount);
+  }
+
+  @Override
+  public synchronized void update(ExecutionContext executionContext) {
+    if (pendingStart == null) {
+      executionContext.remove(PENDING_START);
+      executionContext.remove(PENDING_END);
+      executionContext.remove(PENDING_COUNT);
+      return;
+    }
+
+    executionContext.put(PENDING_START, pendingStart);
+    executionContext.put(PENDING_END, pendingEnd);
+    executionContext.putInt(PENDING_COUNT, pendingCount);
+  }
+
+  /**
+   * Deletes the collected range and runs the commit action. Called only when every file was archived successfully.
+   */
+  public synchronized void complete() {
+    flush();
+    if (commitAction != null)
+      commitAction.run();
+  }
+
+  private void flush() {
+    if (pendingStart == null)
+      return;
+
+    documentWiper.delete(pendingStart, pendingEnd);
+    pendingStart = null;
+    pendingEnd = null;
+    pendingCount = 0;
+  }
+}
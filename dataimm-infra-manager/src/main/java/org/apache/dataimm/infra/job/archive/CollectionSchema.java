@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field definitions of a solr collection. Dynamic fields are matched like solr does: the longest matching pattern wins.
+ */
+public class CollectionSchema {
+  private final Map<String, Field> fields = new HashMap<>();
+  private final List<Field> dynamicFields = new ArrayList<>();
+
+  public void addField(String name, String typeClass, boolean multiValued) {
+    fields.put(name, new Field(name, typeClass, multiValued));
+  }
+
+  public void addDynamicField(String pattern, String typeClass, boolean multiValued) {
+    dynamicFields.add(new Field(pattern, typeClass, multiValued));
+    dynamicFields.sort(Comparator.comparingInt((Field field) -> field.name.length()).reversed());
+  }
+
+  /**
+   * Returns the definition of the field or the dynamic field matching its name, null if the field is not defined.
+   */
+  public Field getField(String name) {
+    Field field = fields.get(name);
+    if (field != null)
+      return field;
+    for (Field dynamicField : dynamicFields) {
+      if (dynamicField.matches(name))
+        return dynamicField;
+    }
+    return null;
+  }
+
+  public static class Field {
+    private final String name;
+    private final String typeClass;
+    private final boolean multiValued;
+
+    private Field(String name, String typeClass, boolean multiValued) {
+      this.name = name;
+      this.typeClass = typeClass;
+      this.multiValued = multiValued;
+    }
+
+    private boolean matches(String fieldName) {
+      if (name.startsWith("*"))
+        return fieldName.endsWith(name.substring(1));
+      if (name.endsWith("*"))
+        return fieldName.startsWith(name.substring(0, name.length() - 1));
+      return fieldName.equals(name);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Class of the field type, like solr.LongPointField
+     */
+    public String getTypeClass() {
+      return typeClass;
+    }
+
+    public boolean isMultiValued() {
+      return multiValued;
+    }
+  }
+}
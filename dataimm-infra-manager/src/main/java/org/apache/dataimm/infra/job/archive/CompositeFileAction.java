@@ -44,4 +44,11 @@ public class CompositeFileAction implements FileAction {
     }
     return file;
   }
+
+  @Override
+  public void revert(File inputFile) {
+    for (int i = actions.size() - 1; i >= 0; --i) {
+      actions.get(i).revert(inputFile);
+    }
+  }
 }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Streaming compression formats of the archive files. Concatenated outputs of every codec can be read by the
+ * standard decompressor of the format, which allows {@link ParallelCompressorOutputStream} to compress blocks independently.
+ */
+public enum CompressionCodec {
+  NONE("", 0, 0) {
+    @Override
+    protected OutputStream doCompress(OutputStream outputStream, int level) {
+      return outputStream;
+    }
+
+    @Override
+    public InputStream decompress(InputStream inputStream) {
+      return inputStream;
+    }
+  },
+  GZIP(".gz", 1, 9) {
+    @Override
+    protected OutputStream doCompress(OutputStream outputStream, int level) throws IOException {
+      GzipParameters parameters = new GzipParameters();
+      parameters.setCompressionLevel(level == DEFAULT_LEVEL ? 6 : level);
+      return new GzipCompressorOutputStream(outputStream, parameters);
+    }
+
+    @Override
+    public InputStream decompress(InputStream inputStream) throws IOException {
+      return new GzipCompressorInputStream(inputStream, true);
+    }
+  },
+  BZIP2(".bz2", 1, 9) {
+    @Override
+    protected OutputStream doCompress(OutputStream outputStream, int level) throws IOException {
+      return new BZip2CompressorOutputStream(outputStream, level == DEFAULT_LEVEL ? BZip2CompressorOutputStream.MAX_BLOCKSIZE : level);
+    }
+
+    @Override
+    public InputStream decompress(InputStream inputStream) throws IOException {
+      return new BZip2CompressorInputStream(inputStream, true);
+    }
+  },
+  ZSTD(".zst", 1, 22) {
+    @Override
+    protected OutputStream doCompress(OutputStream outputStream, int level) throws IOException {
+      return new ZstdCompressorOutputStream(outputStream, level == DEFAULT_LEVEL ? 3 : level);
+    }
+
+    @Override
+    public InputStream decompress(InputStream inputStream) throws IOException {
+      return new ZstdCompressorInputStream(inputStream);
+    }
+  },
+  LZ4(".lz4", 0, 17) {
+    @Override
+    protected OutputStream doCompress(OutputStream outputStream, int level) throws IOException {
+      LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+      return new LZ4FrameOutputStream(outputStream,
+              LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB,
+              -1L,
+              level == DEFAULT_LEVEL || level == 0 ? lz4Factory.fastCompressor() : lz4Factory.highCompressor(level),
+              XXHashFactory.fastestInstance().hash32(),
+              LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+    }
+
+    @Override
+    public InputStream decompress(InputStream inputStream) throws IOException {
+      return new LZ4FrameInputStream(inputStream);
+    }
+  };
+
+  public static final int DEFAULT_LEVEL = -1;
+
+  private final String extension;
+  private final int minLevel;
+  private final int maxLevel;
+
+  CompressionCodec(String extension, int minLevel, int maxLevel) {
+    this.extension = extension;
+    this.minLevel = minLevel;
+    this.maxLevel = maxLevel;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  public boolean isValidLevel(int level) {
+    return level == DEFAULT_LEVEL || (level >= minLevel && level <= maxLevel);
+  }
+
+  public OutputStream compress(OutputStream outputStream) throws IOException {
+    return compress(outputStream, DEFAULT_LEVEL);
+  }
+
+  public OutputStream compress(OutputStream outputStream, int level) throws IOException {
+    if (!isValidLevel(level))
+      throw new IllegalArgumentException(String.format("Compression level of %s must be between %d and %d!", name(), minLevel, maxLevel));
+    return doCompress(outputStream, level);
+  }
+
+  protected abstract OutputStream doCompress(OutputStream outputStream, int level) throws IOException;
+
+  /**
+   * Returns a stream reading every concatenated compressed stream of the input.
+   */
+  public abstract InputStream decompress(InputStream inputStream) throws IOException;
+
+  /**
+   * Returns the codec of a file name ending with a compressed extension, NONE otherwise.
+   */
+  public static CompressionCodec ofFileName(String fileName) {
+    for (CompressionCodec codec : values()) {
+      if (codec != NONE && fileName.endsWith(codec.extension))
+        return codec;
+    }
+    return NONE;
+  }
+}
@@ -18,37 +18,124 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
-import static java.util.Collections.unmodifiableMap;
-
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonAnyGetter;
-import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
+/**
+ * Immutable document. Field names are held by a {@link DocumentSchema} which is shared by the documents of a batch,
+ * the values are stored in an array indexed by the schema. Fields having null value are absent.
+ */
 public class Document {
-  private final Map<String, Object> fieldMap;
+  private final DocumentSchema schema;
+  private final Object[] values;
+  private transient Map<String, Object> fieldMap;
 
-  private Document() {
-    fieldMap = new HashMap<>();
+  @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+  public Document(Map<String, Object> fieldMap) {
+    this.schema = DocumentSchema.of(fieldMap.keySet());
+    this.values = new Object[schema.size()];
+    for (Map.Entry<String, Object> field : fieldMap.entrySet()) {
+      values[schema.indexOf(field.getKey())] = field.getValue();
+    }
   }
 
-  public Document(Map<String, Object> fieldMap) {
-    this.fieldMap = unmodifiableMap(fieldMap);
+  /**
+   * The values array is owned by the document after this call, its length must be the size of the schema.
+   */
+  public Document(DocumentSchema schema, Object[] values) {
+    if (values.length != schema.size())
+      throw new IllegalArgumentException("The number of values must be equal to the size of the schema!");
+    this.schema = schema;
+    this.values = values;
+  }
+
+  @JsonIgnore
+  public DocumentSchema getSchema() {
+    return schema;
+  }
+
+  Object get(int index) {
+    return values[index];
+  }
+
+  public Object get(String key) {
+    int index = schema.indexOf(key);
+    return index < 0 ? null : values[index];
   }
 
   public String getString(String key) {
-    Object value = fieldMap.get(key);
+    Object value = get(key);
     return value == null ? null : value.toString();
   }
 
   @JsonAnyGetter
   public Map<String, Object> getFieldMap() {
+    if (fieldMap == null)
+      fieldMap = new FieldMap();
     return fieldMap;
   }
 
-  @JsonAnySetter
-  private void put(String key, Object value) {
-    fieldMap.put(key, value);
+  private class FieldMap extends AbstractMap<String, Object> {
+    @Override
+    public Object get(Object key) {
+      return key instanceof String ? Document.this.get((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new FieldIterator();
+        }
+
+        @Override
+        public int size() {
+          int size = 0;
+          for (Object value : values) {
+            if (value != null)
+              ++size;
+          }
+          return size;
+        }
+      };
+    }
+  }
+
+  private class FieldIterator implements Iterator<Map.Entry<String, Object>> {
+    private int index = nextIndex(0);
+
+    private int nextIndex(int from) {
+      while (from < values.length && values[from] == null)
+        ++from;
+      return from;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < values.length;
+    }
+
+    @Override
+    public Map.Entry<String, Object> next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      Map.Entry<String, Object> entry = new AbstractMap.SimpleImmutableEntry<>(schema.getFieldName(index), values[index]);
+      index = nextIndex(index + 1);
+      return entry;
+    }
   }
 }
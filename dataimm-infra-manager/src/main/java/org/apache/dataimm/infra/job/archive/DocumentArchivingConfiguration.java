@@ -23,28 +23,49 @@ import static org.apache.dataimm.infra.job.archive.SolrQueryBuilder.computeEnd;
 import static org.apache.commons.lang.StringUtils.isBlank;
 
 import java.io.File;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
 import org.apache.dataimm.infra.conf.InfraManagerDataConfig;
 import org.apache.dataimm.infra.job.AbstractJobsConfiguration;
+import org.apache.dataimm.infra.job.CursorObjectSource;
 import org.apache.dataimm.infra.job.JobContextRepository;
 import org.apache.dataimm.infra.job.JobScheduler;
+import org.apache.dataimm.infra.job.JobWatermarkDao;
 import org.apache.dataimm.infra.job.ObjectSource;
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.dataimm.infra.job.ThrottleRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 @Configuration
 public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<ArchivingProperties, ArchivingProperties> {
@@ -52,7 +73,11 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
   private static final DocumentWiper NOT_DELETE = (firstDocument, lastDocument) -> { };
 
   private final StepBuilderFactory steps;
+  private final Step planExportStep;
   private final Step exportStep;
+  private final Step rotateTimeShardsStep;
+  private final JobWatermarkDao jobWatermarkDao;
+  private final ThrottleRegistry throttleRegistry;
 
   @Inject
   public DocumentArchivingConfiguration(
@@ -60,55 +85,244 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
           JobScheduler scheduler,
           StepBuilderFactory steps,
           JobBuilderFactory jobs,
+          @Qualifier("planExportStep") Step planExportStep,
           @Qualifier("exportStep") Step exportStep,
-          JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor) {
+          @Qualifier("rotateTimeShardsStep") Step rotateTimeShardsStep,
+          JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor,
+          JobWatermarkDao jobWatermarkDao,
+          ThrottleRegistry throttleRegistry) {
     super(jobsPropertyMap.getSolrDataArchiving(), scheduler, jobs, jobRegistryBeanPostProcessor);
+    this.planExportStep = planExportStep;
     this.exportStep = exportStep;
+    this.rotateTimeShardsStep = rotateTimeShardsStep;
     this.steps = steps;
+    this.jobWatermarkDao = jobWatermarkDao;
+    this.throttleRegistry = throttleRegistry;
   }
 
   @Override
   protected Job buildJob(JobBuilder jobBuilder) {
-    return jobBuilder.start(exportStep).build();
+    return jobBuilder.start(planExportStep).next(exportStep).next(rotateTimeShardsStep).build();
   }
 
   @Bean
   @JobScope
-  public Step exportStep(DocumentExporter documentExporter) {
+  public Step planExportStep(@Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                             SolrClientRegistry solrClientRegistry) {
+    Tasklet planExport = (contribution, chunkContext) -> {
+      if (parameters.getTimeShardPeriod() != null) {
+        // The shards are selected once: a restarted job exports and deletes the same shards even if more expired since
+        TimeShardRotation rotation = new TimeShardRotation(solrClientRegistry, parameters.getSolr(), parameters.getTimeShardPeriod());
+        List<String> expiredShards = rotation.expiredShards(Instant.parse(computeEnd(parameters.getEnd(), parameters.getTtl())));
+        logger.info("Expired time shards to archive and delete: {}", expiredShards);
+        chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext()
+                .put(SolrShardPartitioner.SHARDS, new ArrayList<>(expiredShards));
+        return RepeatStatus.FINISHED;
+      }
+
+      // The partition mode can be set by a job parameter: the planning step is part of every archiving job
+      if (parameters.getPartitionMode() != PartitionMode.TIME_RANGE)
+        return RepeatStatus.FINISHED;
+
+      TimeRangePlanner planner = new TimeRangePlanner(
+              new SolrDAO(solrClientRegistry, parameters.getSolr()), parameters.getPartitionColumn(), parameters.getPartitionCount());
+      List<TimeRangePartition> plan = planner.plan(parameters.getStart(), computeEnd(parameters.getEnd(), parameters.getTtl()));
+      chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext()
+              .put(TimeRangePartitioner.PLAN, new ArrayList<>(plan));
+      return RepeatStatus.FINISHED;
+    };
+    return steps.get("planExport")
+            .tasklet(planExport)
+            .build();
+  }
+
+  @Bean
+  @JobScope
+  public Step exportStep(DocumentExporter documentExporter,
+                         @Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                         @Value("#{jobExecution.id}") Long jobExecutionId,
+                         @Value("#{jobExecution.executionContext}") ExecutionContext jobExecutionContext,
+                         SolrClientRegistry solrClientRegistry) {
+    // Shared by the partitions, the rates are the rates of the job
+    StepExecutionListenerSupport throttleListener = new StepExecutionListenerSupport() {
+      @Override
+      public void beforeStep(StepExecution stepExecution) {
+        throttleRegistry.register(jobExecutionId, parameters.throttle());
+      }
+
+      @Override
+      public ExitStatus afterStep(StepExecution stepExecution) {
+        throttleRegistry.remove(jobExecutionId);
+        return null;
+      }
+    };
+
+    if (parameters.getPartitionMode() != PartitionMode.NONE) {
+      Partitioner partitioner = parameters.getPartitionMode() == PartitionMode.SHARD ?
+              new SolrShardPartitioner(solrClientRegistry, parameters.getSolr(), jobExecutionContext) :
+              new TimeRangePartitioner(jobExecutionContext);
+      SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("export-partition-");
+      taskExecutor.setConcurrencyLimit(parameters.getPartitionThreadCount());
+      return steps.get("export")
+              .listener(throttleListener)
+              .partitioner("exportPartition", partitioner)
+              .step(steps.get("exportPartition").tasklet(documentExporter).build())
+              .taskExecutor(taskExecutor)
+              .gridSize(parameters.getPartitionThreadCount())
+              .build();
+    }
+
     return steps.get("export")
+            .listener(throttleListener)
             .tasklet(documentExporter)
             .build();
   }
 
+  @Bean
+  @JobScope
+  @SuppressWarnings("unchecked")
+  public Step rotateTimeShardsStep(@Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                                   SolrClientRegistry solrClientRegistry,
+                                   JobExplorer jobExplorer) {
+    Tasklet rotateTimeShards = (contribution, chunkContext) -> {
+      if (parameters.getTimeShardPeriod() == null)
+        return RepeatStatus.FINISHED;
+
+      // Runs only after every expired shard was exported: dropping a shard is much cheaper than deleting its documents
+      TimeShardRotation rotation = new TimeShardRotation(solrClientRegistry, parameters.getSolr(), parameters.getTimeShardPeriod());
+      JobExecution jobExecution = chunkContext.getStepContext().getStepExecution().getJobExecution();
+      List<String> archivedShards = (List<String>) jobExecution.getExecutionContext().get(SolrShardPartitioner.SHARDS);
+      if (archivedShards != null)
+        rotation.deleteShards(archivedShards, exportedDocumentCounts(jobExplorer, jobExecution.getJobInstance()));
+      rotation.createShards(Instant.now(), parameters.getTimeShardCreateAheadCount());
+      return RepeatStatus.FINISHED;
+    };
+    return steps.get("rotateTimeShards")
+            .tasklet(rotateTimeShards)
+            .build();
+  }
+
+  private Map<String, Long> exportedDocumentCounts(JobExplorer jobExplorer, JobInstance jobInstance) {
+    // Partitions completed before a restart are not executed again: their counts are in the earlier job executions
+    Map<String, Long> exportedCounts = new HashMap<>();
+    for (JobExecution jobExecution : jobExplorer.getJobExecutions(jobInstance)) {
+      for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        if (stepExecution.getStatus() == BatchStatus.COMPLETED && executionContext.containsKey(SolrShardPartitioner.SHARD))
+          exportedCounts.put(executionContext.getString(SolrShardPartitioner.SHARD), executionContext.getLong(DocumentExporter.EXPORTED_DOCUMENT_COUNT, 0));
+      }
+    }
+    return exportedCounts;
+  }
+
   @Bean
   @StepScope
   public DocumentExporter documentExporter(DocumentItemReader documentItemReader,
                                            @Value("#{stepExecution.jobExecution.jobId}") String jobId,
+                                           @Value("#{stepExecution.jobExecution.jobInstance.jobName}") String jobName,
+                                           @Value("#{stepExecution.jobExecution.id}") Long jobExecutionId,
                                            @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
                                            InfraManagerDataConfig infraManagerDataConfig,
                                            @Value("#{jobParameters[end]}") String intervalEnd,
+                                           @Value("#{stepExecution.executionContext.get('" + SolrShardPartitioner.SHARD + "')}") String shard,
+                                           @Value("#{stepExecution.executionContext.get('" + TimeRangePartitioner.PARTITION + "')}") String timeRange,
                                            DocumentWiper documentWiper,
+                                           SolrDAO solrDAO,
+                                           HdfsFileSystemRegistry hdfsFileSystemRegistry,
                                            JobContextRepository jobContextRepository) {
 
     File baseDir = new File(infraManagerDataConfig.getDataFolder(), "exporting");
-    CompositeFileAction fileAction = new CompositeFileAction(new BZip2Compressor());
+    CompositeFileAction fileAction = new CompositeFileAction();
+    HdfsFileSystemFactory hdfsFileSystemFactory = null;
     switch (parameters.getDestination()) {
       case HDFS:
-        org.apache.hadoop.conf.Configuration conf = new org.apache.hadoop.conf.Configuration();
-        fileAction.add(new HdfsUploader(conf,
-                parameters.hdfsProperties().orElseThrow(() -> new IllegalStateException("HDFS properties are not provided!"))));
+        hdfsFileSystemFactory = new HdfsFileSystemFactory(hdfsFileSystemRegistry,
+                parameters.hdfsProperties().orElseThrow(() -> new IllegalStateException("HDFS properties are not provided!")));
+        if (parameters.isHdfsLocalStaging()) {
+          fileAction.add(new HdfsUploader(hdfsFileSystemFactory));
+          hdfsFileSystemFactory = null;
+        }
         break;
       case LOCAL:
         baseDir = new File(parameters.getLocalDestinationDirectory());
         break;
     }
 
+    CoalescingDocumentWiper coalescingDocumentWiper = null;
+    if (!isBlank(parameters.getSolr().getDeleteQueryText()) && (parameters.getDeleteBatchSize() > 1 || parameters.isDeleteCommitAtEnd())) {
+      coalescingDocumentWiper = new CoalescingDocumentWiper(
+              documentWiper, parameters.getDeleteBatchSize(), parameters.isDeleteCommitAtEnd() ? solrDAO::commit : null);
+      documentWiper = coalescingDocumentWiper;
+    }
+
+    StreamCompressor streamCompressor = parameters.streamCompressor();
+    DocumentFileFormat fileFormat = parameters.fileFormat(streamCompressor, solrDAO::readSchema);
     FileNameSuffixFormatter fileNameSuffixFormatter = FileNameSuffixFormatter.from(parameters);
-    LocalItemWriterListener itemWriterListener = new LocalItemWriterListener(fileAction, documentWiper);
+    PostProcessingPipeline postProcessingPipeline = null;
+    ItemWriterListener itemWriterListener;
+    if (parameters.getPostProcessingThreadCount() > 0) {
+      postProcessingPipeline = new PostProcessingPipeline(
+              fileAction, documentWiper, parameters.getPostProcessingThreadCount(), parameters.getPostProcessingQueueSize());
+      itemWriterListener = postProcessingPipeline;
+    }
+    else {
+      itemWriterListener = new LocalItemWriterListener(fileAction, documentWiper);
+    }
+    String collection = parameters.getSolr().getCollection();
+    String partition = shard == null ? timeRange : shard;
+
+    DocumentExporter documentExporter;
+    if (hdfsFileSystemFactory != null) {
+      HdfsFileSystemFactory fileSystemFactory = hdfsFileSystemFactory;
+      logger.info("Streaming to hdfs directory {}", parameters.getHdfsDestinationDirectory());
+      documentExporter = new DocumentExporter(
+              documentItemReader,
+              firstDocument -> new HdfsDocumentItemWriter(fileSystemFactory,
+                      fileName(collection, partition, fileNameSuffixFormatter.format(firstDocument), fileFormat.getExtension()),
+                      fileFormat, itemWriterListener),
+              parameters.rolloverPolicy(), jobContextRepository, postProcessingPipeline);
+    }
+    else {
+      File destinationDirectory = createDestinationDirectory(baseDir, collection, jobId, intervalEnd, fileNameSuffixFormatter);
+      documentExporter = new DocumentExporter(
+              documentItemReader,
+              firstDocument -> new LocalDocumentItemWriter(
+                      outFile(destinationDirectory,
+                              fileName(collection, partition, fileNameSuffixFormatter.format(firstDocument), fileFormat.getExtension())),
+                      fileFormat, itemWriterListener),
+              parameters.rolloverPolicy(), jobContextRepository, postProcessingPipeline);
+    }
+
+    documentExporter.registerCloseAction(streamCompressor::close);
+    if (coalescingDocumentWiper != null) {
+      documentExporter.registerStream(coalescingDocumentWiper);
+      documentExporter.registerCompletionAction(coalescingDocumentWiper::complete);
+    }
+    if (parameters.updatesWatermark())
+      documentExporter.setWatermark(watermark(parameters, jobName, shard));
+    throttleRegistry.get(jobExecutionId).ifPresent(documentExporter::setThrottle);
+    return documentExporter;
+  }
+
+  private ArchiveWatermark watermark(ArchivingProperties parameters, String jobName, String shard) {
+    return new ArchiveWatermark(jobWatermarkDao, jobName, shard, parameters.getSolr().getSortColumn());
+  }
+
+  private Document loadWatermark(ArchivingProperties parameters, String jobName, String shard) {
+    if (!parameters.readsFromWatermark())
+      return null;
+
+    ArchiveWatermark watermark = watermark(parameters, jobName, shard);
+    Document lastArchived = watermark.load().orElse(null);
+    logger.info("Archiving of {} continues after {}", watermark.getKey(), lastArchived == null ? "*" : lastArchived.getFieldMap());
+    return lastArchived;
+  }
+
+  private File createDestinationDirectory(File baseDir, String collection, String jobId, String intervalEnd, FileNameSuffixFormatter fileNameSuffixFormatter) {
     File destinationDirectory = new File(
             baseDir,
             String.format("%s_%s_%s",
-                    parameters.getSolr().getCollection(),
+                    collection,
                     jobId,
                     isBlank(intervalEnd) ? "" : fileNameSuffixFormatter.format(intervalEnd)));
     logger.info("Destination directory path={}", destinationDirectory);
@@ -117,12 +331,7 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
         logger.warn("Unable to create directory {}", destinationDirectory);
       }
     }
-
-    return new DocumentExporter(
-            documentItemReader,
-            firstDocument -> new LocalDocumentItemWriter(
-                    outFile(parameters.getSolr().getCollection(), destinationDirectory, fileNameSuffixFormatter.format(firstDocument)), itemWriterListener),
-            parameters.getWriteBlockSize(), jobContextRepository);
+    return destinationDirectory;
   }
 
   @Bean
@@ -134,14 +343,29 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
     return solrDAO;
   }
 
-  @Bean
+  @Bean(destroyMethod = "close")
   @StepScope
-  public SolrDAO solrDAO(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters) {
-    return new SolrDAO(parameters.getSolr());
+  public SolrDAO solrDAO(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                         @Value("#{stepExecution.executionContext.get('" + SolrShardPartitioner.SHARD + "')}") String shard,
+                         @Value("#{stepExecution.jobExecution.id}") Long jobExecutionId,
+                         SolrClientRegistry solrClientRegistry) {
+    // Expired time shards are archived as a whole: the documents outside of the interval too
+    SolrProperties solrProperties = parameters.getTimeShardPeriod() == null ?
+            parameters.getSolr() : TimeShardRotation.exportProperties(parameters.getSolr());
+    SolrDAO solrDAO = new SolrDAO(solrClientRegistry, solrProperties, shard);
+    solrDAO.setCommitWithin(parameters.getDeleteCommitWithin());
+    solrDAO.setFieldProjection(parameters.getSolr().fieldProjection(parameters.getFileNameSuffixColumn()));
+    throttleRegistry.get(jobExecutionId).ifPresent(solrDAO::setThrottle);
+    return solrDAO;
+  }
+
+  private String fileName(String collection, String partition, String suffix, String extension) {
+    String prefix = partition == null ? collection : String.format("%s_-_%s", collection, partition);
+    return String.format("%s_-_%s%s", prefix, suffix, extension);
   }
 
-  private File outFile(String collection, File directoryPath, String suffix) {
-    File file = new File(directoryPath, String.format("%s_-_%s.json", collection, suffix));
+  private File outFile(File directoryPath, String fileName) {
+    File file = new File(directoryPath, fileName);
     logger.info("Exporting to temp file {}", file.getAbsolutePath());
     return file;
   }
@@ -149,15 +373,66 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
   @Bean
   @StepScope
   public DocumentItemReader reader(ObjectSource<Document> documentSource,
-                                   @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties properties) {
-    return new DocumentItemReader(documentSource, properties.getReadBlockSize());
+                                   CursorObjectSource<Document> cursorDocumentSource,
+                                   @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties properties,
+                                   @Value("#{stepExecution.jobExecution.jobInstance.jobName}") String jobName,
+                                   @Value("#{stepExecution.executionContext.get('" + SolrShardPartitioner.SHARD + "')}") String shard) {
+    DocumentItemReader reader;
+    switch (properties.getReadMode()) {
+      case CURSOR_MARK:
+        // The watermark is applied by the cursor source
+        reader = new DocumentItemReader(cursorDocumentSource, properties.getReadBlockSize());
+        break;
+      case EXPORT:
+        // The export stream is not paged: it is never reopened unless the job is restarted
+        reader = new DocumentItemReader(documentSource, Integer.MAX_VALUE);
+        reader.setInitialPosition(loadWatermark(properties, jobName, shard));
+        return reader;
+      default:
+        reader = new DocumentItemReader(documentSource, properties.getReadBlockSize());
+        reader.setInitialPosition(loadWatermark(properties, jobName, shard));
+    }
+    reader.setPrefetchDepth(properties.getReadPrefetchDepth());
+    reader.setAdaptiveBlockSize(properties.adaptiveReadBlockSize());
+    return reader;
   }
 
   @Bean
   @StepScope
   public ObjectSource<Document> documentSource(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                                               @Value("#{stepExecution.executionContext.get('" + TimeRangePartitioner.PARTITION_START + "')}") String timeRangeStart,
+                                               @Value("#{stepExecution.executionContext.get('" + TimeRangePartitioner.PARTITION_END + "')}") String timeRangeEnd,
                                                SolrDAO solrDAO) {
 
-    return new SolrDocumentSource(solrDAO, parameters.getStart(), computeEnd(parameters.getEnd(), parameters.getTtl()));
+    String start = intervalStart(parameters, timeRangeStart);
+    String end = intervalEnd(parameters, timeRangeEnd);
+    if (parameters.getReadMode() == ReadMode.EXPORT)
+      return new SolrExportDocumentSource(solrDAO, start, end);
+    return new SolrDocumentSource(solrDAO, start, end);
+  }
+
+  @Bean
+  @StepScope
+  public CursorObjectSource<Document> cursorDocumentSource(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                                                           @Value("#{stepExecution.jobExecution.jobInstance.jobName}") String jobName,
+                                                           @Value("#{stepExecution.executionContext.get('" + SolrShardPartitioner.SHARD + "')}") String shard,
+                                                           @Value("#{stepExecution.executionContext.get('" + TimeRangePartitioner.PARTITION_START + "')}") String timeRangeStart,
+                                                           @Value("#{stepExecution.executionContext.get('" + TimeRangePartitioner.PARTITION_END + "')}") String timeRangeEnd,
+                                                           SolrDAO solrDAO) {
+
+    return new SolrCursorDocumentSource(solrDAO, intervalStart(parameters, timeRangeStart), intervalEnd(parameters, timeRangeEnd),
+            parameters.getReadMode() == ReadMode.CURSOR_MARK ? loadWatermark(parameters, jobName, shard) : null);
+  }
+
+  private String intervalStart(ArchivingProperties parameters, String timeRangeStart) {
+    if (parameters.getTimeShardPeriod() != null)
+      return null;
+    return timeRangeStart == null ? parameters.getStart() : timeRangeStart;
+  }
+
+  private String intervalEnd(ArchivingProperties parameters, String timeRangeEnd) {
+    if (parameters.getTimeShardPeriod() != null)
+      return null;
+    return timeRangeEnd == null ? computeEnd(parameters.getEnd(), parameters.getTtl()) : timeRangeEnd;
   }
 }
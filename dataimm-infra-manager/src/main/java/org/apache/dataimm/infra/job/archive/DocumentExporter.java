@@ -18,7 +18,11 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.dataimm.infra.job.JobContextRepository;
+import org.apache.dataimm.infra.job.Throttle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.batch.core.ExitStatus;
@@ -28,7 +32,9 @@ import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
 import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.support.CompositeItemStream;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.lang.NonNull;
 
@@ -36,17 +42,78 @@ public class DocumentExporter implements Tasklet, StepExecutionListener {
 
   private static final Logger logger = LogManager.getLogger(DocumentExporter.class);
 
+  public final static String FILE_DOCUMENT_COUNT = "file-document-count";
+  public final static String EXPORTED_DOCUMENT_COUNT = "exported-document-count";
+
   private boolean complete = false;
   private final ItemStreamReader<Document> documentReader;
   private final DocumentDestination documentDestination;
-  private final int writeBlockSize;
+  private final RolloverPolicy rolloverPolicy;
   private final JobContextRepository jobContextRepository;
+  private final PostProcessingPipeline postProcessingPipeline;
+  private final CompositeItemStream streams = new CompositeItemStream();
+  private final List<Runnable> completionActions = new ArrayList<>();
+  private final List<Runnable> closeActions = new ArrayList<>();
+  private ArchiveWatermark watermark = null;
+  private Throttle throttle = null;
 
   public DocumentExporter(ItemStreamReader<Document> documentReader, DocumentDestination documentDestination, int writeBlockSize, JobContextRepository jobContextRepository) {
+    this(documentReader, documentDestination, writeBlockSize, jobContextRepository, null);
+  }
+
+  /**
+   * @param postProcessingPipeline the pipeline the writers of the destination hand the completed files to.
+   *                               The reader position is persisted only after the pipeline processed the earlier files.
+   */
+  public DocumentExporter(ItemStreamReader<Document> documentReader, DocumentDestination documentDestination, int writeBlockSize,
+                          JobContextRepository jobContextRepository, PostProcessingPipeline postProcessingPipeline) {
+    this(documentReader, documentDestination, new DocumentCountRolloverPolicy(writeBlockSize), jobContextRepository, postProcessingPipeline);
+  }
+
+  /**
+   * @param rolloverPolicy decides when the current file is completed and the next document is written into a new one.
+   *                       The reader position is saved at these points only.
+   */
+  public DocumentExporter(ItemStreamReader<Document> documentReader, DocumentDestination documentDestination, RolloverPolicy rolloverPolicy,
+                          JobContextRepository jobContextRepository, PostProcessingPipeline postProcessingPipeline) {
     this.documentReader = documentReader;
     this.documentDestination = documentDestination;
-    this.writeBlockSize = writeBlockSize;
+    this.rolloverPolicy = rolloverPolicy;
     this.jobContextRepository = jobContextRepository;
+    this.postProcessingPipeline = postProcessingPipeline;
+    this.streams.register(documentReader);
+  }
+
+  /**
+   * Registers a stream which is opened, updated and closed together with the reader. Its state is saved with the reader position.
+   */
+  public void registerStream(ItemStream stream) {
+    streams.register(stream);
+  }
+
+  /**
+   * @param completionAction executed when every document was exported, but not when the step fails or stops
+   */
+  public void registerCompletionAction(Runnable completionAction) {
+    completionActions.add(completionAction);
+  }
+
+  /**
+   * @param closeAction executed after the step, whether it completed or failed
+   */
+  public void registerCloseAction(Runnable closeAction) {
+    closeActions.add(closeAction);
+  }
+
+  /**
+   * The watermark is moved to the last exported document when the step completes.
+   */
+  public void setWatermark(ArchiveWatermark watermark) {
+    this.watermark = watermark;
+  }
+
+  public void setThrottle(Throttle throttle) {
+    this.throttle = throttle;
   }
 
   @Override
@@ -56,6 +123,10 @@ public class DocumentExporter implements Tasklet, StepExecutionListener {
 
   @Override
   public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+    if (postProcessingPipeline != null)
+      postProcessingPipeline.close();
+    closeActions.forEach(Runnable::run);
+
     if (complete) {
       return ExitStatus.COMPLETED;
     }
@@ -66,16 +137,22 @@ public class DocumentExporter implements Tasklet, StepExecutionListener {
 
   @Override
   public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws Exception {
+    if (postProcessingPipeline != null)
+      return executeWithPipeline(chunkContext.getStepContext().getStepExecution());
+
     StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
     ExecutionContext executionContext = stepExecution.getExecutionContext();
-    documentReader.open(executionContext);
+    streams.open(executionContext);
 
     DocumentItemWriter writer = null;
+    Document firstDocument = null;
+    Document lastDocument = lastExported(executionContext);
+    long exportedCount = executionContext.getLong(EXPORTED_DOCUMENT_COUNT, 0);
     int writtenCount = 0;
     try {
       Document document;
       while ((document = documentReader.read()) != null) {
-        if (writer != null && writtenCount >= writeBlockSize) {
+        if (writer != null && rolloverPolicy.shouldRollover(writer, writtenCount, firstDocument, document)) {
           stepExecution = jobContextRepository.getStepExecution(stepExecution.getJobExecutionId(), stepExecution.getId());
           if (stepExecution.isTerminateOnly()) {
             logger.info("Received stop signal.");
@@ -85,18 +162,37 @@ public class DocumentExporter implements Tasklet, StepExecutionListener {
           }
 
           writer.close();
+          rolloverPolicy.fileCompleted(writer, writtenCount);
+          executionContext.putInt(FILE_DOCUMENT_COUNT, writtenCount);
+          exportedCount += writtenCount;
+          executionContext.putLong(EXPORTED_DOCUMENT_COUNT, exportedCount);
           writer = null;
           writtenCount = 0;
-          documentReader.update(executionContext);
+          streams.update(executionContext);
           jobContextRepository.updateExecutionContext(stepExecution);
         }
 
-        if (writer == null)
+        if (writer == null) {
           writer = documentDestination.open(document);
+          firstDocument = document;
+        }
 
+        throttle(document);
         writer.write(document);
+        lastDocument = document;
         ++writtenCount;
       }
+
+      if (writer != null) {
+        writer.close();
+        writer = null;
+        executionContext.putInt(FILE_DOCUMENT_COUNT, writtenCount);
+        exportedCount += writtenCount;
+        writtenCount = 0;
+        executionContext.putLong(EXPORTED_DOCUMENT_COUNT, exportedCount);
+        streams.update(executionContext);
+        jobContextRepository.updateExecutionContext(stepExecution);
+      }
     }
     catch (Exception e) {
       if (writer != null) {
@@ -106,12 +202,120 @@ public class DocumentExporter implements Tasklet, StepExecutionListener {
       throw e;
     }
     finally {
-      if (writer != null)
+      streams.close();
+    }
+
+    executionContext.putLong(EXPORTED_DOCUMENT_COUNT, exportedCount);
+    completionActions.forEach(Runnable::run);
+    updateWatermark(lastDocument);
+    complete = true;
+    return RepeatStatus.FINISHED;
+  }
+
+  private RepeatStatus executeWithPipeline(StepExecution stepExecution) throws Exception {
+    streams.open(stepExecution.getExecutionContext());
+
+    DocumentItemWriter writer = null;
+    Document firstDocument = null;
+    Document lastDocument = lastExported(stepExecution.getExecutionContext());
+    long exportedCount = stepExecution.getExecutionContext().getLong(EXPORTED_DOCUMENT_COUNT, 0);
+    int writtenCount = 0;
+    try {
+      Document document;
+      while ((document = documentReader.read()) != null) {
+        if (writer != null && rolloverPolicy.shouldRollover(writer, writtenCount, firstDocument, document)) {
+          if (jobContextRepository.getStepExecution(stepExecution.getJobExecutionId(), stepExecution.getId()).isTerminateOnly()) {
+            logger.info("Received stop signal.");
+            writer.revert();
+            writer = null;
+            postProcessingPipeline.await();
+            persistCheckpoint(stepExecution);
+            return RepeatStatus.CONTINUABLE;
+          }
+
+          writer.close();
+          rolloverPolicy.fileCompleted(writer, writtenCount);
+          writer = null;
+          exportedCount += writtenCount;
+          checkpoint(writtenCount, exportedCount);
+          writtenCount = 0;
+          persistCheckpoint(stepExecution);
+        }
+
+        if (writer == null) {
+          writer = documentDestination.open(document);
+          firstDocument = document;
+        }
+
+        throttle(document);
+        writer.write(document);
+        lastDocument = document;
+        ++writtenCount;
+      }
+
+      if (writer != null) {
         writer.close();
-      documentReader.close();
+        writer = null;
+        exportedCount += writtenCount;
+        checkpoint(writtenCount, exportedCount);
+        writtenCount = 0;
+      }
+      postProcessingPipeline.await();
+      persistCheckpoint(stepExecution);
+      stepExecution.getExecutionContext().putLong(EXPORTED_DOCUMENT_COUNT, exportedCount);
+    }
+    catch (Exception e) {
+      if (writer != null)
+        writer.revert();
+      postProcessingPipeline.await();
+      try {
+        persistCheckpoint(stepExecution);
+      } catch (Exception e1) {
+        e.addSuppressed(e1);
+      }
+      throw e;
+    }
+    finally {
+      streams.close();
     }
 
+    completionActions.forEach(Runnable::run);
+    updateWatermark(lastDocument);
     complete = true;
     return RepeatStatus.FINISHED;
   }
+
+  private void throttle(Document document) throws InterruptedException {
+    if (throttle != null)
+      throttle.acquire(1, throttle.isLimitingBytes() ? AdaptiveBlockSize.estimateSize(document) : 0);
+  }
+
+  private Document lastExported(ExecutionContext executionContext) {
+    // Position of the documents exported before restart
+    return (Document) executionContext.get(DocumentItemReader.POSITION);
+  }
+
+  private void updateWatermark(Document lastDocument) {
+    if (watermark != null && lastDocument != null)
+      watermark.save(lastDocument);
+  }
+
+  private void checkpoint(int fileDocumentCount, long exportedCount) {
+    // The state of the other streams is saved by the pipeline after the file is processed
+    ExecutionContext readerState = new ExecutionContext();
+    documentReader.update(readerState);
+    readerState.putInt(FILE_DOCUMENT_COUNT, fileDocumentCount);
+    readerState.putLong(EXPORTED_DOCUMENT_COUNT, exportedCount);
+    postProcessingPipeline.checkpoint(readerState);
+  }
+
+  private void persistCheckpoint(StepExecution stepExecution) {
+    // Polled until it is drained: the failure of a file is thrown after the checkpoint of the files before it is saved
+    ExecutionContext readerState;
+    while ((readerState = postProcessingPipeline.pollCheckpoint()) != null) {
+      ExecutionContext checkpoint = readerState;
+      checkpoint.entrySet().forEach(entry -> stepExecution.getExecutionContext().put(entry.getKey(), entry.getValue()));
+      jobContextRepository.updateExecutionContext(stepExecution);
+    }
+  }
 }
@@ -18,27 +18,22 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.OutputStream;
 
-import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
-import org.apache.commons.io.IOUtils;
+public interface DocumentFileFormat {
+  String getExtension();
 
-public class BZip2Compressor extends AbstractFileAction {
-  @Override
-  protected File onPerform(File inputFile) {
-    File bz2File = new File(inputFile.getParent(), inputFile.getName() + ".bz2");
-    try (BZip2CompressorOutputStream bZip2CompressorOutputStream = new BZip2CompressorOutputStream(new FileOutputStream(bz2File))) {
-      try (FileInputStream fileInputStream = new FileInputStream(inputFile)) {
-        IOUtils.copy(fileInputStream, bZip2CompressorOutputStream);
-      }
-    }
-    catch (IOException ex) {
-      throw new UncheckedIOException(ex);
-    }
-    return bz2File;
+  DocumentStreamWriter open(OutputStream outputStream) throws IOException;
+
+  /**
+   * Returns true if a manifest has to be written besides the archive file.
+   */
+  default boolean hasManifest() {
+    return false;
+  }
+
+  default DocumentStreamWriter open(OutputStream outputStream, OutputStream manifestOutputStream) throws IOException {
+    return open(outputStream);
   }
 }
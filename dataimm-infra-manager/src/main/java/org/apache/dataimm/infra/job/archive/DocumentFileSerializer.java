@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+
+/**
+ * Encodes the documents of an archive file into its streams and keeps track of the sizes and of the first
+ * and last written document. Shared by the writers of the different destinations.
+ */
+public class DocumentFileSerializer {
+  private final CountingOutputStream fileOutputStream;
+  private final DocumentStreamWriter documentStreamWriter;
+  private Document firstDocument = null;
+  private Document lastDocument = null;
+
+  /**
+   * Takes ownership of the streams: they are closed when the serializer is created with an error or closed.
+   * @param manifestOutputStream can be null if the format has no manifest
+   */
+  public DocumentFileSerializer(DocumentFileFormat fileFormat, OutputStream outputStream, OutputStream manifestOutputStream) throws IOException {
+    try {
+      this.fileOutputStream = new CountingOutputStream(outputStream);
+      if (manifestOutputStream != null)
+        this.documentStreamWriter = fileFormat.open(fileOutputStream, manifestOutputStream);
+      else
+        this.documentStreamWriter = fileFormat.open(fileOutputStream);
+    } catch (IOException | RuntimeException e) {
+      IOUtils.closeQuietly(outputStream);
+      IOUtils.closeQuietly(manifestOutputStream);
+      throw e;
+    }
+  }
+
+  public void write(Document document) throws IOException {
+    documentStreamWriter.write(document);
+
+    if (firstDocument == null)
+      firstDocument = document;
+
+    lastDocument = document;
+  }
+
+  public long getUncompressedSize() {
+    return documentStreamWriter.getEncodedSize();
+  }
+
+  public long getFileSize() {
+    return fileOutputStream.getByteCount();
+  }
+
+  public Document getFirstDocument() {
+    return firstDocument;
+  }
+
+  public Document getLastDocument() {
+    return lastDocument;
+  }
+
+  public void close() throws IOException {
+    documentStreamWriter.close();
+  }
+
+  public void closeQuietly() {
+    IOUtils.closeQuietly(documentStreamWriter);
+  }
+}
@@ -18,7 +18,22 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
+import static org.apache.solr.common.params.CursorMarkParams.CURSOR_MARK_START;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.apache.dataimm.infra.job.CloseableIterator;
+import org.apache.dataimm.infra.job.CursorIterator;
+import org.apache.dataimm.infra.job.CursorObjectSource;
 import org.apache.dataimm.infra.job.ObjectSource;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
@@ -27,33 +42,87 @@ import org.springframework.batch.repeat.CompletionPolicy;
 import org.springframework.batch.repeat.RepeatContext;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.ClassUtils;
 
 public class DocumentItemReader extends AbstractItemStreamItemReader<Document> implements CompletionPolicy {
 
   public final static String POSITION = "last-read";
+  public final static String CURSOR_MARK = "cursor-mark";
+  public final static String CURSOR_OFFSET = "cursor-offset";
+  public final static String READ_BLOCK_SIZE = "read-block-size";
 
   private final ObjectSource<Document> documentSource;
+  private final CursorObjectSource<Document> cursorSource;
   private final int readBlockSize;
+  private final Deque<Future<Block>> prefetchedBlocks = new ArrayDeque<>();
+  private int prefetchDepth = 0;
+  private ExecutorService prefetchExecutor = null;
+  private Document initialPosition = null;
+  private AdaptiveBlockSize adaptiveBlockSize = null;
 
   private CloseableIterator<Document> documentIterator = null;
   private int count = 0;
+  private int rows = 0;
+  private long openLatencyNanos = 0;
+  private long blockBytes = 0;
+  private boolean blockMeasured = false;
   private boolean eof = false;
   private Document current = null;
   private Document previous = null;
+  private String cursorMark = null;
+  private String nextCursorMark = null;
+  private int skip = 0;
 
   public DocumentItemReader(ObjectSource<Document> documentSource, int readBlockSize) {
+    this(documentSource, null, readBlockSize);
+  }
+
+  public DocumentItemReader(CursorObjectSource<Document> cursorSource, int readBlockSize) {
+    this(null, cursorSource, readBlockSize);
+  }
+
+  private DocumentItemReader(ObjectSource<Document> documentSource, CursorObjectSource<Document> cursorSource, int readBlockSize) {
     this.documentSource = documentSource;
+    this.cursorSource = cursorSource;
     this.readBlockSize = readBlockSize;
     setName(ClassUtils.getShortName(DocumentItemReader.class));
   }
 
+  /**
+   * Number of blocks fetched ahead on a background thread while the current block is consumed.
+   * At most (prefetchDepth + 1) * readBlockSize documents are held in memory. 0 disables prefetching.
+   */
+  public void setPrefetchDepth(int prefetchDepth) {
+    this.prefetchDepth = prefetchDepth;
+  }
+
+  /**
+   * The first read continues after this document unless a position is restored from the execution context.
+   * It is applied by the document source, the cursor source filters the documents itself.
+   */
+  public void setInitialPosition(Document initialPosition) {
+    this.initialPosition = initialPosition;
+  }
+
+  /**
+   * The number of rows per query is adjusted after every block instead of using the fixed readBlockSize.
+   * The export stream is not paged, it is not adjusted.
+   */
+  public void setAdaptiveBlockSize(AdaptiveBlockSize adaptiveBlockSize) {
+    this.adaptiveBlockSize = adaptiveBlockSize;
+  }
+
+  private int blockSize() {
+    return adaptiveBlockSize == null ? readBlockSize : adaptiveBlockSize.get();
+  }
+
   @Override
   public Document read() throws Exception {
     if (documentIterator == null)
       openStream();
     Document next = getNext();
-    if (next == null && count > readBlockSize) {
+    if (next == null && count > rows) {
       openStream();
       next = getNext();
     }
@@ -68,13 +137,126 @@ public class DocumentItemReader extends AbstractItemStreamItemReader<Document> i
 
   private Document getNext() {
     ++count;
-    return documentIterator.next();
+    Document next = documentIterator.next();
+    if (adaptiveBlockSize != null && prefetchDepth == 0 && !blockMeasured) {
+      if (next != null) {
+        blockBytes += AdaptiveBlockSize.estimateSize(next);
+      }
+      else {
+        adaptiveBlockSize.record(count - 1, openLatencyNanos, blockBytes);
+        blockMeasured = true;
+      }
+    }
+    return next;
   }
 
-  private void openStream() {
+  private void openStream() throws Exception {
     closeStream();
-    documentIterator = documentSource.open(current, readBlockSize);
     count = 0;
+    if (prefetchDepth > 0) {
+      openPrefetchedStream();
+      return;
+    }
+
+    // The documents exported before restart are skipped within the first block
+    rows = Math.max(blockSize(), skip);
+    blockBytes = 0;
+    blockMeasured = false;
+    long openStart = System.nanoTime();
+    if (cursorSource == null) {
+      documentIterator = documentSource.open(current, rows);
+      openLatencyNanos = System.nanoTime() - openStart;
+      return;
+    }
+
+    cursorMark = nextCursorMark == null ? CURSOR_MARK_START : nextCursorMark;
+    CursorIterator<Document> cursorIterator = cursorSource.open(cursorMark, rows);
+    openLatencyNanos = System.nanoTime() - openStart;
+    nextCursorMark = cursorIterator.getNextCursorMark();
+    documentIterator = cursorIterator;
+    skipExported();
+  }
+
+  private void skipExported() {
+    // Documents of the checkpointed block which were already exported before restart
+    for (; skip > 0; --skip)
+      getNext();
+  }
+
+  private void openPrefetchedStream() throws Exception {
+    Block block;
+    if (prefetchedBlocks.isEmpty())
+      block = fetchBlock(current, nextCursorMark == null ? CURSOR_MARK_START : nextCursorMark, Math.max(blockSize(), skip));
+    else
+      block = takeBlock(prefetchedBlocks.removeFirst());
+
+    documentIterator = new BlockIterator(block);
+    if (block == null)
+      return;
+
+    rows = block.rows;
+    cursorMark = block.cursorMark;
+    nextCursorMark = block.nextCursorMark;
+    prefetch(block);
+    skipExported();
+  }
+
+  private void prefetch(Block block) {
+    Future<Block> tail = prefetchedBlocks.isEmpty() ? CompletableFuture.completedFuture(block) : prefetchedBlocks.getLast();
+    while (prefetchedBlocks.size() < prefetchDepth) {
+      Future<Block> previousBlock = tail;
+      tail = prefetchExecutor.submit(() -> {
+        Block previous = previousBlock.get();
+        if (previous == null || previous.documents.size() < previous.rows)
+          return null;
+        return fetchBlock(previous.documents.get(previous.documents.size() - 1), previous.nextCursorMark, blockSize());
+      });
+      prefetchedBlocks.addLast(tail);
+    }
+  }
+
+  private Block fetchBlock(Document after, String cursorMark, int rows) throws Exception {
+    long openStart = System.nanoTime();
+    CloseableIterator<Document> iterator = cursorSource == null ?
+            documentSource.open(after, rows) : cursorSource.open(cursorMark, rows);
+    long latencyNanos = System.nanoTime() - openStart;
+    try {
+      String nextCursorMark = cursorSource == null ? null : ((CursorIterator<Document>) iterator).getNextCursorMark();
+      List<Document> documents = new ArrayList<>(rows);
+      long bytes = 0;
+      Document document;
+      while ((document = iterator.next()) != null) {
+        documents.add(document);
+        if (adaptiveBlockSize != null)
+          bytes += AdaptiveBlockSize.estimateSize(document);
+      }
+      if (adaptiveBlockSize != null)
+        adaptiveBlockSize.record(documents.size(), latencyNanos, bytes);
+      return new Block(cursorMark, nextCursorMark, rows, documents);
+    }
+    finally {
+      iterator.close();
+    }
+  }
+
+  private Block takeBlock(Future<Block> future) throws Exception {
+    try {
+      return future.get();
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception)
+        throw (Exception) e.getCause();
+      throw e;
+    }
+  }
+
+  private void cancelPrefetch() {
+    prefetchedBlocks.forEach(future -> future.cancel(true));
+    prefetchedBlocks.clear();
+    if (prefetchExecutor != null) {
+      prefetchExecutor.shutdownNow();
+      prefetchExecutor = null;
+    }
   }
 
   private void closeStream() {
@@ -92,26 +274,50 @@ public class DocumentItemReader extends AbstractItemStreamItemReader<Document> i
   @Override
   public void open(ExecutionContext executionContext) {
     super.open(executionContext);
+    cancelPrefetch();
+    if (prefetchDepth > 0) {
+      CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("document-prefetch-");
+      threadFactory.setDaemon(true);
+      prefetchExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    }
     current = null;
     previous = null;
     eof = false;
     documentIterator = null;
-    if (!executionContext.containsKey(POSITION))
+    cursorMark = null;
+    nextCursorMark = null;
+    skip = 0;
+    if (!executionContext.containsKey(POSITION)) {
+      if (cursorSource == null)
+        current = initialPosition;
       return;
+    }
 
     current = (Document) executionContext.get(POSITION);
+    if (cursorSource != null && executionContext.containsKey(CURSOR_MARK)) {
+      nextCursorMark = executionContext.getString(CURSOR_MARK);
+      skip = executionContext.getInt(CURSOR_OFFSET);
+    }
   }
 
   @Override
   public void update(ExecutionContext executionContext) throws ItemStreamException {
     super.update(executionContext);
-    if (previous != null)
-      executionContext.put(POSITION, previous);
+    if (previous == null)
+      return;
+
+    executionContext.put(POSITION, previous);
+    executionContext.putInt(READ_BLOCK_SIZE, blockSize());
+    if (cursorSource != null && current != null) {
+      executionContext.putString(CURSOR_MARK, cursorMark);
+      executionContext.putInt(CURSOR_OFFSET, count - 1);
+    }
   }
 
   @Override
   public void close() {
     closeStream();
+    cancelPrefetch();
   }
 
   @Override
@@ -134,4 +340,40 @@ public class DocumentItemReader extends AbstractItemStreamItemReader<Document> i
     if (eof)
       context.setCompleteOnly();
   }
+
+  private static class Block {
+    private final String cursorMark;
+    private final String nextCursorMark;
+    private final int rows;
+    private final List<Document> documents;
+
+    private Block(String cursorMark, String nextCursorMark, int rows, List<Document> documents) {
+      this.cursorMark = cursorMark;
+      this.nextCursorMark = nextCursorMark;
+      this.rows = rows;
+      this.documents = documents;
+    }
+  }
+
+  private static class BlockIterator implements CloseableIterator<Document> {
+    private final Iterator<Document> iterator;
+
+    private BlockIterator(Block block) {
+      this.iterator = block == null ? null : block.documents.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator != null && iterator.hasNext();
+    }
+
+    @Override
+    public Document next() {
+      return hasNext() ? iterator.next() : null;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
 }
@@ -22,4 +22,18 @@ public interface DocumentItemWriter {
   void write(Document document);
   void revert();
   void close();
+
+  /**
+   * Returns the number of bytes of the encoded documents before compression.
+   */
+  default long getUncompressedSize() {
+    return 0;
+  }
+
+  /**
+   * Returns the number of bytes written into the file.
+   */
+  default long getFileSize() {
+    return 0;
+  }
 }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes documents as json lines through one reused {@link JsonGenerator}.
+ * Field values are streamed straight into the generator's recycled byte buffer without building intermediate strings.
+ */
+public class DocumentJsonWriter implements DocumentStreamWriter {
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private static final ObjectMapper json = new ObjectMapper();
+
+  private final CountingOutputStream countingOutputStream;
+  private final JsonGenerator generator;
+
+  public DocumentJsonWriter(OutputStream outputStream) throws IOException {
+    this(outputStream, DEFAULT_BUFFER_SIZE);
+  }
+
+  public DocumentJsonWriter(OutputStream outputStream, int bufferSize) throws IOException {
+    countingOutputStream = new CountingOutputStream(new BufferedOutputStream(outputStream, bufferSize));
+    generator = json.getFactory().createGenerator(countingOutputStream, JsonEncoding.UTF8);
+    generator.setRootValueSeparator(null);
+  }
+
+  @Override
+  public void write(Document document) throws IOException {
+    generator.writeStartObject();
+    DocumentSchema schema = document.getSchema();
+    for (int i = 0; i < schema.size(); ++i) {
+      Object value = document.get(i);
+      if (value == null)
+        continue;
+      generator.writeFieldName(schema.getFieldName(i));
+      writeValue(value);
+    }
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  private void writeValue(Object value) throws IOException {
+    if (value == null) {
+      generator.writeNull();
+    }
+    else if (value instanceof String) {
+      generator.writeString((String) value);
+    }
+    else if (value instanceof Long) {
+      generator.writeNumber((Long) value);
+    }
+    else if (value instanceof Integer) {
+      generator.writeNumber((Integer) value);
+    }
+    else if (value instanceof Double) {
+      generator.writeNumber((Double) value);
+    }
+    else if (value instanceof Float) {
+      generator.writeNumber((Float) value);
+    }
+    else if (value instanceof Boolean) {
+      generator.writeBoolean((Boolean) value);
+    }
+    else if (value instanceof Collection) {
+      generator.writeStartArray();
+      for (Object element : (Collection<?>) value) {
+        writeValue(element);
+      }
+      generator.writeEndArray();
+    }
+    else {
+      generator.writeObject(value);
+    }
+  }
+
+  @Override
+  public long getEncodedSize() {
+    return countingOutputStream.getByteCount() + Math.max(0, generator.getOutputBuffered());
+  }
+
+  @Override
+  public void flush() throws IOException {
+    generator.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+}
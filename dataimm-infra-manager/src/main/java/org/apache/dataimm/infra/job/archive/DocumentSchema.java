@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ordered set of field names shared by the documents of a batch. Documents built on the same schema
+ * hold only their values so the field name strings and the name to index lookup are not duplicated per document.
+ */
+public class DocumentSchema {
+  public static final DocumentSchema EMPTY = new DocumentSchema(new String[0]);
+
+  public static DocumentSchema of(Collection<String> fieldNames) {
+    return EMPTY.extend(fieldNames);
+  }
+
+  private final String[] fieldNames;
+  private final Map<String, Integer> indexes;
+
+  private DocumentSchema(String[] fieldNames) {
+    this.fieldNames = fieldNames;
+    this.indexes = new HashMap<>(fieldNames.length * 4 / 3 + 1);
+    for (int i = 0; i < fieldNames.length; ++i) {
+      indexes.put(fieldNames[i], i);
+    }
+  }
+
+  /**
+   * Returns this schema if it already contains all the specified field names otherwise a new schema
+   * which has the fields of this schema followed by the missing ones. The specified names must be distinct.
+   */
+  public DocumentSchema extend(Collection<String> names) {
+    String[] extended = null;
+    int size = fieldNames.length;
+    for (String name : names) {
+      if (indexes.containsKey(name))
+        continue;
+      if (extended == null)
+        extended = Arrays.copyOf(fieldNames, fieldNames.length + names.size());
+      extended[size++] = name;
+    }
+    return extended == null ? this : new DocumentSchema(Arrays.copyOf(extended, size));
+  }
+
+  public int indexOf(String fieldName) {
+    Integer index = indexes.get(fieldName);
+    return index == null ? -1 : index;
+  }
+
+  public String getFieldName(int index) {
+    return fieldNames[index];
+  }
+
+  public int size() {
+    return fieldNames.length;
+  }
+}
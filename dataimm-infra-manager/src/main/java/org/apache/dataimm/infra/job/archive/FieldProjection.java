@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Computes the fl parameter of the archiving queries from the included and excluded field name patterns.
+ * Patterns may contain * and ? wildcards. The required fields are always returned.
+ * <p>
+ * Solr can not exclude fields in fl, so when exclusions are given the fields of the schema are listed.
+ * Dynamic fields are kept or dropped as a whole by matching the patterns against their name pattern like *_txt.
+ */
+public class FieldProjection {
+  private final Collection<String> includes;
+  private final Collection<String> excludes;
+  private final Set<String> requiredFields;
+
+  public FieldProjection(Collection<String> includes, Collection<String> excludes, Collection<String> requiredFields) {
+    this.includes = includes;
+    this.excludes = excludes;
+    this.requiredFields = new LinkedHashSet<>(requiredFields);
+  }
+
+  public boolean needsSchema() {
+    return !excludes.isEmpty();
+  }
+
+  /**
+   * Field list without exclusions: the included patterns are passed to solr as they are.
+   */
+  public String[] toFieldList() {
+    if (includes.isEmpty())
+      return new String[] { "*" };
+    Set<String> fields = new LinkedHashSet<>(includes);
+    fields.addAll(requiredFields);
+    return fields.toArray(new String[0]);
+  }
+
+  /**
+   * @param fields        names of the fields of the schema which are returned by a query having fl=*
+   * @param dynamicFields name patterns of the dynamic fields of the schema
+   */
+  public String[] toFieldList(Collection<String> fields, Collection<String> dynamicFields) {
+    Set<String> fieldList = new LinkedHashSet<>(requiredFields);
+    for (String field : fields) {
+      if (isIncluded(field) && !matchesAny(excludes, field))
+        fieldList.add(field);
+    }
+    for (String dynamicField : dynamicFields) {
+      if (isIncluded(dynamicField) && !matchesAny(excludes, dynamicField))
+        fieldList.add(dynamicField);
+    }
+    return fieldList.toArray(new String[0]);
+  }
+
+  private boolean isIncluded(String field) {
+    return includes.isEmpty() || matchesAny(includes, field);
+  }
+
+  private static boolean matchesAny(Collection<String> patterns, String field) {
+    for (String pattern : patterns) {
+      if (FilenameUtils.wildcardMatch(field, pattern))
+        return true;
+    }
+    return false;
+  }
+}
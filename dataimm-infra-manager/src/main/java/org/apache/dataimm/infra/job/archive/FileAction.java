@@ -22,4 +22,11 @@ import java.io.File;
 
 public interface FileAction {
   File perform(File inputFile);
+
+  /**
+   * Undoes a completed {@link #perform(File)} of a file whose documents were not wiped, so a restarted job can
+   * create the file again.
+   */
+  default void revert(File inputFile) {
+  }
 }
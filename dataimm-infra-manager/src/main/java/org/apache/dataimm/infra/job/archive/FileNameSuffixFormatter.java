@@ -18,6 +18,7 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 import static java.util.Objects.requireNonNull;
 import static org.apache.dataimm.infra.job.archive.SolrDocumentIterator.SOLR_DATE_FORMAT_TEXT;
 import static org.apache.commons.lang.StringUtils.isBlank;
@@ -45,10 +46,11 @@ public class FileNameSuffixFormatter {
   public String format(Document document) {
     requireNonNull(document, "Can not format file name suffix: input document is null!");
 
-    if (isBlank(document.getString(columnName)))
+    String value = document.getString(columnName);
+    if (isBlank(value))
       throw new IllegalArgumentException("The specified document does not have a column " + columnName + " or it's value is blank!");
 
-    return format(document.getString(columnName));
+    return format(value);
   }
 
   public String format(String value) {
@@ -57,7 +59,7 @@ public class FileNameSuffixFormatter {
 
     if (dateFormat == null)
       return value;
-    OffsetDateTime date = OffsetDateTime.parse(value, SOLR_DATETIME_FORMATTER);
+    OffsetDateTime date = OffsetDateTime.parse(value, ISO_OFFSET_DATE_TIME);
     return date.format(dateFormat);
   }
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams the compressed documents into a hidden temporary file in the hdfs destination directory: readers of the
+ * directory like Hive or Spark skip names starting with a dot. The file is renamed to its final name when the writer
+ * is closed and deleted when it is reverted.
+ */
+public class HdfsDocumentItemWriter implements DocumentItemWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(HdfsDocumentItemWriter.class);
+
+  private static final String TEMPORARY_PREFIX = ".";
+  private static final String TEMPORARY_SUFFIX = "._COPYING_";
+
+  private final HdfsProperties properties;
+  private final FileSystem fileSystem;
+  private final Path destination;
+  private final Path temporaryPath;
+  private final Path manifestDestination;
+  private final Path manifestTemporaryPath;
+  private final DocumentFileSerializer serializer;
+  private final ItemWriterListener itemWriterListener;
+
+  public HdfsDocumentItemWriter(HdfsFileSystemFactory fileSystemFactory, String fileName, DocumentFileFormat fileFormat, ItemWriterListener itemWriterListener) {
+    this.itemWriterListener = itemWriterListener;
+    this.properties = fileSystemFactory.getProperties();
+    this.destination = new Path(properties.getHdfsDestinationDirectory(), fileName);
+    this.temporaryPath = temporaryPath(properties.getHdfsDestinationDirectory(), fileName);
+    if (fileFormat.hasManifest()) {
+      this.manifestDestination = new Path(properties.getHdfsDestinationDirectory(), fileName + ArchiveManifestWriter.EXTENSION);
+      this.manifestTemporaryPath = temporaryPath(properties.getHdfsDestinationDirectory(), fileName + ArchiveManifestWriter.EXTENSION);
+    }
+    else {
+      this.manifestDestination = null;
+      this.manifestTemporaryPath = null;
+    }
+
+    OutputStream outputStream = null;
+    try {
+      this.fileSystem = fileSystemFactory.get();
+      if (fileSystem.exists(destination)) {
+        throw new UnsupportedOperationException(String.format("File '%s' already exists!", destination));
+      }
+
+      LOG.info("Exporting to temporary hdfs file {}", temporaryPath);
+      outputStream = fileSystem.create(temporaryPath, true);
+      this.serializer = new DocumentFileSerializer(fileFormat, outputStream,
+              manifestTemporaryPath != null ? fileSystem.create(manifestTemporaryPath, true) : null);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(outputStream);
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static Path temporaryPath(String directory, String fileName) {
+    return new Path(directory, TEMPORARY_PREFIX + fileName + TEMPORARY_SUFFIX);
+  }
+
+  @Override
+  public void write(Document document) {
+    try {
+      serializer.write(document);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public long getUncompressedSize() {
+    return serializer.getUncompressedSize();
+  }
+
+  @Override
+  public long getFileSize() {
+    return serializer.getFileSize();
+  }
+
+  @Override
+  public void revert() {
+    serializer.closeQuietly();
+    delete(temporaryPath);
+    if (manifestTemporaryPath != null)
+      delete(manifestTemporaryPath);
+  }
+
+  private void delete(Path path) {
+    try {
+      if (!fileSystem.delete(path, false))
+        LOG.warn("File {} was not deleted.", path);
+    } catch (IOException e) {
+      LOG.warn("Unable to delete file " + path, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      serializer.close();
+      publish(temporaryPath, destination);
+      if (manifestTemporaryPath != null)
+        publish(manifestTemporaryPath, manifestDestination);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    if (itemWriterListener != null)
+      itemWriterListener.onCompleted(new WriteCompletedEvent(null, serializer.getFirstDocument(), serializer.getLastDocument()));
+  }
+
+  private void publish(Path source, Path target) throws IOException {
+    if (fileSystem.exists(target)) {
+      throw new UnsupportedOperationException(String.format("File '%s' already exists!", target));
+    }
+    if (!fileSystem.rename(source, target))
+      throw new IOException(String.format("Unable to rename '%s' to '%s'", source, target));
+    fileSystem.setPermission(target, properties.getHdfsFilePermission());
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.FileSystem;
+
+public class HdfsFileSystemFactory {
+  private final HdfsFileSystemRegistry fileSystemRegistry;
+  private final HdfsProperties properties;
+
+  public HdfsFileSystemFactory(HdfsFileSystemRegistry fileSystemRegistry, HdfsProperties properties) {
+    this.fileSystemRegistry = fileSystemRegistry;
+    this.properties = properties;
+  }
+
+  public HdfsProperties getProperties() {
+    return properties;
+  }
+
+  /**
+   * Returns the FileSystem shared by every writer of the same endpoint and principal. It must not be closed by the caller.
+   */
+  public FileSystem get() throws IOException {
+    return fileSystemRegistry.get(properties);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Keeps one FileSystem per hdfs endpoint and kerberos principal. The FileSystems are shared by the jobs and must not
+ * be closed by the callers. Keytab relogin happens only when the TGT of the principal is close to its expiry.
+ */
+@Named
+public class HdfsFileSystemRegistry {
+  private static final Logger LOG = LoggerFactory.getLogger(HdfsFileSystemRegistry.class);
+
+  private final Configuration configuration;
+  private final Map<String, Entry> fileSystems = new HashMap<>();
+
+  public HdfsFileSystemRegistry() {
+    this.configuration = new Configuration();
+
+    if (new ClassPathResource("core-site.xml").exists()) {
+      LOG.info("Hdfs core-site.xml is found in the classpath.");
+    }
+    else {
+      LOG.warn("Hdfs core-site.xml is not found in the classpath. Using defaults.");
+    }
+    if (new ClassPathResource("hdfs-site.xml").exists()) {
+      LOG.info("Hdfs hdfs-site.xml is found in the classpath.");
+    }
+    else {
+      LOG.warn("Hdfs hdfs-site.xml is not found in the classpath. Using defaults.");
+    }
+
+    UserGroupInformation.setConfiguration(configuration);
+  }
+
+  public synchronized FileSystem get(HdfsProperties properties) throws IOException {
+    String key = String.format("%s|%s", defaultString(properties.getHdfsEndpoint()), defaultString(properties.getHdfsKerberosPrincipal()));
+    Entry entry = fileSystems.get(key);
+    if (entry == null) {
+      entry = createEntry(properties);
+      fileSystems.put(key, entry);
+    }
+
+    if (entry.userGroupInformation != null)
+      entry.userGroupInformation.checkTGTAndReloginFromKeytab();
+    return entry.fileSystem;
+  }
+
+  private Entry createEntry(HdfsProperties properties) throws IOException {
+    Configuration conf = new Configuration(configuration);
+    if (isNotBlank(properties.getHdfsEndpoint())) {
+      LOG.info("Hdfs endpoint is defined in Infra Manager properties. Setting fs.defaultFS to {}", properties.getHdfsEndpoint());
+      conf.set("fs.defaultFS", properties.getHdfsEndpoint());
+    }
+
+    if (!"kerberos".equalsIgnoreCase(conf.get("hadoop.security.authentication")) || isBlank(properties.getHdfsKerberosPrincipal()))
+      return new Entry(FileSystem.newInstance(conf), null);
+
+    LOG.info("Logging in to hdfs as {}", properties.getHdfsKerberosPrincipal());
+    UserGroupInformation userGroupInformation = UserGroupInformation.loginUserFromKeytabAndReturnUGI(
+            properties.getHdfsKerberosPrincipal(), properties.getHdfsKerberosKeytabPath());
+    try {
+      FileSystem fileSystem = userGroupInformation.doAs((PrivilegedExceptionAction<FileSystem>) () -> FileSystem.newInstance(conf));
+      return new Entry(fileSystem, userGroupInformation);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while connecting to hdfs");
+    }
+  }
+
+  public synchronized int getFileSystemCount() {
+    return fileSystems.size();
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    fileSystems.values().forEach(entry -> IOUtils.closeQuietly(entry.fileSystem));
+    fileSystems.clear();
+  }
+
+  private static class Entry {
+    private final FileSystem fileSystem;
+    private final UserGroupInformation userGroupInformation;
+
+    private Entry(FileSystem fileSystem, UserGroupInformation userGroupInformation) {
+      this.fileSystem = fileSystem;
+      this.userGroupInformation = userGroupInformation;
+    }
+  }
+}
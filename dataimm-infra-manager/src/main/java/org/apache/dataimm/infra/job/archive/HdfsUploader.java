@@ -18,68 +18,44 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
-
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 
-import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.security.UserGroupInformation;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class HdfsUploader extends AbstractFileAction {
-  private static final Logger LOG = LoggerFactory.getLogger(HdfsUploader.class);
+  private static final Logger logger = LogManager.getLogger(HdfsUploader.class);
 
-  private final Configuration configuration;
+  private final HdfsFileSystemFactory fileSystemFactory;
   private final HdfsProperties properties;
 
-  public HdfsUploader(Configuration configuration, HdfsProperties properties) {
-    this.properties = properties;
-    this.configuration = configuration;
-
-    if (new ClassPathResource("core-site.xml").exists()) {
-      LOG.info("Hdfs core-site.xml is found in the classpath.");
-    }
-    else {
-      LOG.warn("Hdfs core-site.xml is not found in the classpath. Using defaults.");
-    }
-    if (new ClassPathResource("hdfs-site.xml").exists()) {
-      LOG.info("Hdfs hdfs-site.xml is found in the classpath.");
-    }
-    else {
-      LOG.warn("Hdfs hdfs-site.xml is not found in the classpath. Using defaults.");
-    }
-    if (isNotBlank(properties.getHdfsEndpoint())) {
-      LOG.info("Hdfs endpoint is defined in Infra Manager properties. Setting fs.defaultFS to {}", properties.getHdfsEndpoint());
-      this.configuration.set("fs.defaultFS", properties.getHdfsEndpoint());
-    }
-
-    UserGroupInformation.setConfiguration(configuration);
+  public HdfsUploader(HdfsFileSystemFactory fileSystemFactory) {
+    this.fileSystemFactory = fileSystemFactory;
+    this.properties = fileSystemFactory.getProperties();
   }
 
   @Override
   protected File onPerform(File inputFile) {
     try {
-      if ("kerberos".equalsIgnoreCase(configuration.get("hadoop.security.authentication")))
-        UserGroupInformation.loginUserFromKeytab(properties.getHdfsKerberosPrincipal(), properties.getHdfsKerberosKeytabPath());
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
-
-    try (FileSystem fileSystem = FileSystem.get(configuration)) {
-
+      FileSystem fileSystem = fileSystemFactory.get();
       Path destination = new Path(properties.getHdfsDestinationDirectory(), inputFile.getName());
       if (fileSystem.exists(destination)) {
         throw new UnsupportedOperationException(String.format("File '%s' already exists!", destination));
       }
 
-      fileSystem.copyFromLocalFile(new Path(inputFile.getAbsolutePath()), destination);
-      fileSystem.setPermission(destination, properties.getHdfsFilePermission());
+      try {
+        fileSystem.copyFromLocalFile(new Path(inputFile.getAbsolutePath()), destination);
+        fileSystem.setPermission(destination, properties.getHdfsFilePermission());
+      }
+      catch (IOException | RuntimeException e) {
+        // A partial upload would be rejected as an existing file by the restarted job
+        delete(fileSystem, destination);
+        throw e;
+      }
 
       return inputFile;
     }
@@ -87,4 +63,25 @@ public class HdfsUploader extends AbstractFileAction {
       throw new UncheckedIOException(e);
     }
   }
+
+  @Override
+  public void revert(File inputFile) {
+    try {
+      Path destination = new Path(properties.getHdfsDestinationDirectory(), inputFile.getName());
+      logger.info("Deleting uploaded file {}", destination);
+      delete(fileSystemFactory.get(), destination);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void delete(FileSystem fileSystem, Path path) {
+    try {
+      if (fileSystem.exists(path) && !fileSystem.delete(path, false))
+        logger.warn("File {} was not deleted.", path);
+    } catch (IOException e) {
+      logger.warn("Unable to delete file " + path, e);
+    }
+  }
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the archive into independently compressed blocks of documents and records each block in the manifest
+ * with its offset, size, document count and the min and max values of the indexed columns.
+ */
+public class IndexedDocumentStreamWriter implements DocumentStreamWriter {
+  private final DocumentStreamWriter documentStreamWriter;
+  private final BlockCompressorOutputStream blockCompressorOutputStream;
+  private final ArchiveManifestWriter manifestWriter;
+  private final int blockSize;
+  private final List<String> columns;
+  private final Map<String, Object> min = new HashMap<>();
+  private final Map<String, Object> max = new HashMap<>();
+  private long blockOffset = 0;
+  private int blockCount = 0;
+
+  public IndexedDocumentStreamWriter(DocumentStreamWriter documentStreamWriter, BlockCompressorOutputStream blockCompressorOutputStream,
+                                     ArchiveManifestWriter manifestWriter, int blockSize, List<String> columns) {
+    this.documentStreamWriter = documentStreamWriter;
+    this.blockCompressorOutputStream = blockCompressorOutputStream;
+    this.manifestWriter = manifestWriter;
+    this.blockSize = blockSize;
+    this.columns = columns;
+  }
+
+  @Override
+  public void write(Document document) throws IOException {
+    documentStreamWriter.write(document);
+    for (String column : columns) {
+      Object value = document.get(column);
+      if (value == null)
+        continue;
+      min.merge(column, value, (current, newValue) -> compare(newValue, current) < 0 ? newValue : current);
+      max.merge(column, value, (current, newValue) -> compare(newValue, current) > 0 ? newValue : current);
+    }
+
+    if (++blockCount >= blockSize)
+      finishBlock();
+  }
+
+  static int compare(Object value1, Object value2) {
+    if (value1 instanceof Number && value2 instanceof Number) {
+      if (isIntegral(value1) && isIntegral(value2))
+        return Long.compare(((Number) value1).longValue(), ((Number) value2).longValue());
+      return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+    }
+    return value1.toString().compareTo(value2.toString());
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+  }
+
+  private void finishBlock() throws IOException {
+    if (blockCount == 0)
+      return;
+
+    documentStreamWriter.flush();
+    long nextBlockOffset = blockCompressorOutputStream.finishBlock();
+    manifestWriter.writeBlock(blockOffset, nextBlockOffset - blockOffset, blockCount, ordered(min), ordered(max));
+    blockOffset = nextBlockOffset;
+    blockCount = 0;
+    min.clear();
+    max.clear();
+  }
+
+  private Map<String, Object> ordered(Map<String, Object> values) {
+    Map<String, Object> orderedValues = new LinkedHashMap<>();
+    for (String column : columns) {
+      if (values.containsKey(column))
+        orderedValues.put(column, values.get(column));
+    }
+    return orderedValues;
+  }
+
+  @Override
+  public long getEncodedSize() {
+    return documentStreamWriter.getEncodedSize();
+  }
+
+  @Override
+  public void flush() throws IOException {
+    documentStreamWriter.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finishBlock();
+      documentStreamWriter.close();
+    }
+    finally {
+      manifestWriter.close();
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.JavaBinCodec;
+
+/**
+ * Reads the blocks of a file written by {@link JavabinDocumentWriter}.
+ */
+public class JavabinDocumentReader implements Closeable {
+  private final DataInputStream inputStream;
+  private final byte[] sync;
+  private final byte[] blockSync = new byte[JavabinDocumentWriter.SYNC_SIZE];
+
+  public JavabinDocumentReader(InputStream inputStream) throws IOException {
+    this.inputStream = new DataInputStream(new BufferedInputStream(inputStream, 64 * 1024));
+    byte[] magic = new byte[JavabinDocumentWriter.MAGIC.length];
+    this.inputStream.readFully(magic);
+    if (!Arrays.equals(magic, JavabinDocumentWriter.MAGIC))
+      throw new IOException("Not a javabin document archive!");
+    byte version = this.inputStream.readByte();
+    if (version != JavabinDocumentWriter.VERSION)
+      throw new IOException(String.format("Unsupported javabin document archive version %d!", version));
+    this.sync = new byte[JavabinDocumentWriter.SYNC_SIZE];
+    this.inputStream.readFully(sync);
+  }
+
+  /**
+   * Reads the blocks starting at a block boundary of a file with the given sync marker.
+   */
+  public JavabinDocumentReader(InputStream inputStream, byte[] sync) {
+    this.inputStream = new DataInputStream(new BufferedInputStream(inputStream, 64 * 1024));
+    this.sync = sync.clone();
+  }
+
+  public byte[] getSync() {
+    return sync.clone();
+  }
+
+  /**
+   * Returns the documents of the next block or null if there are no more blocks.
+   */
+  @SuppressWarnings("unchecked")
+  public List<SolrInputDocument> readBlock() throws IOException {
+    int read = inputStream.read(blockSync, 0, 1);
+    if (read < 0)
+      return null;
+    inputStream.readFully(blockSync, 1, blockSync.length - 1);
+    if (!Arrays.equals(sync, blockSync))
+      throw new IOException("Invalid block sync marker!");
+
+    int documentCount = inputStream.readInt();
+    byte[] payload = new byte[inputStream.readInt()];
+    inputStream.readFully(payload);
+    List<SolrInputDocument> documents = (List<SolrInputDocument>) new JavaBinCodec().unmarshal(new ByteArrayInputStream(payload));
+    if (documents.size() != documentCount)
+      throw new IOException(String.format("Block has %d documents instead of %d!", documents.size(), documentCount));
+    return documents;
+  }
+
+  @Override
+  public void close() throws IOException {
+    inputStream.close();
+  }
+}
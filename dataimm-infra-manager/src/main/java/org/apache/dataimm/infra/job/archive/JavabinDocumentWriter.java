@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.JavaBinCodec;
+
+/**
+ * Writes documents as blocks of javabin encoded {@link SolrInputDocument} lists which can be sent to Solr without parsing.
+ * <pre>
+ * file:  MAGIC version sync block*
+ * block: sync documentCount payloadLength payload
+ * </pre>
+ * The 16 bytes random sync marker of the file is repeated before every block so readers can find
+ * the block boundaries from any offset of the file. Each payload is a complete javabin message.
+ */
+public class JavabinDocumentWriter implements DocumentStreamWriter {
+  public static final byte[] MAGIC = {'D', 'J', 'B', 'N'};
+  public static final byte VERSION = 1;
+  public static final int SYNC_SIZE = 16;
+  public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+  private final DataOutputStream outputStream;
+  private final int blockSize;
+  private final byte[] sync;
+  private final List<SolrInputDocument> block;
+  private final ByteArrayOutputStream payload = new ByteArrayOutputStream(64 * 1024);
+
+  public JavabinDocumentWriter(OutputStream outputStream, int blockSize) throws IOException {
+    this.outputStream = new DataOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+    this.blockSize = blockSize;
+    this.block = new ArrayList<>(blockSize);
+    this.sync = newSync();
+
+    this.outputStream.write(MAGIC);
+    this.outputStream.writeByte(VERSION);
+    this.outputStream.write(sync);
+  }
+
+  private static byte[] newSync() {
+    UUID uuid = UUID.randomUUID();
+    byte[] sync = new byte[SYNC_SIZE];
+    for (int i = 0; i < 8; ++i) {
+      sync[i] = (byte) (uuid.getMostSignificantBits() >>> (8 * i));
+      sync[i + 8] = (byte) (uuid.getLeastSignificantBits() >>> (8 * i));
+    }
+    return sync;
+  }
+
+  @Override
+  public void write(Document document) throws IOException {
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+    for (Map.Entry<String, Object> field : document.getFieldMap().entrySet()) {
+      solrInputDocument.setField(field.getKey(), field.getValue());
+    }
+    block.add(solrInputDocument);
+    if (block.size() >= blockSize)
+      flushBlock();
+  }
+
+  private void flushBlock() throws IOException {
+    if (block.isEmpty())
+      return;
+
+    payload.reset();
+    new JavaBinCodec().marshal(block, payload);
+    outputStream.write(sync);
+    outputStream.writeInt(block.size());
+    outputStream.writeInt(payload.size());
+    payload.writeTo(outputStream);
+    block.clear();
+  }
+
+  @Override
+  public long getEncodedSize() {
+    return outputStream.size();
+  }
+
+  @Override
+  public void flush() throws IOException {
+    flushBlock();
+    outputStream.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flushBlock();
+    }
+    finally {
+      outputStream.close();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class JsonFileFormat implements DocumentFileFormat {
+  private final StreamCompressor streamCompressor;
+  private final ManifestSettings manifestSettings;
+
+  public JsonFileFormat(StreamCompressor streamCompressor) {
+    this(streamCompressor, null);
+  }
+
+  /**
+   * @param manifestSettings the settings of the block index written besides the archive or null to not write one
+   */
+  public JsonFileFormat(StreamCompressor streamCompressor, ManifestSettings manifestSettings) {
+    this.streamCompressor = streamCompressor;
+    this.manifestSettings = manifestSettings;
+  }
+
+  @Override
+  public String getExtension() {
+    return ArchiveFormat.JSON.getExtension() + streamCompressor.getExtension();
+  }
+
+  @Override
+  public boolean hasManifest() {
+    return manifestSettings != null;
+  }
+
+  @Override
+  public DocumentStreamWriter open(OutputStream outputStream, OutputStream manifestOutputStream) throws IOException {
+    if (manifestSettings == null)
+      return open(outputStream);
+
+    BlockCompressorOutputStream blockCompressorOutputStream = new BlockCompressorOutputStream(outputStream, streamCompressor);
+    ArchiveManifestWriter manifestWriter = new ArchiveManifestWriter(
+            manifestOutputStream, ArchiveFormat.JSON, streamCompressor.getCompressionCodec(), manifestSettings.getColumns());
+    return new IndexedDocumentStreamWriter(new DocumentJsonWriter(blockCompressorOutputStream), blockCompressorOutputStream,
+            manifestWriter, manifestSettings.getBlockSize(), manifestSettings.getColumns());
+  }
+
+  @Override
+  public DocumentStreamWriter open(OutputStream outputStream) throws IOException {
+    return new DocumentJsonWriter(streamCompressor.compress(outputStream));
+  }
+}
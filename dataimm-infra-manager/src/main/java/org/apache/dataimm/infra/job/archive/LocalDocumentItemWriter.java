@@ -18,41 +18,39 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
-import java.io.UnsupportedEncodingException;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 public class LocalDocumentItemWriter implements DocumentItemWriter {
   private static final Logger logger = LogManager.getLogger(LocalDocumentItemWriter.class);
 
-  private static final ObjectMapper json = new ObjectMapper();
-  private static final String ENCODING = "UTF-8";
-
   private final File outFile;
-  private final BufferedWriter bufferedWriter;
+  private final File manifestFile;
+  private final DocumentFileSerializer serializer;
   private final ItemWriterListener itemWriterListener;
-  private Document firstDocument = null;
-  private Document lastDocument = null;
 
   public LocalDocumentItemWriter(File outFile, ItemWriterListener itemWriterListener) {
+    this(outFile, new JsonFileFormat(new StreamCompressor(CompressionCodec.NONE)), itemWriterListener);
+  }
+
+  public LocalDocumentItemWriter(File outFile, DocumentFileFormat fileFormat, ItemWriterListener itemWriterListener) {
     this.itemWriterListener = itemWriterListener;
     this.outFile = outFile;
+    this.manifestFile = fileFormat.hasManifest() ? new File(outFile.getPath() + ArchiveManifestWriter.EXTENSION) : null;
+    OutputStream outputStream = null;
     try {
-      this.bufferedWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile), ENCODING));
-    } catch (UnsupportedEncodingException e) {
-      throw new RuntimeException(e);
-    } catch (FileNotFoundException e) {
+      outputStream = new BufferedOutputStream(new FileOutputStream(outFile));
+      this.serializer = new DocumentFileSerializer(fileFormat, outputStream, manifestFile != null ? new FileOutputStream(manifestFile) : null);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(outputStream);
       throw new UncheckedIOException(e);
     }
   }
@@ -60,32 +58,42 @@ public class LocalDocumentItemWriter implements DocumentItemWriter {
   @Override
   public void write(Document document) {
     try {
-      bufferedWriter.write(json.writeValueAsString(document));
-      bufferedWriter.newLine();
-
-      if (firstDocument == null)
-        firstDocument = document;
-
-      lastDocument = document;
+      serializer.write(document);
     }
     catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
+  @Override
+  public long getUncompressedSize() {
+    return serializer.getUncompressedSize();
+  }
+
+  @Override
+  public long getFileSize() {
+    return serializer.getFileSize();
+  }
+
   @Override
   public void revert() {
-    IOUtils.closeQuietly(bufferedWriter);
-    if (!outFile.delete())
-      logger.warn("File {} was not deleted. Exists: {}", outFile.getAbsolutePath(), outFile.exists());
+    serializer.closeQuietly();
+    delete(outFile);
+    if (manifestFile != null)
+      delete(manifestFile);
+  }
+
+  private void delete(File file) {
+    if (!file.delete())
+      logger.warn("File {} was not deleted. Exists: {}", file.getAbsolutePath(), file.exists());
   }
 
   @Override
   public void close() {
     try {
-      bufferedWriter.close();
+      serializer.close();
       if (itemWriterListener != null)
-        itemWriterListener.onCompleted(new WriteCompletedEvent(outFile, firstDocument, lastDocument));
+        itemWriterListener.onCompleted(new WriteCompletedEvent(outFile, serializer.getFirstDocument(), serializer.getLastDocument(), manifestFile));
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
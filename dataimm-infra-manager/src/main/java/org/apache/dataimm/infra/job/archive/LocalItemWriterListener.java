@@ -31,6 +31,8 @@ public class LocalItemWriterListener implements ItemWriterListener {
   @Override
   public void onCompleted(WriteCompletedEvent event) {
     fileAction.perform(event.getOutFile());
+    if (event.getManifestFile() != null)
+      fileAction.perform(event.getManifestFile());
     documentWiper.delete(event.getFirstDocument(), event.getLastDocument());
   }
 }
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.util.List;
+
+/**
+ * Block size of the archive manifest in documents and the columns whose min and max values are recorded per block.
+ */
+public class ManifestSettings {
+  private final int blockSize;
+  private final List<String> columns;
+
+  public ManifestSettings(int blockSize, List<String> columns) {
+    this.blockSize = blockSize;
+    this.columns = columns;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  public List<String> getColumns() {
+    return columns;
+  }
+}
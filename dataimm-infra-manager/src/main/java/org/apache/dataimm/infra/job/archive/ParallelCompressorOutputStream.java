@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Splits the written bytes into fixed size blocks and compresses them concurrently, like pigz and pbzip2 do.
+ * Every block is written as a separate, complete stream of the codec in the original order: the result is
+ * a concatenation of streams which can be read by the standard decompressors.
+ * The blocks are compressed by the given executor, which is owned by the caller and is not shut down on close.
+ */
+public class ParallelCompressorOutputStream extends OutputStream {
+  private final OutputStream outputStream;
+  private final CompressionCodec compressionCodec;
+  private final int level;
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final ExecutorService executorService;
+  private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+  private byte[] buffer;
+  private int count = 0;
+  private boolean empty = true;
+  private boolean closed = false;
+
+  public ParallelCompressorOutputStream(OutputStream outputStream, CompressionCodec compressionCodec, int level,
+                                        ExecutorService executorService, int threads, int blockSize) {
+    this.outputStream = outputStream;
+    this.compressionCodec = compressionCodec;
+    this.level = level;
+    this.blockSize = blockSize;
+    this.maxPendingBlocks = threads * 2;
+    this.buffer = new byte[blockSize];
+    this.executorService = executorService;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    buffer[count++] = (byte) b;
+    if (count == blockSize)
+      submitBlock();
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    while (length > 0) {
+      int chunkLength = Math.min(length, blockSize - count);
+      System.arraycopy(bytes, offset, buffer, count, chunkLength);
+      count += chunkLength;
+      offset += chunkLength;
+      length -= chunkLength;
+      if (count == blockSize)
+        submitBlock();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    while (!pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone())
+      writeNextBlock();
+    outputStream.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+
+    try {
+      if (count > 0 || empty)
+        submitBlock();
+      while (!pendingBlocks.isEmpty())
+        writeNextBlock();
+    }
+    finally {
+      pendingBlocks.forEach(future -> future.cancel(true));
+      outputStream.close();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    byte[] block = buffer;
+    int length = count;
+    pendingBlocks.addLast(executorService.submit(() -> compress(block, length)));
+    buffer = new byte[blockSize];
+    count = 0;
+    empty = false;
+
+    while (pendingBlocks.size() >= maxPendingBlocks)
+      writeNextBlock();
+  }
+
+  private byte[] compress(byte[] block, int length) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2);
+    try (OutputStream compressorOutputStream = compressionCodec.compress(compressed, level)) {
+      compressorOutputStream.write(block, 0, length);
+    }
+    return compressed.toByteArray();
+  }
+
+  private void writeNextBlock() throws IOException {
+    try {
+      outputStream.write(pendingBlocks.removeFirst().get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing a block");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IOException(e.getCause());
+    }
+  }
+}
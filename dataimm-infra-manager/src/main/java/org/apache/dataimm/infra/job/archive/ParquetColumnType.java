@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+
+/**
+ * Parquet column types of the document field values. Solr dates are already formatted
+ * by the document sources so timestamps are recognized from their text.
+ */
+public enum ParquetColumnType {
+  BOOLEAN(PrimitiveTypeName.BOOLEAN, null) {
+    @Override
+    void write(RecordConsumer recordConsumer, Object value) {
+      recordConsumer.addBoolean((Boolean) value);
+    }
+  },
+  INT32(PrimitiveTypeName.INT32, null) {
+    @Override
+    void write(RecordConsumer recordConsumer, Object value) {
+      recordConsumer.addInteger(((Number) value).intValue());
+    }
+  },
+  INT64(PrimitiveTypeName.INT64, null) {
+    @Override
+    void write(RecordConsumer recordConsumer, Object value) {
+      recordConsumer.addLong(((Number) value).longValue());
+    }
+  },
+  FLOAT(PrimitiveTypeName.FLOAT, null) {
+    @Override
+    void write(RecordConsumer recordConsumer, Object value) {
+      recordConsumer.addFloat(((Number) value).floatValue());
+    }
+  },
+  DOUBLE(PrimitiveTypeName.DOUBLE, null) {
+    @Override
+    void write(RecordConsumer recordConsumer, Object value) {
+      recordConsumer.addDouble(((Number) value).doubleValue());
+    }
+  },
+  TIMESTAMP(PrimitiveTypeName.INT64, LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MILLIS)) {
+    @Override
+    void write(RecordConsumer recordConsumer, Object value) {
+      recordConsumer.addLong(Instant.parse((String) value).toEpochMilli());
+    }
+  },
+  STRING(PrimitiveTypeName.BINARY, LogicalTypeAnnotation.stringType()) {
+    @Override
+    void write(RecordConsumer recordConsumer, Object value) {
+      recordConsumer.addBinary(Binary.fromString(value.toString()));
+    }
+  };
+
+  public static ParquetColumnType of(Object value) {
+    if (value instanceof Boolean)
+      return BOOLEAN;
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+      return INT32;
+    if (value instanceof Long)
+      return INT64;
+    if (value instanceof Float)
+      return FLOAT;
+    if (value instanceof Double)
+      return DOUBLE;
+    if (value instanceof String && isTimestamp((String) value))
+      return TIMESTAMP;
+    return STRING;
+  }
+
+  /**
+   * Returns the column type of a solr field type class, STRING for the types which have no parquet counterpart.
+   */
+  public static ParquetColumnType ofSolrType(String typeClass) {
+    if (typeClass == null)
+      return STRING;
+    switch (typeClass.substring(typeClass.lastIndexOf('.') + 1)) {
+      case "BoolField":
+        return BOOLEAN;
+      case "IntPointField":
+      case "TrieIntField":
+        return INT32;
+      case "LongPointField":
+      case "TrieLongField":
+        return INT64;
+      case "FloatPointField":
+      case "TrieFloatField":
+        return FLOAT;
+      case "DoublePointField":
+      case "TrieDoubleField":
+        return DOUBLE;
+      case "DatePointField":
+      case "TrieDateField":
+        return TIMESTAMP;
+      default:
+        return STRING;
+    }
+  }
+
+  private static boolean isTimestamp(String value) {
+    if (value.length() < 20 || value.charAt(4) != '-' || value.charAt(10) != 'T' || value.charAt(value.length() - 1) != 'Z')
+      return false;
+    try {
+      Instant.parse(value);
+      return true;
+    }
+    catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+
+  private final PrimitiveTypeName primitiveTypeName;
+  private final LogicalTypeAnnotation logicalTypeAnnotation;
+
+  ParquetColumnType(PrimitiveTypeName primitiveTypeName, LogicalTypeAnnotation logicalTypeAnnotation) {
+    this.primitiveTypeName = primitiveTypeName;
+    this.logicalTypeAnnotation = logicalTypeAnnotation;
+  }
+
+  /**
+   * Returns the narrowest column type which can hold the values of both types.
+   */
+  public ParquetColumnType widen(ParquetColumnType other) {
+    if (this == other)
+      return this;
+    if (isNumber() && other.isNumber()) {
+      if ((this == INT32 && other == INT64) || (this == INT64 && other == INT32))
+        return INT64;
+      return DOUBLE;
+    }
+    return STRING;
+  }
+
+  private boolean isNumber() {
+    return this == INT32 || this == INT64 || this == FLOAT || this == DOUBLE;
+  }
+
+  public boolean accepts(Object value) {
+    return widen(of(value)) == this;
+  }
+
+  Type toType(String name, boolean repeated) {
+    Types.PrimitiveBuilder<PrimitiveType> builder = repeated ? Types.repeated(primitiveTypeName) : Types.optional(primitiveTypeName);
+    if (logicalTypeAnnotation != null)
+      builder = builder.as(logicalTypeAnnotation);
+    return builder.named(name);
+  }
+
+  abstract void write(RecordConsumer recordConsumer, Object value);
+}
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes documents as parquet records. The columns are the fields of a sample of documents: each field becomes an optional
+ * column, or a repeated one when it has multiple values. The column types come from the collection schema so the files of
+ * a collection have the same column types, fields which are not defined there get the type which can hold all sampled values.
+ * Fields which are not in the sample or have values which do not fit into their column are written as json into the
+ * {@link #OTHER_FIELDS} map column.
+ */
+public class ParquetDocumentWriteSupport extends WriteSupport<Document> {
+  public static final String SCHEMA_NAME = "document";
+  public static final String OTHER_FIELDS = "_other_fields_";
+  private static final String KEY_VALUE = "key_value";
+  private static final String KEY = "key";
+  private static final String VALUE = "value";
+  private static final ObjectMapper json = new ObjectMapper();
+
+  public static ParquetDocumentWriteSupport infer(Collection<Document> sample) {
+    return infer(sample, null);
+  }
+
+  /**
+   * @param collectionSchema field definitions of the archived collection, may be null
+   */
+  public static ParquetDocumentWriteSupport infer(Collection<Document> sample, CollectionSchema collectionSchema) {
+    Map<String, Column> columns = new LinkedHashMap<>();
+    for (Document document : sample) {
+      for (Map.Entry<String, Object> field : document.getFieldMap().entrySet()) {
+        if (OTHER_FIELDS.equals(field.getKey()))
+          continue;
+        Column column = columns.computeIfAbsent(field.getKey(), name -> new Column(name, collectionSchema));
+        if (column.defined)
+          continue;
+        if (field.getValue() instanceof Collection) {
+          column.repeated = true;
+          for (Object element : (Collection<?>) field.getValue()) {
+            column.widen(element);
+          }
+        }
+        else {
+          column.widen(field.getValue());
+        }
+      }
+    }
+    return new ParquetDocumentWriteSupport(new ArrayList<>(columns.values()));
+  }
+
+  private static class Column {
+    private final String name;
+    private final boolean defined;
+    private ParquetColumnType type = null;
+    private boolean repeated = false;
+
+    private Column(String name, CollectionSchema collectionSchema) {
+      this.name = name;
+      CollectionSchema.Field field = collectionSchema == null ? null : collectionSchema.getField(name);
+      this.defined = field != null;
+      if (defined) {
+        type = ParquetColumnType.ofSolrType(field.getTypeClass());
+        repeated = field.isMultiValued();
+      }
+    }
+
+    private void widen(Object value) {
+      if (value == null)
+        return;
+      ParquetColumnType valueType = ParquetColumnType.of(value);
+      type = type == null ? valueType : type.widen(valueType);
+    }
+
+    private boolean accepts(Object value) {
+      if (!(value instanceof Collection))
+        return type.accepts(value);
+      if (!repeated)
+        return false;
+      for (Object element : (Collection<?>) value) {
+        if (element == null || !type.accepts(element))
+          return false;
+      }
+      return true;
+    }
+  }
+
+  private final List<Column> columns;
+  private final Map<String, Column> columnsByName = new HashMap<>();
+  private final MessageType schema;
+  private RecordConsumer recordConsumer;
+
+  private ParquetDocumentWriteSupport(List<Column> columns) {
+    this.columns = columns;
+    List<Type> fields = new ArrayList<>(columns.size() + 1);
+    for (Column column : columns) {
+      if (column.type == null)
+        column.type = ParquetColumnType.STRING;
+      fields.add(column.type.toType(column.name, column.repeated));
+      columnsByName.put(column.name, column);
+    }
+    fields.add(Types.optionalGroup().as(LogicalTypeAnnotation.mapType())
+            .addField(Types.repeatedGroup()
+                    .addField(Types.required(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(KEY))
+                    .addField(Types.required(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(VALUE))
+                    .named(KEY_VALUE))
+            .named(OTHER_FIELDS));
+    this.schema = new MessageType(SCHEMA_NAME, fields);
+  }
+
+  public MessageType getSchema() {
+    return schema;
+  }
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    return new WriteContext(schema, Collections.emptyMap());
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    this.recordConsumer = recordConsumer;
+  }
+
+  @Override
+  public void write(Document document) {
+    recordConsumer.startMessage();
+    int fieldCount = 0;
+    Map<String, Object> otherFields = new LinkedHashMap<>();
+    for (int i = 0; i < columns.size(); ++i) {
+      Column column = columns.get(i);
+      Object value = document.get(column.name);
+      if (value == null)
+        continue;
+      ++fieldCount;
+      if (value instanceof Collection && ((Collection<?>) value).isEmpty())
+        continue;
+      if (!column.accepts(value)) {
+        otherFields.put(column.name, value);
+        continue;
+      }
+
+      recordConsumer.startField(column.name, i);
+      if (value instanceof Collection) {
+        for (Object element : (Collection<?>) value) {
+          column.type.write(recordConsumer, element);
+        }
+      }
+      else {
+        column.type.write(recordConsumer, value);
+      }
+      recordConsumer.endField(column.name, i);
+    }
+
+    if (fieldCount != document.getFieldMap().size()) {
+      for (Map.Entry<String, Object> field : document.getFieldMap().entrySet()) {
+        if (field.getValue() != null && !columnsByName.containsKey(field.getKey()))
+          otherFields.put(field.getKey(), field.getValue());
+      }
+    }
+    if (!otherFields.isEmpty())
+      writeOtherFields(otherFields, columns.size());
+    recordConsumer.endMessage();
+  }
+
+  private void writeOtherFields(Map<String, Object> otherFields, int index) {
+    recordConsumer.startField(OTHER_FIELDS, index);
+    recordConsumer.startGroup();
+    recordConsumer.startField(KEY_VALUE, 0);
+    for (Map.Entry<String, Object> field : otherFields.entrySet()) {
+      recordConsumer.startGroup();
+      recordConsumer.startField(KEY, 0);
+      recordConsumer.addBinary(Binary.fromString(field.getKey()));
+      recordConsumer.endField(KEY, 0);
+      recordConsumer.startField(VALUE, 1);
+      recordConsumer.addBinary(Binary.fromString(toJson(field.getValue())));
+      recordConsumer.endField(VALUE, 1);
+      recordConsumer.endGroup();
+    }
+    recordConsumer.endField(KEY_VALUE, 0);
+    recordConsumer.endGroup();
+    recordConsumer.endField(OTHER_FIELDS, index);
+  }
+
+  private String toJson(Object value) {
+    try {
+      return json.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
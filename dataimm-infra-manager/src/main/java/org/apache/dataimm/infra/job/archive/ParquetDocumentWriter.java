@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+/**
+ * Writes documents into a parquet file. The first documents are buffered until the schema sample is complete,
+ * the schema is inferred from them and the collection schema and the buffered documents are written before the rest.
+ */
+public class ParquetDocumentWriter implements DocumentStreamWriter {
+  private final OutputStream outputStream;
+  private final CompressionCodecName codec;
+  private final int rowGroupSize;
+  private final int schemaSampleSize;
+  private final CollectionSchema collectionSchema;
+  private final List<Document> sample;
+  private ParquetWriter<Document> parquetWriter = null;
+
+  public ParquetDocumentWriter(OutputStream outputStream, CompressionCodecName codec, int rowGroupSize, int schemaSampleSize) {
+    this(outputStream, codec, rowGroupSize, schemaSampleSize, null);
+  }
+
+  /**
+   * @param collectionSchema field definitions of the archived collection, may be null
+   */
+  public ParquetDocumentWriter(OutputStream outputStream, CompressionCodecName codec, int rowGroupSize, int schemaSampleSize,
+                               CollectionSchema collectionSchema) {
+    this.outputStream = outputStream;
+    this.codec = codec;
+    this.rowGroupSize = rowGroupSize;
+    this.schemaSampleSize = schemaSampleSize;
+    this.collectionSchema = collectionSchema;
+    this.sample = new ArrayList<>(Math.min(schemaSampleSize, 1024));
+  }
+
+  @Override
+  public void write(Document document) throws IOException {
+    if (parquetWriter != null) {
+      parquetWriter.write(document);
+      return;
+    }
+
+    sample.add(document);
+    if (sample.size() >= schemaSampleSize)
+      flushSample();
+  }
+
+  private void flushSample() throws IOException {
+    parquetWriter = new Builder(new StreamOutputFile(outputStream), ParquetDocumentWriteSupport.infer(sample, collectionSchema))
+            .withCompressionCodec(codec)
+            .withRowGroupSize(rowGroupSize)
+            .withConf(new Configuration(false))
+            .build();
+    for (Document document : sample) {
+      parquetWriter.write(document);
+    }
+    sample.clear();
+  }
+
+  /**
+   * Returns the size of the written and the buffered row groups. The size of the schema sample is not known before it is encoded.
+   */
+  @Override
+  public long getEncodedSize() {
+    return parquetWriter == null ? 0 : parquetWriter.getDataSize();
+  }
+
+  /**
+   * Row groups are written when they are full: the parquet footer indexes them.
+   */
+  @Override
+  public void flush() {
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (parquetWriter == null) {
+      if (sample.isEmpty()) {
+        outputStream.close();
+        return;
+      }
+      flushSample();
+    }
+    parquetWriter.close();
+  }
+
+  private static class Builder extends ParquetWriter.Builder<Document, Builder> {
+    private final ParquetDocumentWriteSupport writeSupport;
+
+    private Builder(OutputFile outputFile, ParquetDocumentWriteSupport writeSupport) {
+      super(outputFile);
+      this.writeSupport = writeSupport;
+    }
+
+    @Override
+    protected Builder self() {
+      return this;
+    }
+
+    @Override
+    protected WriteSupport<Document> getWriteSupport(Configuration conf) {
+      return writeSupport;
+    }
+  }
+
+  /**
+   * Parquet output into an already opened stream: the archive writers own the file creation and renaming.
+   */
+  private static class StreamOutputFile implements OutputFile {
+    private final OutputStream outputStream;
+
+    private StreamOutputFile(OutputStream outputStream) {
+      this.outputStream = outputStream;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) {
+      return new PositionOutputStream() {
+        private long position = 0;
+
+        @Override
+        public long getPos() {
+          return position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+          outputStream.write(b);
+          ++position;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+          outputStream.write(b, off, len);
+          position += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+          outputStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+          outputStream.close();
+        }
+      };
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+      return create(blockSizeHint);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+      return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.OutputStream;
+
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+public class ParquetFileFormat implements DocumentFileFormat {
+  private final CompressionCodecName codec;
+  private final int rowGroupSize;
+  private final int schemaSampleSize;
+  private final CollectionSchema collectionSchema;
+
+  /**
+   * @param collectionSchema field definitions of the archived collection, may be null
+   */
+  public ParquetFileFormat(CompressionCodecName codec, int rowGroupSize, int schemaSampleSize, CollectionSchema collectionSchema) {
+    this.codec = codec;
+    this.rowGroupSize = rowGroupSize;
+    this.schemaSampleSize = schemaSampleSize;
+    this.collectionSchema = collectionSchema;
+  }
+
+  @Override
+  public String getExtension() {
+    return ArchiveFormat.PARQUET.getExtension();
+  }
+
+  @Override
+  public DocumentStreamWriter open(OutputStream outputStream) {
+    return new ParquetDocumentWriter(outputStream, codec, rowGroupSize, schemaSampleSize, collectionSchema);
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Runs the file action (compression, upload) and the document wiping of the completed files in the background.
+ * The file actions of several files may run concurrently but the documents are wiped in the order of the files
+ * and no document is wiped after a failure. The file actions of the files after a failed file are reverted, so the
+ * restarted job can create them again.
+ * <p>
+ * A reader checkpoint registered after a file becomes available from {@link #pollCheckpoint()} only when that
+ * file and every earlier file has been processed. Only a limited number of files can be in progress:
+ * {@link #onCompleted(WriteCompletedEvent)} blocks the writer when the limit is reached.
+ * When the wiper is an {@link ItemStream} its state after wiping a file is saved with the checkpoint of that file.
+ * <p>
+ * Apart from the worker threads the pipeline is used from the tasklet thread only.
+ */
+public class PostProcessingPipeline implements ItemWriterListener, AutoCloseable {
+  private static final Logger logger = LogManager.getLogger(PostProcessingPipeline.class);
+
+  private final FileAction fileAction;
+  private final DocumentWiper documentWiper;
+  private final int fileActionThreadCount;
+  private final Semaphore permits;
+  private final Deque<Entry> pending = new ArrayDeque<>();
+  private ExecutorService fileActionExecutor;
+  private ExecutorService wipeExecutor;
+  private CompletableFuture<Void> lastWipe = CompletableFuture.completedFuture(null);
+  private ExecutionContext completedCheckpoint = null;
+  private volatile boolean failed = false;
+
+  public PostProcessingPipeline(FileAction fileAction, DocumentWiper documentWiper, int fileActionThreadCount, int queueSize) {
+    this.fileAction = fileAction;
+    this.documentWiper = documentWiper;
+    this.fileActionThreadCount = fileActionThreadCount;
+    this.permits = new Semaphore(queueSize);
+  }
+
+  @Override
+  public void onCompleted(WriteCompletedEvent event) {
+    if (failed)
+      throw new IllegalStateException("Post processing of an earlier file has failed.");
+
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for post processing", e);
+    }
+
+    startExecutors();
+    ExecutionContext wiperState = new ExecutionContext();
+    CompletableFuture<Void> previousWipe = lastWipe;
+    CompletableFuture<Void> processed = CompletableFuture.runAsync(() -> {
+      if (failed)
+        throw new CancellationException("Post processing of an earlier file has failed.");
+      fileAction.perform(event.getOutFile());
+      if (event.getManifestFile() != null)
+        fileAction.perform(event.getManifestFile());
+    }, fileActionExecutor);
+    CompletableFuture<Void> wiped = processed
+            .thenCombine(previousWipe, (fileActionResult, previousWipeResult) -> null)
+            .thenRunAsync(() -> {
+              documentWiper.delete(event.getFirstDocument(), event.getLastDocument());
+              if (documentWiper instanceof ItemStream)
+                ((ItemStream) documentWiper).update(wiperState);
+            }, wipeExecutor);
+    // Both futures are completed when the wipe is: the documents of a file are not wiped when an earlier file failed
+    CompletableFuture<Void> completed = wiped.whenComplete((result, throwable) -> {
+      if (throwable != null) {
+        failed = true;
+        logger.error("Post processing of file {} failed", event.getOutFile(), throwable);
+        if (!processed.isCompletedExceptionally() && previousWipe.isCompletedExceptionally())
+          revert(event);
+      }
+      permits.release();
+    });
+    lastWipe = wiped;
+    pending.addLast(new Entry(completed, wiperState));
+  }
+
+  private void revert(WriteCompletedEvent event) {
+    try {
+      if (event.getManifestFile() != null)
+        fileAction.revert(event.getManifestFile());
+      fileAction.revert(event.getOutFile());
+    } catch (RuntimeException e) {
+      logger.warn("Unable to revert the post processing of file " + event.getOutFile(), e);
+    }
+  }
+
+  /**
+   * Registers the reader state which can be persisted when every file submitted so far is processed.
+   */
+  public void checkpoint(ExecutionContext readerState) {
+    if (pending.isEmpty())
+      completedCheckpoint = readerState;
+    else
+      pending.peekLast().checkpoint = readerState;
+  }
+
+  /**
+   * When a file failed the checkpoint of the files processed before it is returned first and the failure is thrown
+   * by the next call, so the state of the processed files is persisted before the step fails.
+   * @return the last checkpoint whose files are processed or null if it did not change since the last call
+   * @throws RuntimeException the failure of the first failed file
+   */
+  public ExecutionContext pollCheckpoint() {
+    while (!pending.isEmpty() && pending.peekFirst().future.isDone()) {
+      Entry entry = pending.peekFirst();
+      try {
+        entry.future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      } catch (ExecutionException e) {
+        if (completedCheckpoint != null)
+          break;
+        if (e.getCause() instanceof RuntimeException)
+          throw (RuntimeException) e.getCause();
+        throw new RuntimeException(e.getCause());
+      }
+      pending.removeFirst();
+      if (entry.checkpoint != null) {
+        entry.wiperState.entrySet().forEach(stateEntry -> entry.checkpoint.put(stateEntry.getKey(), stateEntry.getValue()));
+        completedCheckpoint = entry.checkpoint;
+      }
+    }
+
+    ExecutionContext checkpoint = completedCheckpoint;
+    completedCheckpoint = null;
+    return checkpoint;
+  }
+
+  /**
+   * Waits until every submitted file is processed or failed.
+   */
+  public void await() {
+    for (Entry entry : pending) {
+      try {
+        entry.future.join();
+      } catch (CompletionException | CancellationException e) {
+        logger.debug("Post processing failed", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (fileActionExecutor != null) {
+      fileActionExecutor.shutdown();
+      wipeExecutor.shutdown();
+      fileActionExecutor = null;
+      wipeExecutor = null;
+    }
+  }
+
+  private void startExecutors() {
+    if (fileActionExecutor != null)
+      return;
+
+    CustomizableThreadFactory fileActionThreadFactory = new CustomizableThreadFactory("archive-file-action-");
+    fileActionThreadFactory.setDaemon(true);
+    fileActionExecutor = Executors.newFixedThreadPool(fileActionThreadCount, fileActionThreadFactory);
+    CustomizableThreadFactory wipeThreadFactory = new CustomizableThreadFactory("archive-wipe-");
+    wipeThreadFactory.setDaemon(true);
+    wipeExecutor = Executors.newSingleThreadExecutor(wipeThreadFactory);
+  }
+
+  private static class Entry {
+    private final CompletableFuture<Void> future;
+    private final ExecutionContext wiperState;
+    private ExecutionContext checkpoint;
+
+    private Entry(CompletableFuture<Void> future, ExecutionContext wiperState) {
+      this.future = future;
+      this.wiperState = wiperState;
+    }
+  }
+}
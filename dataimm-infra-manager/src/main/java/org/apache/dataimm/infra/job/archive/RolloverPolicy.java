@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+/**
+ * Decides when the exporter closes the current archive file and opens a new one.
+ */
+public interface RolloverPolicy {
+  /**
+   * @param writer        writer of the current file
+   * @param documentCount number of documents written into the current file
+   * @param firstDocument first document of the current file
+   * @param nextDocument  the document which is written next
+   * @return true if the next document has to be written into a new file
+   */
+  boolean shouldRollover(DocumentItemWriter writer, int documentCount, Document firstDocument, Document nextDocument);
+
+  /**
+   * Called after the writer of a rolled over file is closed.
+   * @param writer        writer of the completed file
+   * @param documentCount number of documents written into the file
+   */
+  default void fileCompleted(DocumentItemWriter writer, int documentCount) {
+  }
+}
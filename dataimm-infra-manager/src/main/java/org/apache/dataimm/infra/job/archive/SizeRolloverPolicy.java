@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+/**
+ * Rolls the file over when the size of the encoded documents or the size of the file reaches the limit.
+ * The sizes include the data buffered by the encoder and the compressor only as far as the writer can see it,
+ * so the files can be bigger than the limit by up to one compression block.
+ */
+public class SizeRolloverPolicy implements RolloverPolicy {
+  public enum Measure {
+    UNCOMPRESSED,
+    FILE
+  }
+
+  private final Measure measure;
+  private final long maxSize;
+
+  public SizeRolloverPolicy(Measure measure, long maxSize) {
+    this.measure = measure;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public boolean shouldRollover(DocumentItemWriter writer, int documentCount, Document firstDocument, Document nextDocument) {
+    long size = measure == Measure.UNCOMPRESSED ? writer.getUncompressedSize() : writer.getFileSize();
+    return size >= maxSize;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import org.apache.dataimm.infra.job.CursorIterator;
+import org.apache.dataimm.infra.job.CursorObjectSource;
+
+public class SolrCursorDocumentSource implements CursorObjectSource<Document> {
+  private final SolrDAO solrDAO;
+  private final String start;
+  private final String end;
+  private final Document from;
+
+  /**
+   * @param from the cursor starts after this document when it is not null
+   */
+  public SolrCursorDocumentSource(SolrDAO solrDAO, String start, String end, Document from) {
+    this.solrDAO = solrDAO;
+    this.start = start;
+    this.end = end;
+    this.from = from;
+  }
+
+  @Override
+  public CursorIterator<Document> open(String cursorMark, int rows) {
+    return solrDAO.cursorQuery(start, end, from, cursorMark, rows);
+  }
+}
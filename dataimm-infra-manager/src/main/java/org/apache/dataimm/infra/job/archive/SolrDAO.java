@@ -18,51 +18,329 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
+import static java.util.stream.Collectors.toList;
+
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
-import org.apache.dataimm.infra.job.SolrDAOBase;
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.dataimm.infra.job.Throttle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.client.solrj.io.SolrClientCache;
+import org.apache.solr.client.solrj.io.stream.CloudSolrStream;
+import org.apache.solr.client.solrj.io.stream.SolrStream;
+import org.apache.solr.client.solrj.io.stream.StreamContext;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+import org.apache.solr.client.solrj.request.schema.SchemaRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.schema.FieldTypeRepresentation;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.cloud.ClusterState;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.Slice;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
 
-public class SolrDAO extends SolrDAOBase implements DocumentWiper {
+public class SolrDAO extends SolrDocumentDistribution implements DocumentWiper, AutoCloseable {
   private static final Logger logger = LogManager.getLogger(SolrDAO.class);
 
+  private static final int DELETE_ID_PAGE_SIZE = 1000;
+
   private final SolrProperties queryProperties;
+  private final String shard;
+  private String replicaUrl;
+  private FieldProjection fieldProjection;
+  private String[] projectedFields;
+  private Throttle throttle;
+  private SolrClientRegistry.Lease streamLease;
+  private SolrClientCache solrClientCache;
 
-  public SolrDAO(SolrProperties queryProperties) {
-    super(queryProperties.getZooKeeperConnectionString(), queryProperties.getCollection());
+  public SolrDAO(SolrClientRegistry solrClientRegistry, SolrProperties queryProperties) {
+    this(solrClientRegistry, queryProperties, null);
+  }
+
+  /**
+   * @param shard when it is not null every query is sent to a replica of this shard with distrib=false
+   *              and deletes are restricted to the documents of this shard
+   */
+  public SolrDAO(SolrClientRegistry solrClientRegistry, SolrProperties queryProperties, String shard) {
+    super(solrClientRegistry, queryProperties.getZooKeeperConnectionString(), queryProperties.getCollection());
     this.queryProperties = queryProperties;
+    this.shard = shard;
+  }
+
+  /**
+   * @param fieldProjection fl of the archiving queries, all the fields are queried when it is null
+   */
+  public void setFieldProjection(FieldProjection fieldProjection) {
+    this.fieldProjection = fieldProjection;
+  }
+
+  /**
+   * @param throttle receives the query time and the failures of the queries
+   */
+  public void setThrottle(Throttle throttle) {
+    this.throttle = throttle;
   }
 
   @Override
   public void delete(Document firstDocument, Document lastDocument) {
-    delete(new SolrParametrizedString(queryProperties.getDeleteQueryText())
+    String deleteQueryText = new SolrParametrizedString(queryProperties.getDeleteQueryText())
             .set("start", firstDocument.getFieldMap())
-            .set("end", lastDocument.getFieldMap()).toString());
+            .set("end", lastDocument.getFieldMap()).toString();
+    if (shard == null) {
+      delete(deleteQueryText);
+      return;
+    }
+
+    // A delete by query would be broadcast to every shard: delete the matching documents of this shard by id instead
+    if (deleteShardDocuments(deleteQueryText) > 0 && getCommitWithin() == null)
+      commit();
+  }
+
+  /**
+   * Sends a delete by id request for every page of the matching documents, the deletes are committed by the caller.
+   */
+  private long deleteShardDocuments(String queryText) {
+    String uniqueKey = queryProperties.getUniqueKey();
+    long deletedCount = 0;
+    String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+    String previousCursorMark;
+    do {
+      SolrQuery query = new SolrQuery(queryText);
+      query.setFields(uniqueKey);
+      query.setSort(uniqueKey, SolrQuery.ORDER.asc);
+      query.setRows(DELETE_ID_PAGE_SIZE);
+      query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+      QueryResponse response = execute(query);
+      List<String> ids = new ArrayList<>(response.getResults().size());
+      for (SolrDocument document : response.getResults())
+        ids.add(document.getFieldValue(uniqueKey).toString());
+      deleteById(ids, false);
+      deletedCount += ids.size();
+      previousCursorMark = cursorMark;
+      cursorMark = response.getNextCursorMark();
+    } while (!cursorMark.equals(previousCursorMark));
+    return deletedCount;
   }
 
   public SolrDocumentIterator query(String start, String end, Document subIntervalFrom, int rows) {
-    SolrQuery query = queryProperties.toQueryBuilder()
+    SolrQuery query = queryBuilder()
             .setInterval(start, end)
             .setDocument(subIntervalFrom)
             .build();
     query.setRows(rows);
+    return query(query);
+  }
+
+  public SolrDocumentIterator cursorQuery(String start, String end, Document from, String cursorMark, int rows) {
+    SolrQuery query = queryBuilder()
+            .setInterval(start, end)
+            .setDocument(from)
+            .setCursorMark(cursorMark)
+            .build();
+    query.setRows(rows);
+    return query(query);
+  }
+
+  public SolrExportDocumentIterator export(String start, String end, Document subIntervalFrom) {
+    SolrQuery query = queryBuilder()
+            .setInterval(start, end)
+            .setDocument(subIntervalFrom)
+            .build();
+    query.set(CommonParams.QT, "/export");
+
+    logger.info("Executing solr export {}", query.toLocalParamsString());
+
+    SolrClientRegistry.Lease lease = acquireClient();
+    try {
+      TupleStream stream;
+      if (shard == null) {
+        stream = new CloudSolrStream(getZooKeeperConnectionString(), getCollection(), query);
+      }
+      else {
+        query.set(CommonParams.DISTRIB, false);
+        stream = new SolrStream(getReplicaUrl(lease.getClient()), query);
+      }
+      StreamContext streamContext = new StreamContext();
+      streamContext.setSolrClientCache(getSolrClientCache());
+      stream.setStreamContext(streamContext);
+      stream.open();
+      return new SolrExportDocumentIterator(stream, lease);
+    } catch (IOException e) {
+      lease.close();
+      throw new UncheckedIOException(e);
+    }
+  }
 
+  /**
+   * The clients of the export streams are cached for the lifetime of the DAO: opening a stream for every block
+   * does not create new clients.
+   */
+  private synchronized SolrClientCache getSolrClientCache() {
+    if (solrClientCache == null) {
+      streamLease = acquireClient();
+      solrClientCache = new SolrClientCache(streamLease.getHttpClient());
+    }
+    return solrClientCache;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (solrClientCache == null)
+      return;
+    try {
+      solrClientCache.close();
+    } finally {
+      solrClientCache = null;
+      streamLease.close();
+    }
+  }
+
+  @Override
+  protected SolrQuery intervalQuery(String start, String end) {
+    return queryProperties.toQueryBuilder()
+            .setInterval(start, end)
+            .build();
+  }
+
+  private SolrQueryBuilder queryBuilder() {
+    SolrQueryBuilder queryBuilder = queryProperties.toQueryBuilder();
+    if (fieldProjection != null)
+      queryBuilder.setFields(getProjectedFields());
+    return queryBuilder;
+  }
+
+  private synchronized String[] getProjectedFields() {
+    if (projectedFields != null)
+      return projectedFields;
+
+    if (!fieldProjection.needsSchema()) {
+      projectedFields = fieldProjection.toFieldList();
+      return projectedFields;
+    }
+
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set("showDefaults", true);
+    List<String> fields = new ArrayList<>();
+    List<String> dynamicFields = new ArrayList<>();
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      for (Map<String, Object> field : new SchemaRequest.Fields(params).process(lease.getClient(), getCollection()).getFields()) {
+        if (isReturned(field))
+          fields.add(field.get("name").toString());
+      }
+      for (Map<String, Object> field : new SchemaRequest.DynamicFields(params).process(lease.getClient(), getCollection()).getDynamicFields()) {
+        if (isReturned(field))
+          dynamicFields.add(field.get("name").toString());
+      }
+    } catch (SolrServerException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    projectedFields = fieldProjection.toFieldList(fields, dynamicFields);
+    logger.info("Querying fields {} of collection {}", String.join(",", projectedFields), getCollection());
+    return projectedFields;
+  }
+
+  private boolean isReturned(Map<String, Object> field) {
+    // Same as fl=*: stored fields and docValues which are used as stored
+    return !Boolean.FALSE.equals(field.get("stored")) ||
+            (Boolean.TRUE.equals(field.get("docValues")) && !Boolean.FALSE.equals(field.get("useDocValuesAsStored")));
+  }
+
+  /**
+   * Reads the field definitions of the collection by the schema api.
+   */
+  public CollectionSchema readSchema() {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set("showDefaults", true);
+    CollectionSchema schema = new CollectionSchema();
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      Map<String, String> typeClasses = new HashMap<>();
+      for (FieldTypeRepresentation fieldType : new SchemaRequest.FieldTypes(params).process(lease.getClient(), getCollection()).getFieldTypes())
+        typeClasses.put(fieldType.getAttributes().get("name").toString(), String.valueOf(fieldType.getAttributes().get("class")));
+      for (Map<String, Object> field : new SchemaRequest.Fields(params).process(lease.getClient(), getCollection()).getFields())
+        schema.addField(field.get("name").toString(), typeClasses.get(String.valueOf(field.get("type"))), Boolean.TRUE.equals(field.get("multiValued")));
+      for (Map<String, Object> field : new SchemaRequest.DynamicFields(params).process(lease.getClient(), getCollection()).getDynamicFields())
+        schema.addDynamicField(field.get("name").toString(), typeClasses.get(String.valueOf(field.get("type"))), Boolean.TRUE.equals(field.get("multiValued")));
+    } catch (SolrServerException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return schema;
+  }
+
+  private SolrDocumentIterator query(SolrQuery query) {
     logger.info("Executing solr query {}", query.toLocalParamsString());
+    return new SolrDocumentIterator(execute(query));
+  }
 
+  @Override
+  protected QueryResponse execute(SolrQuery query) {
+    QueryResponse response;
     try {
-      CloudSolrClient client = createClient();
-      QueryResponse response = client.query(query);
-      return new SolrDocumentIterator(response, client);
+      response = doExecute(query);
+    } catch (RuntimeException e) {
+      if (throttle != null)
+        throttle.recordQuery(0, true);
+      throw e;
+    }
+    if (throttle != null)
+      throttle.recordQuery(response.getQTime(), Boolean.TRUE.equals(response.getResponseHeader().get("partialResults")));
+    return response;
+  }
+
+  private QueryResponse doExecute(SolrQuery query) {
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      if (shard == null)
+        return lease.getClient().query(getCollection(), query);
+
+      query.set(CommonParams.DISTRIB, false);
+      try (HttpSolrClient replicaClient = new HttpSolrClient.Builder(getReplicaUrl(lease.getClient()))
+              .withHttpClient(lease.getHttpClient())
+              .build()) {
+        return replicaClient.query(query);
+      }
     } catch (SolrServerException e) {
       throw new RuntimeException(e);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
+
+  private synchronized String getReplicaUrl(CloudSolrClient client) {
+    if (replicaUrl != null)
+      return replicaUrl;
+
+    client.connect();
+    ClusterState clusterState = client.getZkStateReader().getClusterState();
+    Slice slice = clusterState.getCollection(getCollection()).getSlice(shard);
+    if (slice == null)
+      throw new IllegalStateException(String.format("Shard %s of collection %s does not exist!", shard, getCollection()));
+
+    List<Replica> replicas = slice.getReplicas().stream()
+            .filter(replica -> replica.getState() == Replica.State.ACTIVE && clusterState.liveNodesContain(replica.getNodeName()))
+            .collect(toList());
+    if (replicas.isEmpty())
+      throw new IllegalStateException(String.format("Shard %s of collection %s has no active replica!", shard, getCollection()));
+
+    // Spread the partitions of the concurrently archived shards over the nodes
+    replicaUrl = replicas.get(ThreadLocalRandom.current().nextInt(replicas.size())).getCoreUrl();
+    logger.info("Reading shard {} from replica {}", shard, replicaUrl);
+    return replicaUrl;
+  }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.dataimm.infra.job.SolrDAOBase;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.RangeFacet;
+
+/**
+ * Document distribution computed by sorted and range faceted queries of the documents between start and end.
+ */
+public abstract class SolrDocumentDistribution extends SolrDAOBase implements DocumentDistribution {
+  private static final Logger logger = LogManager.getLogger(SolrDocumentDistribution.class);
+
+  protected SolrDocumentDistribution(SolrClientRegistry solrClientRegistry, String zooKeeperConnectionString, String defaultCollection) {
+    super(solrClientRegistry, zooKeeperConnectionString, defaultCollection);
+  }
+
+  /**
+   * Returns the query matching the documents between start and end.
+   */
+  protected abstract SolrQuery intervalQuery(String start, String end);
+
+  protected QueryResponse execute(SolrQuery query) {
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      return lease.getClient().query(getCollection(), query);
+    } catch (SolrServerException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public Optional<Instant> min(String start, String end, String column) {
+    return first(start, end, column, SolrQuery.ORDER.asc);
+  }
+
+  @Override
+  public Optional<Instant> max(String start, String end, String column) {
+    return first(start, end, column, SolrQuery.ORDER.desc);
+  }
+
+  private Optional<Instant> first(String start, String end, String column, SolrQuery.ORDER order) {
+    SolrQuery query = intervalQuery(start, end);
+    query.setSort(column, order);
+    query.setFields(column);
+    query.setRows(1);
+    logger.info("Executing solr query {}", query.toLocalParamsString());
+    QueryResponse response = execute(query);
+    if (response.getResults().isEmpty())
+      return Optional.empty();
+
+    Object value = response.getResults().get(0).getFirstValue(column);
+    if (value == null)
+      return Optional.empty();
+    if (!(value instanceof Date))
+      throw new IllegalStateException(String.format("Field %s of collection %s is not a date field!", column, getCollection()));
+    return Optional.of(((Date) value).toInstant());
+  }
+
+  @Override
+  public long[] count(String start, String end, String column, Instant from, Duration gap, int buckets) {
+    SolrQuery query = intervalQuery(start, end);
+    query.setRows(0);
+    query.setFacetMinCount(0);
+    query.addDateRangeFacet(column, Date.from(from), Date.from(from.plus(gap.multipliedBy(buckets))),
+            String.format("+%dMILLISECONDS", gap.toMillis()));
+    logger.info("Executing solr query {}", query.toLocalParamsString());
+    QueryResponse response = execute(query);
+
+    long[] counts = new long[buckets];
+    for (RangeFacet<?, ?> rangeFacet : response.getFacetRanges()) {
+      for (RangeFacet.Count count : rangeFacet.getCounts()) {
+        long index = Duration.between(from, Instant.parse(count.getValue())).toMillis() / gap.toMillis();
+        if (index >= 0 && index < buckets)
+          counts[(int) index] += count.getCount();
+      }
+    }
+    return counts;
+  }
+}
@@ -18,36 +18,37 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.TimeZone;
+import java.util.List;
+import java.util.Map;
 
-import org.apache.dataimm.infra.job.CloseableIterator;
-import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.dataimm.infra.job.CursorIterator;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 
-public class SolrDocumentIterator implements CloseableIterator<Document> {
+public class SolrDocumentIterator implements CursorIterator<Document> {
 
   public static final String SOLR_DATE_FORMAT_TEXT = "yyyy-MM-dd'T'HH:mm:ss.SSSX";
-  private static final DateFormat SOLR_DATE_FORMAT = new SimpleDateFormat(SOLR_DATE_FORMAT_TEXT);
-
-  static {
-    SOLR_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-  }
+  private static final DateTimeFormatter SOLR_DATE_FORMATTER = DateTimeFormatter.ofPattern(SOLR_DATE_FORMAT_TEXT).withZone(ZoneOffset.UTC);
 
   private final Iterator<SolrDocument> documentIterator;
-  private final CloudSolrClient client;
+  private final String nextCursorMark;
+  private DocumentSchema schema = DocumentSchema.EMPTY;
 
 
-  public SolrDocumentIterator(QueryResponse response, CloudSolrClient client) {
+  public SolrDocumentIterator(QueryResponse response) {
     documentIterator = response.getResults().iterator();
-    this.client = client;
+    nextCursorMark = response.getNextCursorMark();
+  }
+
+  @Override
+  public String getNextCursorMark() {
+    return nextCursorMark;
   }
 
   @Override
@@ -56,24 +57,36 @@ public class SolrDocumentIterator implements CloseableIterator<Document> {
       return null;
     
     SolrDocument document = documentIterator.next();
-    HashMap<String, Object> fieldMap = new HashMap<>();
-    for (String key : document.getFieldNames()) {
-      fieldMap.put(key, convertFieldValue(document.get(key)));
+    schema = schema.extend(document.getFieldNames());
+    Object[] values = new Object[schema.size()];
+    for (Map.Entry<String, Object> field : document.entrySet()) {
+      values[schema.indexOf(field.getKey())] = convertFieldValue(field.getValue());
     }
 
-    return new Document(fieldMap);
+    return new Document(schema, values);
   }
 
-  private Object convertFieldValue(Object value) {
+  static Object convertFieldValue(Object value) {
     if (value == null) {
       return null;
     }
     else if (value instanceof Date) {
-      return SOLR_DATE_FORMAT.format(value);
+      return SOLR_DATE_FORMATTER.format(((Date) value).toInstant());
     }
-    else if (value instanceof Integer || value instanceof Long) {
+    else if (value instanceof String || value instanceof Number || value instanceof Boolean) {
       return value;
     }
+    else if (value instanceof Collection) {
+      Collection<?> values = (Collection<?>) value;
+      List<Object> convertedValues = new ArrayList<>(values.size());
+      boolean changed = !(value instanceof List);
+      for (Object element : values) {
+        Object converted = convertFieldValue(element);
+        changed |= converted != element;
+        convertedValues.add(converted);
+      }
+      return changed ? convertedValues : value;
+    }
     else {
       return value.toString();
     }
@@ -81,11 +94,6 @@ public class SolrDocumentIterator implements CloseableIterator<Document> {
 
   @Override
   public void close() {
-    try {
-      client.close();
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
   }
 
   @Override
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.apache.dataimm.infra.job.archive.SolrDocumentIterator.convertFieldValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import org.apache.dataimm.infra.job.CloseableIterator;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+
+public class SolrExportDocumentIterator implements CloseableIterator<Document> {
+  private final TupleStream tupleStream;
+  private final AutoCloseable lease;
+  private Tuple tuple = null;
+  private DocumentSchema schema = DocumentSchema.EMPTY;
+
+  public SolrExportDocumentIterator(TupleStream tupleStream, AutoCloseable lease) {
+    this.tupleStream = tupleStream;
+    this.lease = lease;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (tuple == null) {
+      try {
+        tuple = tupleStream.read();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return !tuple.EOF;
+  }
+
+  @Override
+  public Document next() {
+    if (!hasNext())
+      return null;
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> fields = (Map<String, Object>) (Map<?, ?>) tuple.getFields();
+    schema = schema.extend(fields.keySet());
+    Object[] values = new Object[schema.size()];
+    for (Map.Entry<String, Object> field : fields.entrySet()) {
+      values[schema.indexOf(field.getKey())] = convertFieldValue(field.getValue());
+    }
+    tuple = null;
+    return new Document(schema, values);
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      tupleStream.close();
+    }
+    finally {
+      lease.close();
+    }
+  }
+}
@@ -44,6 +44,26 @@ public class SolrParametrizedString {
     return parameters;
   }
 
+  /**
+   * Returns the names of the parameters without prefix like ${logtime}.
+   */
+  public Set<String> getParameterNames() {
+    return string == null ? new HashSet<>() : collectParamNames(NO_PREFIX_PARAMETER_PATTERN);
+  }
+
+  /**
+   * Returns the names of the parameters having the prefix like ${start.logtime} without the prefix.
+   */
+  public Set<String> getParameterNames(String prefix) {
+    Set<String> names = new HashSet<>();
+    if (string == null)
+      return names;
+    String dottedPrefix = prefix + ".";
+    for (String name : collectParamNames(Pattern.compile(String.format(PARAMETER_PATTERN, dottedPrefix))))
+      names.add(name.substring(dottedPrefix.length()));
+    return names;
+  }
+
   @Override
   public String toString() {
     return string;
@@ -18,10 +18,14 @@
  */
 package org.apache.dataimm.infra.job.archive;
 
+import static java.util.Arrays.asList;
 import static org.apache.commons.lang.StringUtils.isBlank;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.batch.core.JobParameters;
 
@@ -31,7 +35,10 @@ public class SolrProperties {
   private String queryText;
   private String filterQueryText;
   private String[] sortColumn;
+  private String[] fields;
+  private String[] excludeFields;
   private String deleteQueryText;
+  private String uniqueKey = "id";
 
   public String getZooKeeperConnectionString() {
     return zooKeeperConnectionString;
@@ -73,6 +80,57 @@ public class SolrProperties {
     this.sortColumn = sortColumn;
   }
 
+  public String[] getFields() {
+    return fields;
+  }
+
+  public void setFields(String[] fields) {
+    this.fields = fields;
+  }
+
+  public String[] getExcludeFields() {
+    return excludeFields;
+  }
+
+  public void setExcludeFields(String[] excludeFields) {
+    this.excludeFields = excludeFields;
+  }
+
+  /**
+   * Returns null if all the fields are queried.
+   * @param requiredFields fields used outside of the query like the file name suffix column
+   */
+  public FieldProjection fieldProjection(String... requiredFields) {
+    if (isEmpty(fields) && isEmpty(excludeFields))
+      return null;
+
+    Set<String> required = new LinkedHashSet<>();
+    if (sortColumn != null)
+      Collections.addAll(required, sortColumn);
+    required.add(uniqueKey);
+    // Parameters of the filter query are filled from the last read document, the ones of the delete query from the archived ones
+    SolrParametrizedString filterQuery = new SolrParametrizedString(filterQueryText);
+    filterQuery.getParameterNames().stream()
+            .filter(name -> !"start".equals(name) && !"end".equals(name))
+            .forEach(required::add);
+    SolrParametrizedString deleteQuery = new SolrParametrizedString(deleteQueryText);
+    required.addAll(deleteQuery.getParameterNames("start"));
+    required.addAll(deleteQuery.getParameterNames("end"));
+    for (String field : requiredFields) {
+      if (!isBlank(field))
+        required.add(field);
+    }
+
+    return new FieldProjection(
+            isEmpty(fields) ? Collections.emptyList() : asList(fields),
+            isEmpty(excludeFields) ? Collections.emptyList() : asList(excludeFields),
+            required);
+  }
+
+  private static boolean isEmpty(String[] values) {
+    return values == null || values.length == 0;
+  }
+
   public String getDeleteQueryText() {
     return deleteQueryText;
   }
@@ -81,11 +139,37 @@ public class SolrProperties {
     this.deleteQueryText = deleteQueryText;
   }
 
+  public String getUniqueKey() {
+    return uniqueKey;
+  }
+
+  public void setUniqueKey(String uniqueKey) {
+    this.uniqueKey = uniqueKey;
+  }
+
+  /**
+   * Returns a copy of the properties with an other query text.
+   */
+  public SolrProperties withQueryText(String queryText) {
+    SolrProperties solrProperties = new SolrProperties();
+    solrProperties.setZooKeeperConnectionString(zooKeeperConnectionString);
+    solrProperties.setCollection(collection);
+    solrProperties.setQueryText(queryText);
+    solrProperties.setFilterQueryText(filterQueryText);
+    solrProperties.setDeleteQueryText(deleteQueryText);
+    solrProperties.setUniqueKey(uniqueKey);
+    solrProperties.setSortColumn(sortColumn);
+    solrProperties.setFields(fields);
+    solrProperties.setExcludeFields(excludeFields);
+    return solrProperties;
+  }
+
   public SolrQueryBuilder toQueryBuilder() {
     return new SolrQueryBuilder().
             setQueryText(queryText)
             .setFilterQueryText(filterQueryText)
-            .addSort(sortColumn);
+            .addSort(sortColumn)
+            .setFields(fields);
   }
 
   public void validate() {
@@ -103,21 +187,28 @@ public class SolrProperties {
     solrProperties.setQueryText(jobParameters.getString("queryText", queryText));
     solrProperties.setFilterQueryText(jobParameters.getString("filterQueryText", filterQueryText));
     solrProperties.setDeleteQueryText(jobParameters.getString("deleteQueryText", deleteQueryText));
+    solrProperties.setUniqueKey(jobParameters.getString("uniqueKey", uniqueKey));
+
+    solrProperties.setSortColumn(getArrayJobParameter(jobParameters, "sortColumn", sortColumn));
+    solrProperties.setFields(getArrayJobParameter(jobParameters, "fields", fields));
+    solrProperties.setExcludeFields(getArrayJobParameter(jobParameters, "excludeFields", excludeFields));
 
-    String sortValue;
-    List<String> sortColumns = new ArrayList<>();
+    return solrProperties;
+  }
+
+  private String[] getArrayJobParameter(JobParameters jobParameters, String parameterName, String[] defaultValue) {
+    String value;
+    List<String> values = new ArrayList<>();
     int i = 0;
-    while ((sortValue = jobParameters.getString(String.format("sortColumn[%d]", i))) != null) {
-      sortColumns.add(sortValue);
+    while ((value = jobParameters.getString(String.format("%s[%d]", parameterName, i))) != null) {
+      values.add(value);
       ++i;
     }
-    if (!sortColumns.isEmpty()) {
-      solrProperties.setSortColumn(sortColumns.toArray(new String[0]));
+    if (!values.isEmpty()) {
+      return values.toArray(new String[0]);
     }
     else {
-      solrProperties.setSortColumn(sortColumn);
+      return defaultValue;
     }
-
-    return solrProperties;
   }
 }
@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.params.CursorMarkParams;
 
 public class SolrQueryBuilder {
 
@@ -52,6 +53,8 @@ public class SolrQueryBuilder {
   private String filterQueryText;
   private Document document;
   private String[] sortFields;
+  private String cursorMark;
+  private String[] fields;
 
   public SolrQueryBuilder() {
     this.queryText = "*:*";
@@ -91,6 +94,16 @@ public class SolrQueryBuilder {
     return this;
   }
 
+  public SolrQueryBuilder setFields(String... fields) {
+    this.fields = fields;
+    return this;
+  }
+
+  public SolrQueryBuilder setCursorMark(String cursorMark) {
+    this.cursorMark = cursorMark;
+    return this;
+  }
+
   public SolrQuery build() {
     SolrQuery solrQuery = new SolrQuery();
 
@@ -112,6 +125,12 @@ public class SolrQueryBuilder {
         solrQuery.addSort(field, asc);
     }
 
+    if (fields != null && fields.length > 0)
+      solrQuery.setFields(fields);
+
+    if (cursorMark != null)
+      solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+
     return solrQuery;
   }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Slice;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Creates one partition for each active shard of the archived collection. Only the shard name is stored in the
+ * partition context: the replica to read from is resolved when the partition is (re)started. When the planning step
+ * selected the shards to export (the expired time shards) only those are partitioned.
+ */
+public class SolrShardPartitioner implements Partitioner {
+  private static final Logger logger = LogManager.getLogger(SolrShardPartitioner.class);
+
+  public static final String SHARDS = "export-shards";
+  public static final String SHARD = "shard";
+
+  private final SolrClientRegistry solrClientRegistry;
+  private final SolrProperties solrProperties;
+  private final ExecutionContext jobExecutionContext;
+
+  public SolrShardPartitioner(SolrClientRegistry solrClientRegistry, SolrProperties solrProperties, ExecutionContext jobExecutionContext) {
+    this.solrClientRegistry = solrClientRegistry;
+    this.solrProperties = solrProperties;
+    this.jobExecutionContext = jobExecutionContext;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<String, ExecutionContext> partition(int gridSize) {
+    List<String> plannedShards = (List<String>) jobExecutionContext.get(SHARDS);
+    try (SolrClientRegistry.Lease lease = solrClientRegistry.acquire(solrProperties.getZooKeeperConnectionString())) {
+      CloudSolrClient client = lease.getClient();
+      client.connect();
+      DocCollection collection = client.getZkStateReader().getClusterState().getCollection(solrProperties.getCollection());
+
+      Map<String, ExecutionContext> partitions = new HashMap<>();
+      for (Slice slice : collection.getActiveSlices()) {
+        if (plannedShards != null && !plannedShards.contains(slice.getName()))
+          continue;
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putString(SHARD, slice.getName());
+        partitions.put(slice.getName(), executionContext);
+      }
+      logger.info("Collection {} is partitioned by shards {}", solrProperties.getCollection(), partitions.keySet());
+      return partitions;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The parallel compressor streams created by an instance share one thread pool, which is released by {@link #close()}.
+ */
+public class StreamCompressor implements Closeable {
+  public static final int DEFAULT_BLOCK_SIZE = 4 * 1024 * 1024;
+  private static final AtomicInteger threadCount = new AtomicInteger();
+
+  private final CompressionCodec compressionCodec;
+  private final int level;
+  private final int threads;
+  private ExecutorService executorService;
+
+  public StreamCompressor(CompressionCodec compressionCodec) {
+    this(compressionCodec, CompressionCodec.DEFAULT_LEVEL, 1);
+  }
+
+  public StreamCompressor(CompressionCodec compressionCodec, int level, int threads) {
+    this.compressionCodec = compressionCodec;
+    this.level = level;
+    this.threads = threads;
+  }
+
+  public CompressionCodec getCompressionCodec() {
+    return compressionCodec;
+  }
+
+  public String getExtension() {
+    return compressionCodec.getExtension();
+  }
+
+  public OutputStream compress(OutputStream outputStream) throws IOException {
+    if (threads <= 1 || compressionCodec == CompressionCodec.NONE)
+      return compressionCodec.compress(outputStream, level);
+    return new ParallelCompressorOutputStream(outputStream, compressionCodec, level, executorService(), threads, DEFAULT_BLOCK_SIZE);
+  }
+
+  private synchronized ExecutorService executorService() {
+    if (executorService == null) {
+      executorService = Executors.newFixedThreadPool(threads, runnable -> {
+        Thread thread = new Thread(runnable, "parallel-compressor-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executorService;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (executorService != null) {
+      executorService.shutdownNow();
+      executorService = null;
+    }
+  }
+}
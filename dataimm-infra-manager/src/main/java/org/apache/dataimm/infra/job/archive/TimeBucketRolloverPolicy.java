@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Starts a new file when the next document belongs to another time bucket than the first document of the current file.
+ * Buckets are aligned to the epoch, for example one file per hour of the column value.
+ * The documents must be sorted by the column.
+ */
+public class TimeBucketRolloverPolicy implements RolloverPolicy {
+  private final String columnName;
+  private final long bucketMillis;
+
+  public TimeBucketRolloverPolicy(String columnName, Duration bucket) {
+    this.columnName = columnName;
+    this.bucketMillis = bucket.toMillis();
+  }
+
+  @Override
+  public boolean shouldRollover(DocumentItemWriter writer, int documentCount, Document firstDocument, Document nextDocument) {
+    return bucketOf(firstDocument) != bucketOf(nextDocument);
+  }
+
+  long bucketOf(Document document) {
+    String value = document.getString(columnName);
+    if (isBlank(value))
+      throw new IllegalArgumentException("The specified document does not have a column " + columnName + " or it's value is blank!");
+    return Math.floorDiv(OffsetDateTime.parse(value, ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli(), bucketMillis);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Time range archived by a partition: start and end are both inclusive like in the interval [${start} TO ${end}]
+ * of the archiving query, * means unbounded.
+ */
+public class TimeRangePartition {
+  private final String name;
+  private final String start;
+  private final String end;
+  private final long documentCount;
+
+  @JsonCreator
+  public TimeRangePartition(@JsonProperty("name") String name,
+                            @JsonProperty("start") String start,
+                            @JsonProperty("end") String end,
+                            @JsonProperty("documentCount") long documentCount) {
+    this.name = name;
+    this.start = start;
+    this.end = end;
+    this.documentCount = documentCount;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getStart() {
+    return start;
+  }
+
+  public String getEnd() {
+    return end;
+  }
+
+  /**
+   * Number of documents at planning time.
+   */
+  public long getDocumentCount() {
+    return documentCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s:[%s TO %s]=%d", name, start, end, documentCount);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Creates one partition for each time range of the plan stored in the job context by the planning step.
+ * Every partition has its own checkpoint in its step context and its own file name prefix.
+ */
+public class TimeRangePartitioner implements Partitioner {
+  private static final Logger logger = LogManager.getLogger(TimeRangePartitioner.class);
+
+  public static final String PLAN = "export-plan";
+  public static final String PARTITION = "time-range";
+  public static final String PARTITION_START = "time-range-start";
+  public static final String PARTITION_END = "time-range-end";
+  public static final String PARTITION_DOCUMENT_COUNT = "time-range-document-count";
+
+  private final ExecutionContext jobExecutionContext;
+
+  public TimeRangePartitioner(ExecutionContext jobExecutionContext) {
+    this.jobExecutionContext = jobExecutionContext;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<String, ExecutionContext> partition(int gridSize) {
+    List<TimeRangePartition> plan = (List<TimeRangePartition>) jobExecutionContext.get(PLAN);
+    if (plan == null)
+      throw new IllegalStateException("Export plan is not found in the job context!");
+
+    Map<String, ExecutionContext> partitions = new HashMap<>();
+    for (TimeRangePartition timeRange : plan) {
+      ExecutionContext executionContext = new ExecutionContext();
+      executionContext.putString(PARTITION, timeRange.getName());
+      executionContext.putString(PARTITION_START, timeRange.getStart());
+      executionContext.putString(PARTITION_END, timeRange.getEnd());
+      executionContext.putLong(PARTITION_DOCUMENT_COUNT, timeRange.getDocumentCount());
+      partitions.put(timeRange.getName(), executionContext);
+    }
+    logger.info("Export is partitioned by time ranges {}", partitions.keySet());
+    return partitions;
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Collections.singletonList;
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Splits the archived interval into time ranges having roughly the same number of documents. The documents are
+ * counted in fine buckets by a range facet, buckets having more than a quarter of the documents a partition should have
+ * are counted again in finer buckets, then consecutive buckets are grouped. A day having many times the volume of the others
+ * ends up in several partitions instead of making one of them a straggler.
+ */
+public class TimeRangePlanner {
+  private static final Logger logger = LogManager.getLogger(TimeRangePlanner.class);
+
+  static final int BUCKETS_PER_PARTITION = 16;
+  private static final int MAX_REFINEMENT_DEPTH = 3;
+  private static final int BUCKETS_PER_SHARE = 4;
+
+  private final DocumentDistribution distribution;
+  private final String column;
+  private final int partitionCount;
+
+  public TimeRangePlanner(DocumentDistribution distribution, String column, int partitionCount) {
+    this.distribution = distribution;
+    this.column = column;
+    this.partitionCount = partitionCount;
+  }
+
+  public List<TimeRangePartition> plan(String start, String end) {
+    if (partitionCount == 1)
+      return singletonList(new TimeRangePartition(name(0), unbounded(start), unbounded(end), 0));
+    Optional<Instant> min = distribution.min(start, end, column);
+    Optional<Instant> max = distribution.max(start, end, column);
+    if (!min.isPresent() || !max.isPresent())
+      return singletonList(new TimeRangePartition(name(0), unbounded(start), unbounded(end), 0));
+
+    List<Bucket> buckets = count(start, end, min.get(), max.get().plusMillis(1), partitionCount * BUCKETS_PER_PARTITION);
+    long total = buckets.stream().mapToLong(bucket -> bucket.count).sum();
+    buckets = refine(start, end, buckets, Math.max(1, total / partitionCount / BUCKETS_PER_SHARE), 1);
+    List<TimeRangePartition> partitions = group(start, end, buckets, total);
+    logger.info("{} documents of {} between {} and {} are archived in partitions {}", total, column, min.get(), max.get(), partitions);
+    return partitions;
+  }
+
+  /**
+   * Splits the interval into ranges of the given time span starting at the first document instead of balancing
+   * the number of documents. Spans without documents are merged into the next range.
+   */
+  public List<TimeRangePartition> split(String start, String end, Duration timeSpan) {
+    Optional<Instant> min = distribution.min(start, end, column);
+    Optional<Instant> max = distribution.max(start, end, column);
+    if (!min.isPresent() || !max.isPresent())
+      return singletonList(new TimeRangePartition(name(0), unbounded(start), unbounded(end), 0));
+
+    List<Bucket> buckets = countByGap(start, end, min.get(), max.get().plusMillis(1), timeSpan.toMillis());
+    List<TimeRangePartition> partitions = new ArrayList<>();
+    String partitionStart = unbounded(start);
+    for (int i = 0; i < buckets.size() - 1; ++i) {
+      Bucket bucket = buckets.get(i);
+      if (bucket.count == 0)
+        continue;
+      partitions.add(new TimeRangePartition(name(partitions.size()), partitionStart, bucket.to.minusMillis(1).toString(), bucket.count));
+      partitionStart = bucket.to.toString();
+    }
+    partitions.add(new TimeRangePartition(name(partitions.size()), partitionStart, unbounded(end), buckets.get(buckets.size() - 1).count));
+    logger.info("Documents of {} between {} and {} are split into {} ranges of {}", column, min.get(), max.get(), partitions.size(), timeSpan);
+    return partitions;
+  }
+
+  private List<Bucket> count(String start, String end, Instant from, Instant to, int bucketCount) {
+    long width = Duration.between(from, to).toMillis();
+    return countByGap(start, end, from, to, Math.max(1, (width + bucketCount - 1) / bucketCount));
+  }
+
+  private List<Bucket> countByGap(String start, String end, Instant from, Instant to, long gap) {
+    long width = Duration.between(from, to).toMillis();
+    int size = (int) ((width + gap - 1) / gap);
+    long[] counts = distribution.count(start, end, column, from, Duration.ofMillis(gap), size);
+
+    List<Bucket> buckets = new ArrayList<>(size);
+    for (int i = 0; i < size; ++i)
+      buckets.add(new Bucket(from.plusMillis(i * gap), from.plusMillis((i + 1) * gap), counts[i]));
+    return buckets;
+  }
+
+  private List<Bucket> refine(String start, String end, List<Bucket> buckets, long maxCount, int depth) {
+    List<Bucket> refined = new ArrayList<>(buckets.size());
+    for (Bucket bucket : buckets) {
+      if (depth <= MAX_REFINEMENT_DEPTH && bucket.count > maxCount && Duration.between(bucket.from, bucket.to).toMillis() > 1)
+        refined.addAll(refine(start, end, count(start, end, bucket.from, bucket.to, BUCKETS_PER_PARTITION), maxCount, depth + 1));
+      else
+        refined.add(bucket);
+    }
+    return refined;
+  }
+
+  private List<TimeRangePartition> group(String start, String end, List<Bucket> buckets, long total) {
+    List<TimeRangePartition> partitions = new ArrayList<>(partitionCount);
+    String partitionStart = unbounded(start);
+    long remaining = total;
+    long count = 0;
+    for (int i = 0; i < buckets.size() - 1; ++i) {
+      count += buckets.get(i).count;
+      int remainingPartitions = partitionCount - partitions.size();
+      if (remainingPartitions <= 1 || count == 0)
+        continue;
+
+      // Close the partition when it is closer to its share with the current bucket than with the next one too
+      double target = (double) remaining / remainingPartitions;
+      Bucket next = buckets.get(i + 1);
+      if (count >= target || target - count < count + next.count - target) {
+        // The next partition starts at the next bucket: the end is inclusive
+        partitions.add(new TimeRangePartition(name(partitions.size()), partitionStart, next.from.minusMillis(1).toString(), count));
+        partitionStart = next.from.toString();
+        remaining -= count;
+        count = 0;
+      }
+    }
+    count += buckets.get(buckets.size() - 1).count;
+    partitions.add(new TimeRangePartition(name(partitions.size()), partitionStart, unbounded(end), count));
+    return partitions;
+  }
+
+  private static String unbounded(String value) {
+    return isBlank(value) ? "*" : value;
+  }
+
+  private static String name(int index) {
+    return String.format("range%03d", index);
+  }
+
+  private static class Bucket {
+    private final Instant from;
+    private final Instant to;
+    private final long count;
+
+    private Bucket(Instant from, Instant to, long count) {
+      this.from = from;
+      this.to = to;
+      this.count = count;
+    }
+  }
+}
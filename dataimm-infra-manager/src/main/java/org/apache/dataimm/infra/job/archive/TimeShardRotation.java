@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.dataimm.infra.job.SolrDAOBase;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.request.CollectionAdminRequest;
+import org.apache.solr.client.solrj.response.CollectionAdminResponse;
+import org.apache.solr.common.params.ShardParams;
+
+/**
+ * Lifecycle of the time routed shards of an implicitly routed collection. Each shard holds the documents of one
+ * period and is named after the UTC start of the period (time_yyyyMMdd'T'HHmm, the naming of the solr client
+ * create-collection command). Expired shards are archived and dropped as a whole instead of deleting their documents
+ * by query, so the documents of a shard outside of the archived interval are archived too.
+ */
+public class TimeShardRotation extends SolrDAOBase {
+  private static final Logger logger = LogManager.getLogger(TimeShardRotation.class);
+
+  public static final String TIME_SHARD_PREFIX = "time_";
+  public static final String EXPORT_QUERY_TEXT = "*:*";
+  private static final DateTimeFormatter TIME_SHARD_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm").withZone(ZoneOffset.UTC);
+  private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+  private final Duration period;
+
+  public TimeShardRotation(SolrClientRegistry solrClientRegistry, SolrProperties solrProperties, Duration period) {
+    super(solrClientRegistry, solrProperties.getZooKeeperConnectionString(), solrProperties.getCollection());
+    this.period = period;
+  }
+
+  /**
+   * Periods are aligned to the epoch: they have to divide a day or be whole days to start at the same time of every day.
+   */
+  public static boolean isValidPeriod(Duration period) {
+    long periodMillis = period.toMillis();
+    return periodMillis >= Duration.ofMinutes(1).toMillis() && (DAY_MILLIS % periodMillis == 0 || periodMillis % DAY_MILLIS == 0);
+  }
+
+  public static String shardName(Instant time, Duration period) {
+    long periodMillis = period.toMillis();
+    return TIME_SHARD_PREFIX + TIME_SHARD_FORMATTER.format(Instant.ofEpochMilli(Math.floorDiv(time.toEpochMilli(), periodMillis) * periodMillis));
+  }
+
+  public static Optional<Instant> shardStart(String shardName) {
+    if (!shardName.startsWith(TIME_SHARD_PREFIX))
+      return Optional.empty();
+    try {
+      return Optional.of(TIME_SHARD_FORMATTER.parse(shardName.substring(TIME_SHARD_PREFIX.length()), Instant::from));
+    } catch (DateTimeParseException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Time shards whose period ended before the cutoff in the order of their periods: none of their documents are newer.
+   */
+  public static List<String> expiredShards(Collection<String> shardNames, Duration period, Instant cutoff) {
+    return shardNames.stream()
+            .filter(shardName -> shardStart(shardName).map(start -> !start.plus(period).isAfter(cutoff)).orElse(false))
+            .sorted()
+            .collect(toList());
+  }
+
+  /**
+   * Returns the query properties exporting every document of the partitioned shard.
+   */
+  public static SolrProperties exportProperties(SolrProperties solrProperties) {
+    return solrProperties.withQueryText(EXPORT_QUERY_TEXT);
+  }
+
+  public List<String> expiredShards(Instant cutoff) {
+    return expiredShards(activeShards(), period, cutoff);
+  }
+
+  /**
+   * Creates the missing shards of the current period and of the following aheadCount periods: producers route the
+   * documents of a period to its shard, so the shard has to exist before the period starts.
+   */
+  public void createShards(Instant now, int aheadCount) {
+    Set<String> existingShards = activeShards();
+    for (int i = 0; i <= aheadCount; i++) {
+      String shardName = shardName(now.plus(period.multipliedBy(i)), period);
+      if (existingShards.contains(shardName))
+        continue;
+      logger.info("Creating time shard {} of collection {}", shardName, getCollection());
+      process(CollectionAdminRequest.createShard(getCollection(), shardName));
+    }
+  }
+
+  /**
+   * Drops the shards with their documents. A shard is dropped only if its document count is the number of its archived
+   * documents: documents indexed after the export or missed by it fail the rotation instead of being lost.
+   * Shards which do not exist anymore are skipped, so a restarted rotation continues where the previous one failed.
+   * @param archivedCounts number of the archived documents by shard name
+   */
+  public void deleteShards(List<String> shardNames, Map<String, Long> archivedCounts) {
+    Set<String> existingShards = activeShards();
+    for (String shardName : shardNames) {
+      if (!existingShards.contains(shardName))
+        continue;
+      long documentCount = countDocuments(shardName);
+      Long archivedCount = archivedCounts.get(shardName);
+      if (archivedCount == null || archivedCount != documentCount)
+        throw new IllegalStateException(String.format("Time shard %s of collection %s has %d documents but %s were archived, it is not deleted!",
+                shardName, getCollection(), documentCount, archivedCount == null ? "none" : archivedCount.toString()));
+      logger.info("Deleting time shard {} of collection {}", shardName, getCollection());
+      process(CollectionAdminRequest.deleteShard(getCollection(), shardName));
+    }
+  }
+
+  Set<String> activeShards() {
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      CloudSolrClient client = lease.getClient();
+      client.connect();
+      return new HashSet<>(client.getZkStateReader().getClusterState().getCollection(getCollection()).getActiveSlicesMap().keySet());
+    }
+  }
+
+  long countDocuments(String shardName) {
+    SolrQuery query = new SolrQuery(EXPORT_QUERY_TEXT);
+    query.setRows(0);
+    query.set(ShardParams.SHARDS, shardName);
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      return lease.getClient().query(getCollection(), query).getResults().getNumFound();
+    } catch (SolrServerException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  void process(CollectionAdminRequest<CollectionAdminResponse> request) {
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      CollectionAdminResponse response = request.process(lease.getClient());
+      if (response.getStatus() != 0)
+        throw new RuntimeException(String.format("Solr collection admin request %s of collection %s failed with status %d",
+                request.getParams().get("action"), getCollection(), response.getStatus()));
+    } catch (SolrServerException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
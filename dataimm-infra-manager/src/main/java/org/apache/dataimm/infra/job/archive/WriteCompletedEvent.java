@@ -24,13 +24,22 @@ public class WriteCompletedEvent {
   private final File outFile;
   private final Document firstDocument;
   private final Document lastDocument;
+  private final File manifestFile;
 
   public WriteCompletedEvent(File outFile, Document firstDocument, Document lastDocument) {
+    this(outFile, firstDocument, lastDocument, null);
+  }
+
+  public WriteCompletedEvent(File outFile, Document firstDocument, Document lastDocument, File manifestFile) {
     this.outFile = outFile;
     this.firstDocument = firstDocument;
     this.lastDocument = lastDocument;
+    this.manifestFile = manifestFile;
   }
 
+  /**
+   * @return the local file or null when the documents were written directly to a remote destination
+   */
   public File getOutFile() {
     return outFile;
   }
@@ -42,4 +51,11 @@ public class WriteCompletedEvent {
   public Document getLastDocument() {
     return lastDocument;
   }
+
+  /**
+   * @return the local manifest file of the archive or null if no manifest was written or it was written directly to a remote destination
+   */
+  public File getManifestFile() {
+    return manifestFile;
+  }
 }
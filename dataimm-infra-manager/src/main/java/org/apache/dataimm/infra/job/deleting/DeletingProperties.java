@@ -24,6 +24,7 @@ import static org.apache.commons.lang.StringUtils.isBlank;
 import java.time.Duration;
 
 import org.apache.dataimm.infra.job.JobProperties;
+import org.apache.dataimm.infra.job.Throttle;
 import org.apache.dataimm.infra.job.Validatable;
 import org.apache.dataimm.infra.json.DurationToStringConverter;
 import org.apache.dataimm.infra.json.StringToDurationConverter;
@@ -41,6 +42,19 @@ public class DeletingProperties extends JobProperties<DeletingProperties> implem
   @JsonSerialize(converter = DurationToStringConverter.class)
   @JsonDeserialize(converter = StringToDurationConverter.class)
   private Duration ttl;
+  private long chunkDocumentCount = 0;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration chunkTimeSpan;
+  private int threadCount = 1;
+  private int commitChunkCount = 1;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration commitWithin;
+  private long throttleDocumentsPerSecond = 0;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration throttleMaxDeleteTime;
 
   public String getZooKeeperConnectionString() {
     return zooKeeperConnectionString;
@@ -90,6 +104,66 @@ public class DeletingProperties extends JobProperties<DeletingProperties> implem
     this.ttl = ttl;
   }
 
+  public long getChunkDocumentCount() {
+    return chunkDocumentCount;
+  }
+
+  public void setChunkDocumentCount(long chunkDocumentCount) {
+    this.chunkDocumentCount = chunkDocumentCount;
+  }
+
+  public Duration getChunkTimeSpan() {
+    return chunkTimeSpan;
+  }
+
+  public void setChunkTimeSpan(Duration chunkTimeSpan) {
+    this.chunkTimeSpan = chunkTimeSpan;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  public void setThreadCount(int threadCount) {
+    this.threadCount = threadCount;
+  }
+
+  public int getCommitChunkCount() {
+    return commitChunkCount;
+  }
+
+  public void setCommitChunkCount(int commitChunkCount) {
+    this.commitChunkCount = commitChunkCount;
+  }
+
+  public Duration getCommitWithin() {
+    return commitWithin;
+  }
+
+  public void setCommitWithin(Duration commitWithin) {
+    this.commitWithin = commitWithin;
+  }
+
+  public long getThrottleDocumentsPerSecond() {
+    return throttleDocumentsPerSecond;
+  }
+
+  public void setThrottleDocumentsPerSecond(long throttleDocumentsPerSecond) {
+    this.throttleDocumentsPerSecond = throttleDocumentsPerSecond;
+  }
+
+  public Duration getThrottleMaxDeleteTime() {
+    return throttleMaxDeleteTime;
+  }
+
+  public void setThrottleMaxDeleteTime(Duration throttleMaxDeleteTime) {
+    this.throttleMaxDeleteTime = throttleMaxDeleteTime;
+  }
+
+  public Throttle throttle() {
+    return new Throttle(throttleDocumentsPerSecond, 0, throttleMaxDeleteTime, 0);
+  }
+
   @Override
   public void validate() {
     if (isBlank(zooKeeperConnectionString))
@@ -100,6 +174,23 @@ public class DeletingProperties extends JobProperties<DeletingProperties> implem
 
     if (isBlank(filterField))
       throw new IllegalArgumentException("The property filterField can not be null or empty string!");
+
+    if (chunkDocumentCount < 0)
+      throw new IllegalArgumentException("The property chunkDocumentCount can not be negative!");
+    if (chunkTimeSpan != null && (chunkTimeSpan.isNegative() || chunkTimeSpan.isZero()))
+      throw new IllegalArgumentException("The property chunkTimeSpan must be greater than 0!");
+    if (chunkDocumentCount > 0 && chunkTimeSpan != null)
+      throw new IllegalArgumentException("The properties chunkDocumentCount and chunkTimeSpan can not be set both!");
+    if (threadCount <= 0)
+      throw new IllegalArgumentException("The property threadCount must be greater than 0!");
+    if (commitChunkCount <= 0)
+      throw new IllegalArgumentException("The property commitChunkCount must be greater than 0!");
+    if (commitWithin != null && (commitWithin.isNegative() || commitWithin.isZero()))
+      throw new IllegalArgumentException("The property commitWithin must be greater than 0!");
+    if (throttleDocumentsPerSecond < 0)
+      throw new IllegalArgumentException("The property throttleDocumentsPerSecond can not be negative!");
+    if (throttleMaxDeleteTime != null && (throttleMaxDeleteTime.isNegative() || throttleMaxDeleteTime.isZero()))
+      throw new IllegalArgumentException("The property throttleMaxDeleteTime must be greater than 0!");
   }
 
   @Override
@@ -111,6 +202,27 @@ public class DeletingProperties extends JobProperties<DeletingProperties> implem
     deletingProperties.setStart(jobParameters.getString("start", "*"));
     deletingProperties.setEnd(jobParameters.getString("end", "*"));
     deletingProperties.setTtl(toDuration(jobParameters.getString("ttl", DurationToStringConverter.toString(ttl))));
+    deletingProperties.setChunkDocumentCount(getLongJobParameter(jobParameters, "chunkDocumentCount", chunkDocumentCount));
+    deletingProperties.setChunkTimeSpan(toDuration(jobParameters.getString("chunkTimeSpan", DurationToStringConverter.toString(chunkTimeSpan))));
+    deletingProperties.setThreadCount(getIntJobParameter(jobParameters, "threadCount", threadCount));
+    deletingProperties.setCommitChunkCount(getIntJobParameter(jobParameters, "commitChunkCount", commitChunkCount));
+    deletingProperties.setCommitWithin(toDuration(jobParameters.getString("commitWithin", DurationToStringConverter.toString(commitWithin))));
+    deletingProperties.setThrottleDocumentsPerSecond(getLongJobParameter(jobParameters, "throttleDocumentsPerSecond", throttleDocumentsPerSecond));
+    deletingProperties.setThrottleMaxDeleteTime(toDuration(jobParameters.getString("throttleMaxDeleteTime", DurationToStringConverter.toString(throttleMaxDeleteTime))));
     return deletingProperties;
   }
+
+  private int getIntJobParameter(JobParameters jobParameters, String parameterName, int defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Integer.parseInt(valueText);
+  }
+
+  private long getLongJobParameter(JobParameters jobParameters, String parameterName, long defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Long.parseLong(valueText);
+  }
 }
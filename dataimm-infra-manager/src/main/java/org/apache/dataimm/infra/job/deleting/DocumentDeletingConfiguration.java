@@ -24,14 +24,19 @@ import javax.inject.Inject;
 
 import org.apache.dataimm.infra.job.AbstractJobsConfiguration;
 import org.apache.dataimm.infra.job.JobScheduler;
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.dataimm.infra.job.ThrottleRegistry;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -42,6 +47,7 @@ public class DocumentDeletingConfiguration extends AbstractJobsConfiguration<Del
 
   private final StepBuilderFactory steps;
   private final Step deleteStep;
+  private final ThrottleRegistry throttleRegistry;
 
   @Inject
   public DocumentDeletingConfiguration(
@@ -50,10 +56,12 @@ public class DocumentDeletingConfiguration extends AbstractJobsConfiguration<Del
           StepBuilderFactory steps,
           JobBuilderFactory jobs,
           JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor,
-          @Qualifier("deleteStep") Step deleteStep) {
+          @Qualifier("deleteStep") Step deleteStep,
+          ThrottleRegistry throttleRegistry) {
     super(documentDeletingPropertyMap.getSolrDataDeleting(), scheduler, jobs, jobRegistryBeanPostProcessor);
     this.steps = steps;
     this.deleteStep = deleteStep;
+    this.throttleRegistry = throttleRegistry;
   }
 
   @Override
@@ -63,16 +71,31 @@ public class DocumentDeletingConfiguration extends AbstractJobsConfiguration<Del
 
   @Bean
   @JobScope
-  public Step deleteStep(DocumentWiperTasklet tasklet) {
+  public Step deleteStep(DocumentWiperTasklet tasklet,
+                         @Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") DeletingProperties parameters,
+                         @Value("#{jobExecution.id}") Long jobExecutionId) {
+    // Registered for changing the rate through the REST API
+    throttleRegistry.register(jobExecutionId, parameters.throttle());
     return steps.get("delete")
             .tasklet(tasklet)
+            .listener(new StepExecutionListenerSupport() {
+              @Override
+              public ExitStatus afterStep(StepExecution stepExecution) {
+                throttleRegistry.remove(jobExecutionId);
+                return null;
+              }
+            })
             .build();
   }
 
   @Bean
   @StepScope
   public DocumentWiperTasklet documentWiperTasklet(
-          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") DeletingProperties parameters) {
-    return new DocumentWiperTasklet(parameters);
+          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") DeletingProperties parameters,
+          @Value("#{stepExecution.jobExecution.id}") Long jobExecutionId,
+          SolrClientRegistry solrClientRegistry) {
+    DocumentWiperTasklet documentWiperTasklet = new DocumentWiperTasklet(solrClientRegistry, parameters);
+    throttleRegistry.get(jobExecutionId).ifPresent(documentWiperTasklet::setThrottle);
+    return documentWiperTasklet;
   }
 }
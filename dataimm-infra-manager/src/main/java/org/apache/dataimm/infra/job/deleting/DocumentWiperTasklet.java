@@ -18,34 +18,169 @@
  */
 package org.apache.dataimm.infra.job.deleting;
 
+import static java.util.stream.Collectors.toList;
 import static org.apache.dataimm.infra.job.archive.SolrQueryBuilder.computeEnd;
 
-import org.apache.dataimm.infra.job.SolrDAOBase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.dataimm.infra.job.Throttle;
+import org.apache.dataimm.infra.job.archive.SolrDocumentDistribution;
+import org.apache.dataimm.infra.job.archive.TimeRangePartition;
+import org.apache.dataimm.infra.job.archive.TimeRangePlanner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.util.ClientUtils;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.lang.NonNull;
 
-public class DocumentWiperTasklet extends SolrDAOBase implements Tasklet {
+/**
+ * Deletes the documents having filterField in [start, end]. The interval is cut into chunks having about
+ * chunkDocumentCount documents or spanning chunkTimeSpan which are deleted threadCount chunks at a time, one group in
+ * every execution of the tasklet. The chunks and the number of completed chunks are stored in the step context:
+ * a restarted job continues with the first chunk which was not completed.
+ */
+public class DocumentWiperTasklet extends SolrDocumentDistribution implements Tasklet, StepExecutionListener {
+  private static final Logger logger = LogManager.getLogger(DocumentWiperTasklet.class);
+
+  public static final String CHUNKS = "delete-chunks";
+  public static final String COMPLETED_CHUNK_COUNT = "delete-completed-chunk-count";
+
   private final DeletingProperties parameters;
+  private Throttle throttle;
+  private ExecutorService executorService;
 
-  public DocumentWiperTasklet(DeletingProperties deletingProperties) {
-    super(deletingProperties.getZooKeeperConnectionString(), deletingProperties.getCollection());
+  public DocumentWiperTasklet(SolrClientRegistry solrClientRegistry, DeletingProperties deletingProperties) {
+    super(solrClientRegistry, deletingProperties.getZooKeeperConnectionString(), deletingProperties.getCollection());
     parameters = deletingProperties;
+    setCommitWithin(deletingProperties.getCommitWithin());
+  }
+
+  /**
+   * @param throttle limits the deleted documents per second and receives the time of the delete requests
+   */
+  public void setThrottle(Throttle throttle) {
+    this.throttle = throttle;
   }
 
   @Override
-  public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) {
-    delete(String.format("%s:[%s TO %s]",
-            parameters.getFilterField(),
-            getValue(parameters.getStart()),
-            getValue(computeEnd(parameters.getEnd(), parameters.getTtl()))));
-    return RepeatStatus.FINISHED;
+  public void beforeStep(@NonNull StepExecution stepExecution) {
+  }
+
+  @Override
+  public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+    if (executorService != null)
+      executorService.shutdownNow();
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws Exception {
+    ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+    List<TimeRangePartition> chunks = (List<TimeRangePartition>) executionContext.get(CHUNKS);
+    if (chunks == null) {
+      chunks = new ArrayList<>(plan());
+      executionContext.put(CHUNKS, chunks);
+    }
+
+    int completed = executionContext.getInt(COMPLETED_CHUNK_COUNT, 0);
+    List<TimeRangePartition> group = chunks.subList(completed, Math.min(chunks.size(), completed + parameters.getThreadCount()));
+    if (throttle != null)
+      throttle.acquire((int) Math.min(Integer.MAX_VALUE, group.stream().mapToLong(TimeRangePartition::getDocumentCount).sum()), 0);
+    deleteChunks(group);
+
+    int commitChunkCount = parameters.getCommitChunkCount();
+    boolean last = completed + group.size() == chunks.size();
+    if (getCommitWithin() == null && (last || completed / commitChunkCount != (completed + group.size()) / commitChunkCount))
+      commit();
+
+    completed += group.size();
+    executionContext.putInt(COMPLETED_CHUNK_COUNT, completed);
+    logger.info("Deleted {} of {} chunks", completed, chunks.size());
+    return last ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+  }
+
+  private List<TimeRangePartition> plan() {
+    String start = parameters.getStart();
+    String end = computeEnd(parameters.getEnd(), parameters.getTtl());
+    if (parameters.getChunkTimeSpan() != null)
+      return new TimeRangePlanner(this, parameters.getFilterField(), 1).split(start, end, parameters.getChunkTimeSpan());
+
+    int chunkCount = 1;
+    if (parameters.getChunkDocumentCount() > 0) {
+      long documentCount = count(start, end);
+      chunkCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (documentCount + parameters.getChunkDocumentCount() - 1) / parameters.getChunkDocumentCount()));
+    }
+    return new TimeRangePlanner(this, parameters.getFilterField(), chunkCount).plan(start, end);
+  }
+
+  private void deleteChunks(List<TimeRangePartition> group) throws InterruptedException {
+    if (group.size() == 1) {
+      deleteChunk(group.get(0));
+      return;
+    }
+
+    if (executorService == null)
+      executorService = Executors.newFixedThreadPool(parameters.getThreadCount());
+    List<Future<?>> futures = group.stream()
+            .map(chunk -> executorService.submit(() -> deleteChunk(chunk)))
+            .collect(toList());
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException)
+          throw (RuntimeException) e.getCause();
+        throw new RuntimeException(e.getCause());
+      }
+    }
+  }
+
+  private void deleteChunk(TimeRangePartition chunk) {
+    long startNanos = System.nanoTime();
+    try {
+      delete(rangeQuery(chunk.getStart(), chunk.getEnd()), false);
+    } catch (RuntimeException e) {
+      if (throttle != null)
+        throttle.recordQuery(0, true);
+      throw e;
+    }
+    if (throttle != null)
+      throttle.recordQuery(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), false);
+  }
+
+  private String rangeQuery(String start, String end) {
+    return String.format("%s:[%s TO %s]", parameters.getFilterField(), getValue(start), getValue(end));
   }
 
   private String getValue(String value) {
-    return "*".equals(value) ? value : ClientUtils.escapeQueryChars(value);
+    return value == null || "*".equals(value) ? "*" : ClientUtils.escapeQueryChars(value);
+  }
+
+  private long count(String start, String end) {
+    SolrQuery query = intervalQuery(start, end);
+    query.setRows(0);
+    logger.info("Executing solr query {}", query.toLocalParamsString());
+    return execute(query).getResults().getNumFound();
+  }
+
+  @Override
+  protected SolrQuery intervalQuery(String start, String end) {
+    return new SolrQuery(rangeQuery(start, end));
   }
 }
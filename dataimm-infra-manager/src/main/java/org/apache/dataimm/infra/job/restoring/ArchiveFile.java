@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.dataimm.infra.job.archive.ArchiveFormat;
+import org.apache.dataimm.infra.job.archive.ArchiveManifest;
+import org.apache.dataimm.infra.job.archive.ArchiveManifestWriter;
+import org.apache.dataimm.infra.job.archive.CompressionCodec;
+import org.apache.dataimm.infra.job.archive.JavabinDocumentReader;
+
+/**
+ * Archive file of the source recognized by its extension.
+ */
+public class ArchiveFile {
+  private final String fileName;
+  private final ArchiveFormat format;
+  private final CompressionCodec compression;
+
+  public ArchiveFile(String fileName, ArchiveFormat format, CompressionCodec compression) {
+    this.fileName = fileName;
+    this.format = format;
+    this.compression = compression;
+  }
+
+  /**
+   * Returns the archive file of the name or empty if the extension is not one written by the archiving job.
+   */
+  public static Optional<ArchiveFile> of(String fileName) {
+    CompressionCodec compression = CompressionCodec.ofFileName(fileName);
+    String name = fileName.substring(0, fileName.length() - compression.getExtension().length());
+    for (ArchiveFormat format : ArchiveFormat.values()) {
+      if (!name.endsWith(format.getExtension()))
+        continue;
+      if (format == ArchiveFormat.PARQUET && compression != CompressionCodec.NONE)
+        return Optional.empty();
+      return Optional.of(new ArchiveFile(fileName, format, compression));
+    }
+    return Optional.empty();
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public ArchiveFormat getFormat() {
+    return format;
+  }
+
+  public CompressionCodec getCompression() {
+    return compression;
+  }
+
+  public String getManifestFileName() {
+    return fileName + ArchiveManifestWriter.EXTENSION;
+  }
+
+  public ArchivedDocumentReader open(ArchiveSource source) throws IOException {
+    switch (format) {
+      case PARQUET:
+        return new ParquetArchivedDocumentReader(source.inputFile(fileName));
+      case JAVABIN:
+        return new JavabinArchivedDocumentReader(new JavabinDocumentReader(decompress(source, 0, -1)));
+      default:
+        return new JsonArchivedDocumentReader(decompress(source, 0, -1));
+    }
+  }
+
+  /**
+   * Opens an independently compressed block listed in the manifest of the file. Javabin blocks except the first one
+   * do not start with the file header so the sync marker of the file has to be provided.
+   */
+  public ArchivedDocumentReader openBlock(ArchiveSource source, ArchiveManifest.Block block, byte[] sync) throws IOException {
+    InputStream inputStream = decompress(source, block.getOffset(), block.getLength());
+    switch (format) {
+      case JAVABIN:
+        return new JavabinArchivedDocumentReader(block.getOffset() == 0 ?
+                new JavabinDocumentReader(inputStream) : new JavabinDocumentReader(inputStream, sync));
+      case JSON:
+        return new JsonArchivedDocumentReader(inputStream);
+      default:
+        IOUtils.closeQuietly(inputStream);
+        throw new UnsupportedOperationException(String.format("Blocks of %s archives can not be read separately!", format));
+    }
+  }
+
+  /**
+   * Reads the sync marker from the header of a javabin archive.
+   */
+  public byte[] readSync(ArchiveSource source, ArchiveManifest.Block firstBlock) throws IOException {
+    try (JavabinDocumentReader reader = new JavabinDocumentReader(decompress(source, 0, firstBlock.getLength()))) {
+      return reader.getSync();
+    }
+  }
+
+  private InputStream decompress(ArchiveSource source, long offset, long length) throws IOException {
+    InputStream inputStream = new BufferedInputStream(source.open(fileName, offset, length), 64 * 1024);
+    try {
+      return compression.decompress(inputStream);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(inputStream);
+      throw e;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return fileName;
+  }
+}
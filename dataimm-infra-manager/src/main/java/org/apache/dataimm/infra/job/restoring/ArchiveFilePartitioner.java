@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Creates one partition for each archive file of the source. Partitions are named after the files so a restarted
+ * job skips the files already restored and retries only the failed ones.
+ */
+public class ArchiveFilePartitioner implements Partitioner {
+  private static final Logger logger = LogManager.getLogger(ArchiveFilePartitioner.class);
+
+  public static final String ARCHIVE_FILE = "archiveFile";
+
+  private final ArchiveSource archiveSource;
+
+  public ArchiveFilePartitioner(ArchiveSource archiveSource) {
+    this.archiveSource = archiveSource;
+  }
+
+  @Override
+  public Map<String, ExecutionContext> partition(int gridSize) {
+    try {
+      Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+      for (String fileName : archiveSource.listFiles()) {
+        if (!ArchiveFile.of(fileName).isPresent())
+          continue;
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putString(ARCHIVE_FILE, fileName);
+        partitions.put(fileName, executionContext);
+      }
+      logger.info("Found {} archive files to restore in {}", partitions.size(), archiveSource);
+      return partitions;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.parquet.io.InputFile;
+
+/**
+ * Directory tree of archive files to restore. Files are identified by their path relative to the root directory.
+ */
+public interface ArchiveSource {
+  /**
+   * Returns the relative paths of every file in the directory tree in lexicographical order.
+   */
+  List<String> listFiles() throws IOException;
+
+  boolean exists(String fileName) throws IOException;
+
+  /**
+   * Opens a stream reading length bytes of the file from offset or every byte after offset if length is negative.
+   */
+  InputStream open(String fileName, long offset, long length) throws IOException;
+
+  InputFile inputFile(String fileName) throws IOException;
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import static org.apache.solr.common.params.CommonParams.VERSION_FIELD;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import org.apache.dataimm.infra.job.archive.ArchiveFormat;
+import org.apache.dataimm.infra.job.archive.ArchiveManifest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrInputDocument;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.lang.NonNull;
+
+/**
+ * Sends the documents of one archive file to solr in batches. When the time range is bounded and the file has a
+ * manifest only the blocks overlapping the range are read. The archived version of the documents is dropped so solr
+ * assigns a new one instead of rejecting them as version conflicts. The step completes when every batch was acknowledged.
+ */
+public class DocumentRestorer implements Tasklet {
+  private static final Logger logger = LogManager.getLogger(DocumentRestorer.class);
+
+  private final ArchiveSource archiveSource;
+  private final ArchiveFile archiveFile;
+  private final SolrDocumentIndexer documentIndexer;
+  private final TimeRange timeRange;
+  private final int batchSize;
+  private final List<CompletableFuture<Void>> pendingBatches = new ArrayList<>();
+
+  public DocumentRestorer(ArchiveSource archiveSource, ArchiveFile archiveFile, SolrDocumentIndexer documentIndexer, TimeRange timeRange, int batchSize) {
+    this.archiveSource = archiveSource;
+    this.archiveFile = archiveFile;
+    this.documentIndexer = documentIndexer;
+    this.timeRange = timeRange;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws Exception {
+    logger.info("Restoring archive file {} from {}", archiveFile, archiveSource);
+    ArchiveManifest manifest = readManifest();
+    if (manifest == null) {
+      restore(archiveFile.open(archiveSource), contribution);
+    }
+    else {
+      List<ArchiveManifest.Block> blocks = manifest.getBlocks().stream()
+              .filter(block -> timeRange.overlaps(block.getMin(), block.getMax()))
+              .collect(Collectors.toList());
+      logger.info("{} of {} blocks of {} overlap {}", blocks.size(), manifest.getBlocks().size(), archiveFile, timeRange);
+      byte[] sync = null;
+      for (ArchiveManifest.Block block : blocks) {
+        if (sync == null && archiveFile.getFormat() == ArchiveFormat.JAVABIN && block.getOffset() > 0)
+          sync = archiveFile.readSync(archiveSource, manifest.getBlocks().get(0));
+        restore(archiveFile.openBlock(archiveSource, block, sync), contribution);
+      }
+    }
+
+    for (CompletableFuture<Void> pendingBatch : pendingBatches)
+      await(pendingBatch);
+    pendingBatches.clear();
+    logger.info("Restored {} documents of archive file {}", contribution.getWriteCount(), archiveFile);
+    return RepeatStatus.FINISHED;
+  }
+
+  private ArchiveManifest readManifest() throws IOException {
+    if (timeRange.isUnbounded() || archiveFile.getFormat() == ArchiveFormat.PARQUET)
+      return null;
+    if (!archiveSource.exists(archiveFile.getManifestFileName()))
+      return null;
+    try {
+      return ArchiveManifest.read(archiveSource.open(archiveFile.getManifestFileName(), 0, -1));
+    } catch (IOException e) {
+      logger.warn("Unable to read manifest of " + archiveFile + ", the whole file is restored.", e);
+      return null;
+    }
+  }
+
+  private void restore(ArchivedDocumentReader reader, StepContribution contribution) throws Exception {
+    List<SolrInputDocument> batch = new ArrayList<>(batchSize);
+    int filteredCount = 0;
+    try (ArchivedDocumentReader documentReader = reader) {
+      SolrInputDocument document;
+      while ((document = documentReader.read()) != null) {
+        contribution.incrementReadCount();
+        if (!timeRange.contains(document.getFieldValues(timeRange.getField()))) {
+          ++filteredCount;
+          continue;
+        }
+        document.removeField(VERSION_FIELD);
+        batch.add(document);
+        if (batch.size() >= batchSize) {
+          send(batch, contribution);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+    }
+    send(batch, contribution);
+    contribution.incrementFilterCount(filteredCount);
+  }
+
+  private void send(List<SolrInputDocument> batch, StepContribution contribution) throws Exception {
+    if (batch.isEmpty())
+      return;
+
+    Iterator<CompletableFuture<Void>> iterator = pendingBatches.iterator();
+    while (iterator.hasNext()) {
+      CompletableFuture<Void> pendingBatch = iterator.next();
+      if (!pendingBatch.isDone())
+        continue;
+      await(pendingBatch);
+      iterator.remove();
+    }
+
+    pendingBatches.add(documentIndexer.add(batch));
+    contribution.incrementWriteCount(batch.size());
+  }
+
+  private void await(CompletableFuture<Void> pendingBatch) throws Exception {
+    try {
+      pendingBatch.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception)
+        throw (Exception) e.getCause();
+      throw e;
+    }
+  }
+}
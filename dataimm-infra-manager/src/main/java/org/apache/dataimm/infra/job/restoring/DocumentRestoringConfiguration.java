@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import static org.apache.dataimm.infra.job.JobsPropertyMap.PARAMETERS_CONTEXT_KEY;
+
+import java.io.File;
+
+import javax.inject.Inject;
+
+import org.apache.dataimm.infra.job.AbstractJobsConfiguration;
+import org.apache.dataimm.infra.job.JobScheduler;
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.dataimm.infra.job.archive.HdfsFileSystemFactory;
+import org.apache.dataimm.infra.job.archive.HdfsFileSystemRegistry;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@Configuration
+public class DocumentRestoringConfiguration extends AbstractJobsConfiguration<RestoringProperties, RestoringProperties> {
+
+  private final StepBuilderFactory steps;
+  private final Step restoreStep;
+  private final Step restoreCommitStep;
+
+  @Inject
+  public DocumentRestoringConfiguration(
+          DocumentRestoringPropertyMap documentRestoringPropertyMap,
+          JobScheduler scheduler,
+          StepBuilderFactory steps,
+          JobBuilderFactory jobs,
+          JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor,
+          @Qualifier("restoreStep") Step restoreStep,
+          @Qualifier("restoreCommitStep") Step restoreCommitStep) {
+    super(documentRestoringPropertyMap.getSolrDataRestoring(), scheduler, jobs, jobRegistryBeanPostProcessor);
+    this.steps = steps;
+    this.restoreStep = restoreStep;
+    this.restoreCommitStep = restoreCommitStep;
+  }
+
+  @Override
+  protected Job buildJob(JobBuilder jobBuilder) {
+    return jobBuilder.start(restoreStep).next(restoreCommitStep).build();
+  }
+
+  @Bean
+  @JobScope
+  public Step restoreStep(@Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") RestoringProperties parameters,
+                          SolrClientRegistry solrClientRegistry,
+                          HdfsFileSystemRegistry hdfsFileSystemRegistry) {
+    // The partitions run in the threads of the task executor where job scoped beans can not be resolved:
+    // the source and the indexer shared by the partitions are created here
+    ArchiveSource archiveSource = archiveSource(parameters, hdfsFileSystemRegistry);
+    SolrDocumentIndexer documentIndexer = new SolrDocumentIndexer(solrClientRegistry, parameters);
+    TimeRange timeRange = parameters.timeRange();
+    Tasklet restorePartition = (contribution, chunkContext) -> {
+      String fileName = chunkContext.getStepContext().getStepExecution().getExecutionContext().getString(ArchiveFilePartitioner.ARCHIVE_FILE);
+      ArchiveFile archiveFile = ArchiveFile.of(fileName)
+              .orElseThrow(() -> new IllegalStateException(String.format("File %s is not an archive!", fileName)));
+      return new DocumentRestorer(archiveSource, archiveFile, documentIndexer, timeRange, parameters.getUpdateBatchSize())
+              .execute(contribution, chunkContext);
+    };
+
+    SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("restore-partition-");
+    taskExecutor.setConcurrencyLimit(parameters.getFileThreadCount());
+    return steps.get("restore")
+            .partitioner("restorePartition", new ArchiveFilePartitioner(archiveSource))
+            .step(steps.get("restorePartition").tasklet(restorePartition).build())
+            .taskExecutor(taskExecutor)
+            .gridSize(parameters.getFileThreadCount())
+            .listener(new StepExecutionListenerSupport() {
+              @Override
+              public ExitStatus afterStep(StepExecution stepExecution) {
+                documentIndexer.close();
+                return null;
+              }
+            })
+            .build();
+  }
+
+  private ArchiveSource archiveSource(RestoringProperties parameters, HdfsFileSystemRegistry hdfsFileSystemRegistry) {
+    switch (parameters.getSource()) {
+      case HDFS:
+        return new HdfsArchiveSource(new HdfsFileSystemFactory(hdfsFileSystemRegistry, parameters.hdfsProperties()));
+      default:
+        return new LocalArchiveSource(new File(parameters.getLocalSourceDirectory()));
+    }
+  }
+
+  @Bean
+  @JobScope
+  public Step restoreCommitStep(CommitTasklet commitTasklet) {
+    return steps.get("restoreCommit")
+            .tasklet(commitTasklet)
+            .build();
+  }
+
+  @Bean
+  @StepScope
+  public CommitTasklet commitTasklet(
+          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") RestoringProperties parameters,
+          SolrClientRegistry solrClientRegistry) {
+    return new CommitTasklet(solrClientRegistry, parameters);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.dataimm.infra.job.archive.HdfsFileSystemFactory;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.InputFile;
+
+public class HdfsArchiveSource implements ArchiveSource {
+  private final HdfsFileSystemFactory fileSystemFactory;
+  private final Path rootDirectory;
+
+  public HdfsArchiveSource(HdfsFileSystemFactory fileSystemFactory) {
+    this.fileSystemFactory = fileSystemFactory;
+    this.rootDirectory = new Path(fileSystemFactory.getProperties().getHdfsDestinationDirectory());
+  }
+
+  @Override
+  public List<String> listFiles() throws IOException {
+    FileSystem fileSystem = fileSystemFactory.get();
+    URI root = fileSystem.makeQualified(rootDirectory).toUri();
+    List<String> fileNames = new ArrayList<>();
+    RemoteIterator<LocatedFileStatus> files = fileSystem.listFiles(rootDirectory, true);
+    while (files.hasNext()) {
+      LocatedFileStatus file = files.next();
+      fileNames.add(root.relativize(file.getPath().toUri()).getPath());
+    }
+    Collections.sort(fileNames);
+    return fileNames;
+  }
+
+  @Override
+  public boolean exists(String fileName) throws IOException {
+    return fileSystemFactory.get().exists(new Path(rootDirectory, fileName));
+  }
+
+  @Override
+  public InputStream open(String fileName, long offset, long length) throws IOException {
+    FSDataInputStream inputStream = fileSystemFactory.get().open(new Path(rootDirectory, fileName));
+    try {
+      inputStream.seek(offset);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(inputStream);
+      throw e;
+    }
+    return length < 0 ? inputStream : new BoundedInputStream(inputStream, length);
+  }
+
+  @Override
+  public InputFile inputFile(String fileName) throws IOException {
+    FileSystem fileSystem = fileSystemFactory.get();
+    return HadoopInputFile.fromPath(new Path(rootDirectory, fileName), fileSystem.getConf());
+  }
+
+  @Override
+  public String toString() {
+    return rootDirectory.toString();
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.dataimm.infra.job.archive.JavabinDocumentReader;
+import org.apache.solr.common.SolrInputDocument;
+
+/**
+ * Reads the documents of javabin archives block by block.
+ */
+public class JavabinArchivedDocumentReader implements ArchivedDocumentReader {
+  private final JavabinDocumentReader reader;
+  private Iterator<SolrInputDocument> block = null;
+
+  public JavabinArchivedDocumentReader(JavabinDocumentReader reader) {
+    this.reader = reader;
+  }
+
+  @Override
+  public SolrInputDocument read() throws IOException {
+    while (block == null || !block.hasNext()) {
+      List<SolrInputDocument> documents = reader.readBlock();
+      if (documents == null)
+        return null;
+      block = documents.iterator();
+    }
+    return block.next();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
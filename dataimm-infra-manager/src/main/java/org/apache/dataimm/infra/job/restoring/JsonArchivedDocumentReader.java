@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.apache.solr.common.SolrInputDocument;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the documents of json lines archives.
+ */
+public class JsonArchivedDocumentReader implements ArchivedDocumentReader {
+  private static final ObjectMapper json = new ObjectMapper();
+
+  private final InputStream inputStream;
+  private final MappingIterator<Map<String, Object>> documents;
+
+  public JsonArchivedDocumentReader(InputStream inputStream) throws IOException {
+    this.inputStream = inputStream;
+    this.documents = json.readerFor(Map.class).readValues(inputStream);
+  }
+
+  @Override
+  public SolrInputDocument read() throws IOException {
+    if (!documents.hasNextValue())
+      return null;
+
+    SolrInputDocument document = new SolrInputDocument();
+    for (Map.Entry<String, Object> field : documents.nextValue().entrySet())
+      document.setField(field.getKey(), field.getValue());
+    return document;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      documents.close();
+    }
+    finally {
+      inputStream.close();
+    }
+  }
+}
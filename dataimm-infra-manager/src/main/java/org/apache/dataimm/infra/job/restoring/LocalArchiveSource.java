@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.InputFile;
+
+public class LocalArchiveSource implements ArchiveSource {
+  private final File rootDirectory;
+
+  public LocalArchiveSource(File rootDirectory) {
+    this.rootDirectory = rootDirectory;
+  }
+
+  @Override
+  public List<String> listFiles() throws IOException {
+    Path root = rootDirectory.toPath();
+    try (Stream<Path> paths = Files.walk(root)) {
+      return paths
+              .filter(Files::isRegularFile)
+              .map(path -> root.relativize(path).toString())
+              .sorted()
+              .collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  @Override
+  public boolean exists(String fileName) {
+    return new File(rootDirectory, fileName).isFile();
+  }
+
+  @Override
+  public InputStream open(String fileName, long offset, long length) throws IOException {
+    FileInputStream inputStream = new FileInputStream(new File(rootDirectory, fileName));
+    try {
+      inputStream.getChannel().position(offset);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(inputStream);
+      throw e;
+    }
+    return length < 0 ? inputStream : new BoundedInputStream(inputStream, length);
+  }
+
+  @Override
+  public InputFile inputFile(String fileName) throws IOException {
+    return HadoopInputFile.fromPath(
+            new org.apache.hadoop.fs.Path(new File(rootDirectory, fileName).toURI()), new Configuration());
+  }
+
+  @Override
+  public String toString() {
+    return rootDirectory.getAbsolutePath();
+  }
+}
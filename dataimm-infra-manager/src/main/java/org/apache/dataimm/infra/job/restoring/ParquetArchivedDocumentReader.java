@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import static org.apache.dataimm.infra.job.archive.ParquetDocumentWriteSupport.OTHER_FIELDS;
+import static org.apache.dataimm.infra.job.archive.SolrDocumentIterator.SOLR_DATE_FORMAT_TEXT;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.solr.common.SolrInputDocument;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the documents of parquet archives. Timestamp columns are formatted back to solr date text
+ * and repeated columns become multi valued fields. The json values of the fields which did not fit into the columns
+ * are parsed back from the {@link org.apache.dataimm.infra.job.archive.ParquetDocumentWriteSupport#OTHER_FIELDS} map.
+ */
+public class ParquetArchivedDocumentReader implements ArchivedDocumentReader {
+  private static final DateTimeFormatter SOLR_DATE_FORMATTER = DateTimeFormatter.ofPattern(SOLR_DATE_FORMAT_TEXT).withZone(ZoneOffset.UTC);
+  private static final ObjectMapper json = new ObjectMapper();
+
+  private final ParquetReader<Group> reader;
+
+  public ParquetArchivedDocumentReader(InputFile inputFile) throws IOException {
+    this.reader = new Builder(inputFile).build();
+  }
+
+  @Override
+  public SolrInputDocument read() throws IOException {
+    Group group = reader.read();
+    if (group == null)
+      return null;
+
+    SolrInputDocument document = new SolrInputDocument();
+    GroupType type = group.getType();
+    for (int field = 0; field < type.getFieldCount(); ++field) {
+      int count = group.getFieldRepetitionCount(field);
+      if (count == 0)
+        continue;
+      String name = type.getFieldName(field);
+      if (!type.getType(field).isPrimitive()) {
+        if (OTHER_FIELDS.equals(name))
+          readOtherFields(group.getGroup(field, 0), document);
+        continue;
+      }
+      PrimitiveType column = type.getType(field).asPrimitiveType();
+      if (column.isRepetition(Type.Repetition.REPEATED)) {
+        for (int index = 0; index < count; ++index)
+          document.addField(name, getValue(group, column, field, index));
+      }
+      else {
+        document.setField(name, getValue(group, column, field, 0));
+      }
+    }
+    return document;
+  }
+
+  private void readOtherFields(Group otherFields, SolrInputDocument document) throws IOException {
+    for (int index = 0; index < otherFields.getFieldRepetitionCount(0); ++index) {
+      Group keyValue = otherFields.getGroup(0, index);
+      Object value = json.readValue(keyValue.getString(1, 0), Object.class);
+      if (value instanceof Collection) {
+        for (Object element : (Collection<?>) value)
+          document.addField(keyValue.getString(0, 0), element);
+      }
+      else {
+        document.setField(keyValue.getString(0, 0), value);
+      }
+    }
+  }
+
+  private Object getValue(Group group, PrimitiveType column, int field, int index) {
+    switch (column.getPrimitiveTypeName()) {
+      case BOOLEAN:
+        return group.getBoolean(field, index);
+      case INT32:
+        return group.getInteger(field, index);
+      case INT64:
+        if (column.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation)
+          return SOLR_DATE_FORMATTER.format(Instant.ofEpochMilli(group.getLong(field, index)));
+        return group.getLong(field, index);
+      case FLOAT:
+        return group.getFloat(field, index);
+      case DOUBLE:
+        return group.getDouble(field, index);
+      default:
+        return group.getString(field, index);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private static class Builder extends ParquetReader.Builder<Group> {
+    private Builder(InputFile inputFile) {
+      super(inputFile);
+    }
+
+    @Override
+    protected ReadSupport<Group> getReadSupport() {
+      return new GroupReadSupport();
+    }
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.dataimm.infra.json.StringToDurationConverter.toDuration;
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.time.Duration;
+
+import org.apache.dataimm.infra.job.JobProperties;
+import org.apache.dataimm.infra.job.Validatable;
+import org.apache.dataimm.infra.job.archive.ExportDestination;
+import org.apache.dataimm.infra.job.archive.HdfsProperties;
+import org.apache.dataimm.infra.json.DurationToStringConverter;
+import org.apache.dataimm.infra.json.StringToDurationConverter;
+import org.springframework.batch.core.JobParameters;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+public class RestoringProperties extends JobProperties<RestoringProperties> implements Validatable {
+  private String zooKeeperConnectionString;
+  private String collection;
+  private ExportDestination source = ExportDestination.LOCAL;
+  private String localSourceDirectory;
+  private String hdfsEndpoint;
+  private String hdfsSourceDirectory;
+  private String hdfsKerberosPrincipal;
+  private String hdfsKerberosKeytabPath;
+  private String filterField;
+  private String start;
+  private String end;
+  private int updateBatchSize = 1000;
+  private int maxInFlightRequests = 4;
+  private int fileThreadCount = 4;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration commitWithin;
+
+  public String getZooKeeperConnectionString() {
+    return zooKeeperConnectionString;
+  }
+
+  public void setZooKeeperConnectionString(String zooKeeperConnectionString) {
+    this.zooKeeperConnectionString = zooKeeperConnectionString;
+  }
+
+  public String getCollection() {
+    return collection;
+  }
+
+  public void setCollection(String collection) {
+    this.collection = collection;
+  }
+
+  public ExportDestination getSource() {
+    return source;
+  }
+
+  public void setSource(ExportDestination source) {
+    this.source = source;
+  }
+
+  public String getLocalSourceDirectory() {
+    return localSourceDirectory;
+  }
+
+  public void setLocalSourceDirectory(String localSourceDirectory) {
+    this.localSourceDirectory = localSourceDirectory;
+  }
+
+  public String getHdfsEndpoint() {
+    return hdfsEndpoint;
+  }
+
+  public void setHdfsEndpoint(String hdfsEndpoint) {
+    this.hdfsEndpoint = hdfsEndpoint;
+  }
+
+  public String getHdfsSourceDirectory() {
+    return hdfsSourceDirectory;
+  }
+
+  public void setHdfsSourceDirectory(String hdfsSourceDirectory) {
+    this.hdfsSourceDirectory = hdfsSourceDirectory;
+  }
+
+  public String getHdfsKerberosPrincipal() {
+    return hdfsKerberosPrincipal;
+  }
+
+  public void setHdfsKerberosPrincipal(String hdfsKerberosPrincipal) {
+    this.hdfsKerberosPrincipal = hdfsKerberosPrincipal;
+  }
+
+  public String getHdfsKerberosKeytabPath() {
+    return hdfsKerberosKeytabPath;
+  }
+
+  public void setHdfsKerberosKeytabPath(String hdfsKerberosKeytabPath) {
+    this.hdfsKerberosKeytabPath = hdfsKerberosKeytabPath;
+  }
+
+  public HdfsProperties hdfsProperties() {
+    return new HdfsProperties(hdfsEndpoint, hdfsSourceDirectory, null, hdfsKerberosPrincipal, hdfsKerberosKeytabPath);
+  }
+
+  public String getFilterField() {
+    return filterField;
+  }
+
+  public void setFilterField(String filterField) {
+    this.filterField = filterField;
+  }
+
+  public String getStart() {
+    return start;
+  }
+
+  public void setStart(String start) {
+    this.start = start;
+  }
+
+  public String getEnd() {
+    return end;
+  }
+
+  public void setEnd(String end) {
+    this.end = end;
+  }
+
+  public TimeRange timeRange() {
+    return new TimeRange(filterField, start, end);
+  }
+
+  public int getUpdateBatchSize() {
+    return updateBatchSize;
+  }
+
+  public void setUpdateBatchSize(int updateBatchSize) {
+    this.updateBatchSize = updateBatchSize;
+  }
+
+  public int getMaxInFlightRequests() {
+    return maxInFlightRequests;
+  }
+
+  public void setMaxInFlightRequests(int maxInFlightRequests) {
+    this.maxInFlightRequests = maxInFlightRequests;
+  }
+
+  public int getFileThreadCount() {
+    return fileThreadCount;
+  }
+
+  public void setFileThreadCount(int fileThreadCount) {
+    this.fileThreadCount = fileThreadCount;
+  }
+
+  public Duration getCommitWithin() {
+    return commitWithin;
+  }
+
+  public void setCommitWithin(Duration commitWithin) {
+    this.commitWithin = commitWithin;
+  }
+
+  @Override
+  public void validate() {
+    if (isBlank(zooKeeperConnectionString))
+      throw new IllegalArgumentException("The property zooKeeperConnectionString can not be null or empty string!");
+
+    if (isBlank(collection))
+      throw new IllegalArgumentException("The property collection can not be null or empty string!");
+
+    requireNonNull(source, "The property source can not be null!");
+    switch (source) {
+      case LOCAL:
+        if (isBlank(localSourceDirectory))
+          throw new IllegalArgumentException(String.format(
+                  "The property localSourceDirectory can not be null or empty string when source is set to %s!", ExportDestination.LOCAL.name()));
+        break;
+      case HDFS:
+        if (isBlank(hdfsSourceDirectory))
+          throw new IllegalArgumentException(String.format(
+                  "The property hdfsSourceDirectory can not be null or empty string when source is set to %s!", ExportDestination.HDFS.name()));
+        hdfsProperties().validate();
+        break;
+    }
+
+    if (isBlank(filterField) && !(TimeRange.isUnbounded(start) && TimeRange.isUnbounded(end)))
+      throw new IllegalArgumentException("The property filterField can not be null or empty string when start or end is specified!");
+
+    if (updateBatchSize <= 0)
+      throw new IllegalArgumentException("The property updateBatchSize must be greater than 0!");
+    if (maxInFlightRequests <= 0)
+      throw new IllegalArgumentException("The property maxInFlightRequests must be greater than 0!");
+    if (fileThreadCount <= 0)
+      throw new IllegalArgumentException("The property fileThreadCount must be greater than 0!");
+  }
+
+  @Override
+  public RestoringProperties merge(JobParameters jobParameters) {
+    RestoringProperties restoringProperties = new RestoringProperties();
+    restoringProperties.setZooKeeperConnectionString(jobParameters.getString("zooKeeperConnectionString", zooKeeperConnectionString));
+    restoringProperties.setCollection(jobParameters.getString("collection", collection));
+    restoringProperties.setSource(ExportDestination.valueOf(jobParameters.getString("source", source.name())));
+    restoringProperties.setLocalSourceDirectory(jobParameters.getString("localSourceDirectory", localSourceDirectory));
+    restoringProperties.setHdfsEndpoint(jobParameters.getString("hdfsEndpoint", hdfsEndpoint));
+    restoringProperties.setHdfsSourceDirectory(jobParameters.getString("hdfsSourceDirectory", hdfsSourceDirectory));
+    restoringProperties.setHdfsKerberosPrincipal(jobParameters.getString("hdfsKerberosPrincipal", hdfsKerberosPrincipal));
+    restoringProperties.setHdfsKerberosKeytabPath(jobParameters.getString("hdfsKerberosKeytabPath", hdfsKerberosKeytabPath));
+    restoringProperties.setFilterField(jobParameters.getString("filterField", filterField));
+    restoringProperties.setStart(jobParameters.getString("start", "*"));
+    restoringProperties.setEnd(jobParameters.getString("end", "*"));
+    restoringProperties.setUpdateBatchSize(getIntJobParameter(jobParameters, "updateBatchSize", updateBatchSize));
+    restoringProperties.setMaxInFlightRequests(getIntJobParameter(jobParameters, "maxInFlightRequests", maxInFlightRequests));
+    restoringProperties.setFileThreadCount(getIntJobParameter(jobParameters, "fileThreadCount", fileThreadCount));
+    restoringProperties.setCommitWithin(toDuration(jobParameters.getString("commitWithin", DurationToStringConverter.toString(commitWithin))));
+    return restoringProperties;
+  }
+
+  private int getIntJobParameter(JobParameters jobParameters, String parameterName, int defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Integer.parseInt(valueText);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.dataimm.infra.job.SolrDAOBase;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Sends batches of documents to the collection in the background. CloudSolrClient splits every update request by
+ * the shard leaders of its documents and sends the parts in parallel. The number of batches being sent at once is
+ * limited for the whole job: adding a batch blocks while the limit is reached.
+ */
+public class SolrDocumentIndexer extends SolrDAOBase implements AutoCloseable {
+  private final Semaphore inFlightRequests;
+  private final ExecutorService executorService;
+
+  public SolrDocumentIndexer(SolrClientRegistry solrClientRegistry, RestoringProperties properties) {
+    super(solrClientRegistry, properties.getZooKeeperConnectionString(), properties.getCollection());
+    setCommitWithin(properties.getCommitWithin());
+    this.inFlightRequests = new Semaphore(properties.getMaxInFlightRequests());
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("restore-update-");
+    threadFactory.setDaemon(true);
+    this.executorService = Executors.newFixedThreadPool(properties.getMaxInFlightRequests(), threadFactory);
+  }
+
+  /**
+   * Returns a future completed when solr acknowledged the documents.
+   */
+  public CompletableFuture<Void> add(List<SolrInputDocument> documents) throws InterruptedException {
+    inFlightRequests.acquire();
+    try {
+      return CompletableFuture.runAsync(() -> send(documents), executorService)
+              .whenComplete((result, throwable) -> inFlightRequests.release());
+    } catch (RejectedExecutionException e) {
+      inFlightRequests.release();
+      throw e;
+    }
+  }
+
+  private void send(List<SolrInputDocument> documents) {
+    UpdateRequest request = new UpdateRequest();
+    request.add(documents);
+    if (getCommitWithin() != null)
+      request.setCommitWithin((int) getCommitWithin().toMillis());
+    try (SolrClientRegistry.Lease lease = acquireClient()) {
+      request.process(lease.getClient(), getCollection());
+    } catch (SolrServerException e) {
+      throw new RuntimeException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+  }
+}
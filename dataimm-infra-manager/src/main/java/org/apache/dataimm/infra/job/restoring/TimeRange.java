@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import static org.apache.dataimm.infra.job.archive.SolrDocumentIterator.SOLR_DATE_FORMAT_TEXT;
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Half open [start, end) range of the filter field values of the restored documents. Dates are compared
+ * as text in the format used by the archives, numbers by their value. A missing or * bound is unbounded.
+ */
+public class TimeRange {
+  private static final DateTimeFormatter SOLR_DATE_FORMATTER = DateTimeFormatter.ofPattern(SOLR_DATE_FORMAT_TEXT).withZone(ZoneOffset.UTC);
+
+  private final String field;
+  private final String start;
+  private final String end;
+
+  public TimeRange(String field, String start, String end) {
+    this.field = field;
+    this.start = isUnbounded(start) ? null : normalize(start);
+    this.end = isUnbounded(end) ? null : normalize(end);
+  }
+
+  public static boolean isUnbounded(String value) {
+    return isBlank(value) || "*".equals(value);
+  }
+
+  private static String normalize(String value) {
+    try {
+      return SOLR_DATE_FORMATTER.format(Instant.parse(value));
+    }
+    catch (DateTimeParseException e) {
+      return value;
+    }
+  }
+
+  public boolean isUnbounded() {
+    return start == null && end == null;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  /**
+   * Returns true if the value of a document is in the range. Documents not having the field are not restored
+   * when the range is bounded. Multi valued fields are in the range when any of their values is.
+   */
+  public boolean contains(Object value) {
+    if (isUnbounded())
+      return true;
+    if (value instanceof Collection) {
+      for (Object element : (Collection<?>) value) {
+        if (contains(element))
+          return true;
+      }
+      return false;
+    }
+    if (value == null)
+      return false;
+    return (start == null || compare(value, start) >= 0) && (end == null || compare(value, end) < 0);
+  }
+
+  /**
+   * Returns true if a block having the given min and max values of the columns may contain documents in the range.
+   */
+  public boolean overlaps(Map<String, Object> min, Map<String, Object> max) {
+    if (isUnbounded())
+      return true;
+    Object minValue = min.get(field);
+    Object maxValue = max.get(field);
+    if (minValue == null || maxValue == null)
+      return true;
+    return (start == null || compare(maxValue, start) >= 0) && (end == null || compare(minValue, end) < 0);
+  }
+
+  static int compare(Object value, String bound) {
+    if (value instanceof Number) {
+      try {
+        return Double.compare(((Number) value).doubleValue(), Double.parseDouble(bound));
+      }
+      catch (NumberFormatException e) {
+        return value.toString().compareTo(bound);
+      }
+    }
+    return value.toString().compareTo(bound);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s:[%s TO %s}", field, start == null ? "*" : start, end == null ? "*" : end);
+  }
+}
@@ -32,6 +32,10 @@ import java.util.Set;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.dataimm.infra.job.Throttle;
+import org.apache.dataimm.infra.job.ThrottleRegistry;
+import org.apache.dataimm.infra.job.archive.TimeRangePartition;
+import org.apache.dataimm.infra.job.archive.TimeRangePartitioner;
 import org.apache.dataimm.infra.model.ExecutionContextResponse;
 import org.apache.dataimm.infra.model.JobExecutionDetailsResponse;
 import org.apache.dataimm.infra.model.JobExecutionInfoResponse;
@@ -40,6 +44,7 @@ import org.apache.dataimm.infra.model.JobOperationParams;
 import org.apache.dataimm.infra.model.StepExecutionContextResponse;
 import org.apache.dataimm.infra.model.StepExecutionInfoResponse;
 import org.apache.dataimm.infra.model.StepExecutionProgressResponse;
+import org.apache.dataimm.infra.model.ThrottleResponse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.batch.admin.history.StepExecutionHistory;
@@ -78,6 +83,9 @@ public class JobManager implements Jobs {
   @Inject
   private JobExplorer jobExplorer;
 
+  @Inject
+  private ThrottleRegistry throttleRegistry;
+
   public Set<String> getAllJobNames() {
     return jobOperator.getJobNames();
   }
@@ -285,8 +293,39 @@ public class JobManager implements Jobs {
     StepExecutionHistory stepExecutionHistory = computeHistory(jobName, stepName);
     StepExecutionProgress stepExecutionProgress = new StepExecutionProgress(stepExecution, stepExecutionHistory);
 
-    return new StepExecutionProgressResponse(stepExecutionProgress, stepExecutionHistory, stepExecutionInfoResponse);
+    @SuppressWarnings("unchecked")
+    List<TimeRangePartition> exportPlan = (List<TimeRangePartition>) stepExecution.getJobExecution().getExecutionContext().get(TimeRangePartitioner.PLAN);
+    Long plannedDocumentCount = null;
+    if (stepExecution.getExecutionContext().containsKey(TimeRangePartitioner.PARTITION_DOCUMENT_COUNT))
+      plannedDocumentCount = stepExecution.getExecutionContext().getLong(TimeRangePartitioner.PARTITION_DOCUMENT_COUNT);
+    else if (exportPlan != null)
+      plannedDocumentCount = exportPlan.stream().mapToLong(TimeRangePartition::getDocumentCount).sum();
+
+    return new StepExecutionProgressResponse(stepExecutionProgress, stepExecutionHistory, stepExecutionInfoResponse, exportPlan, plannedDocumentCount);
+
+  }
+
+  /**
+   * Get the rates of a running job execution which is throttled.
+   */
+  public ThrottleResponse getThrottle(Long jobExecutionId) throws NoSuchJobExecutionException {
+    return new ThrottleResponse(jobExecutionId, findThrottle(jobExecutionId));
+  }
+
+  /**
+   * Change the rates of a running job execution. The rates which are not specified are not changed.
+   */
+  public ThrottleResponse updateThrottle(Long jobExecutionId, Long documentsPerSecond, Long bytesPerSecond) throws NoSuchJobExecutionException {
+    Throttle throttle = findThrottle(jobExecutionId);
+    throttle.setRates(
+            documentsPerSecond == null ? throttle.getDocumentsPerSecond() : documentsPerSecond,
+            bytesPerSecond == null ? throttle.getBytesPerSecond() : bytesPerSecond);
+    return new ThrottleResponse(jobExecutionId, throttle);
+  }
 
+  private Throttle findThrottle(Long jobExecutionId) throws NoSuchJobExecutionException {
+    return throttleRegistry.get(jobExecutionId).orElseThrow(() -> new NoSuchJobExecutionException(
+            String.format("No running job execution with id %d is throttled", jobExecutionId)));
   }
 
   private StepExecutionHistory computeHistory(String jobName, String stepName) {
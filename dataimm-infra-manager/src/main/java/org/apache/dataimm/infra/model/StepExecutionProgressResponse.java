@@ -18,11 +18,16 @@
  */
 package org.apache.dataimm.infra.model;
 
+import java.util.List;
+
+import org.apache.dataimm.infra.job.archive.TimeRangePartition;
 import org.springframework.batch.admin.history.StepExecutionHistory;
 import org.springframework.batch.admin.web.StepExecutionProgress;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import io.swagger.annotations.ApiModelProperty;
+
 public class StepExecutionProgressResponse {
 
   private final StepExecutionProgress stepExecutionProgress;
@@ -32,11 +37,20 @@ public class StepExecutionProgressResponse {
   @JsonProperty("stepExecution")
   private final StepExecutionInfoResponse stepExecutionInfoResponse;
 
+  @ApiModelProperty("Time ranges of the partitions and their document counts when the export is partitioned by time range")
+  private final List<TimeRangePartition> exportPlan;
+
+  @ApiModelProperty("Number of documents planned for the step: the ones of its time range or the ones of the whole plan")
+  private final Long plannedDocumentCount;
+
   public StepExecutionProgressResponse(StepExecutionProgress stepExecutionProgress, StepExecutionHistory stepExecutionHistory,
-                                       StepExecutionInfoResponse stepExecutionInfoResponse) {
+                                       StepExecutionInfoResponse stepExecutionInfoResponse,
+                                       List<TimeRangePartition> exportPlan, Long plannedDocumentCount) {
     this.stepExecutionProgress = stepExecutionProgress;
     this.stepExecutionHistory = stepExecutionHistory;
     this.stepExecutionInfoResponse = stepExecutionInfoResponse;
+    this.exportPlan = exportPlan;
+    this.plannedDocumentCount = plannedDocumentCount;
   }
 
   public StepExecutionProgress getStepExecutionProgress() {
@@ -50,4 +64,12 @@ public class StepExecutionProgressResponse {
   public StepExecutionInfoResponse getStepExecutionInfoResponse() {
     return stepExecutionInfoResponse;
   }
+
+  public List<TimeRangePartition> getExportPlan() {
+    return exportPlan;
+  }
+
+  public Long getPlannedDocumentCount() {
+    return plannedDocumentCount;
+  }
 }
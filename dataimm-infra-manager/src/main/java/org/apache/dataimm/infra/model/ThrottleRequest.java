@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.model;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+
+import io.swagger.annotations.ApiParam;
+
+public class ThrottleRequest {
+
+  @PathParam("jobExecutionId")
+  @NotNull
+  private Long jobExecutionId;
+
+  @QueryParam("documentsPerSecond")
+  @Min(0)
+  @ApiParam("0 means unlimited, the current rate is kept when it is not specified")
+  private Long documentsPerSecond;
+
+  @QueryParam("bytesPerSecond")
+  @Min(0)
+  @ApiParam("0 means unlimited, the current rate is kept when it is not specified")
+  private Long bytesPerSecond;
+
+  public Long getJobExecutionId() {
+    return jobExecutionId;
+  }
+
+  public void setJobExecutionId(Long jobExecutionId) {
+    this.jobExecutionId = jobExecutionId;
+  }
+
+  public Long getDocumentsPerSecond() {
+    return documentsPerSecond;
+  }
+
+  public void setDocumentsPerSecond(Long documentsPerSecond) {
+    this.documentsPerSecond = documentsPerSecond;
+  }
+
+  public Long getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  public void setBytesPerSecond(Long bytesPerSecond) {
+    this.bytesPerSecond = bytesPerSecond;
+  }
+}
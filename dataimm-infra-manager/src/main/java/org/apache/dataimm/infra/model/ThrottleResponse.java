@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.model;
+
+import org.apache.dataimm.infra.job.Throttle;
+
+import io.swagger.annotations.ApiModelProperty;
+
+public class ThrottleResponse {
+  private final Long jobExecutionId;
+  private final long documentsPerSecond;
+  private final long bytesPerSecond;
+  @ApiModelProperty(value = "Ratio of the rates allowed by the query time and the error rate of the solr queries", example = "0.5")
+  private final double factor;
+
+  public ThrottleResponse(Long jobExecutionId, Throttle throttle) {
+    this.jobExecutionId = jobExecutionId;
+    this.documentsPerSecond = throttle.getDocumentsPerSecond();
+    this.bytesPerSecond = throttle.getBytesPerSecond();
+    this.factor = throttle.getFactor();
+  }
+
+  public Long getJobExecutionId() {
+    return jobExecutionId;
+  }
+
+  public long getDocumentsPerSecond() {
+    return documentsPerSecond;
+  }
+
+  public long getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  public double getFactor() {
+    return factor;
+  }
+}
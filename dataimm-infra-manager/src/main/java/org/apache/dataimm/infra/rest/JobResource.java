@@ -29,6 +29,7 @@ import javax.ws.rs.BeanParam;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -48,6 +49,8 @@ import org.apache.dataimm.infra.model.StepExecutionContextResponse;
 import org.apache.dataimm.infra.model.StepExecutionInfoResponse;
 import org.apache.dataimm.infra.model.StepExecutionProgressResponse;
 import org.apache.dataimm.infra.model.StepExecutionRequest;
+import org.apache.dataimm.infra.model.ThrottleRequest;
+import org.apache.dataimm.infra.model.ThrottleResponse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.batch.admin.service.NoSuchStepExecutionException;
@@ -200,6 +203,22 @@ public class JobResource {
     return jobManager.getStepExecutionContext(request.getJobExecutionId(), request.getStepExecutionId());
   }
 
+  @GET
+  @Produces({"application/json"})
+  @Path("/executions/{jobExecutionId}/throttle")
+  @ApiOperation("Get the rate limits of a running job execution.")
+  public ThrottleResponse getThrottle(@PathParam("jobExecutionId") @Valid Long jobExecutionId) throws NoSuchJobExecutionException {
+    return jobManager.getThrottle(jobExecutionId);
+  }
+
+  @PUT
+  @Produces({"application/json"})
+  @Path("/executions/{jobExecutionId}/throttle")
+  @ApiOperation("Change the rate limits of a running job execution.")
+  public ThrottleResponse updateThrottle(@BeanParam @Valid ThrottleRequest request) throws NoSuchJobExecutionException {
+    return jobManager.updateThrottle(request.getJobExecutionId(), request.getDocumentsPerSecond(), request.getBytesPerSecond());
+  }
+
   @GET
   @Produces({"application/json"})
   @Path("/executions/{jobExecutionId}/steps/{stepExecutionId}/progress")
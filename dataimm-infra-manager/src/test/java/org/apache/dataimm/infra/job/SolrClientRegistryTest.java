@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SolrClientRegistryTest {
+  private SolrClientRegistry solrClientRegistry;
+
+  @Before
+  public void setUp() {
+    SolrClientProperties properties = new SolrClientProperties();
+    properties.setIdleTimeout(Duration.ZERO);
+    solrClientRegistry = new SolrClientRegistry(properties, new SimpleMeterRegistry());
+  }
+
+  @After
+  public void tearDown() {
+    solrClientRegistry.close();
+  }
+
+  @Test
+  public void testClientIsSharedForTheSameEnsemble() {
+    try (SolrClientRegistry.Lease lease1 = solrClientRegistry.acquire("zk1:2181,zk2:2181/solr");
+         SolrClientRegistry.Lease lease2 = solrClientRegistry.acquire("zk2:2181,zk1:2181/solr")) {
+      assertThat(lease1.getClient(), is(sameInstance(lease2.getClient())));
+      assertThat(solrClientRegistry.getClientCount(), is(1));
+      assertThat(solrClientRegistry.getLeaseCount(), is(2));
+    }
+    assertThat(solrClientRegistry.getLeaseCount(), is(0));
+  }
+
+  @Test
+  public void testDifferentChrootsGetDifferentClients() {
+    try (SolrClientRegistry.Lease lease1 = solrClientRegistry.acquire("zk1:2181/solr");
+         SolrClientRegistry.Lease lease2 = solrClientRegistry.acquire("zk1:2181/infra-solr")) {
+      assertThat(lease1.getClient(), is(not(sameInstance(lease2.getClient()))));
+      assertThat(solrClientRegistry.getClientCount(), is(2));
+    }
+  }
+
+  @Test
+  public void testLeasedClientIsNotEvicted() {
+    try (SolrClientRegistry.Lease lease = solrClientRegistry.acquire("zk1:2181")) {
+      solrClientRegistry.evictIdleClients();
+      assertThat(solrClientRegistry.getClientCount(), is(1));
+    }
+  }
+
+  @Test
+  public void testIdleClientIsEvicted() {
+    CloudSolrClient client;
+    try (SolrClientRegistry.Lease lease = solrClientRegistry.acquire("zk1:2181")) {
+      client = lease.getClient();
+    }
+    solrClientRegistry.evictIdleClients();
+    assertThat(solrClientRegistry.getClientCount(), is(0));
+
+    try (SolrClientRegistry.Lease lease = solrClientRegistry.acquire("zk1:2181")) {
+      assertThat(lease.getClient(), is(not(sameInstance(client))));
+    }
+  }
+
+  @Test
+  public void testClosingALeaseTwiceReleasesItOnlyOnce() {
+    SolrClientRegistry.Lease lease1 = solrClientRegistry.acquire("zk1:2181");
+    SolrClientRegistry.Lease lease2 = solrClientRegistry.acquire("zk1:2181");
+    lease1.close();
+    lease1.close();
+    assertThat(solrClientRegistry.getLeaseCount(), is(1));
+    lease2.close();
+  }
+}
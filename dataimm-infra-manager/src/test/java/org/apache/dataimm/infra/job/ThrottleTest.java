@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ThrottleTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private long now = 0;
+
+  @Test
+  public void testUnlimitedThrottleDoesNotWait() {
+    Throttle throttle = new Throttle(0, 0, null, 0, () -> now);
+    assertThat(throttle.reserve(1000000, 1000000000L), is(0L));
+  }
+
+  @Test
+  public void testWaitsUntilTheDebtIsPaidBack() {
+    Throttle throttle = new Throttle(10, 0, null, 0, () -> now);
+    assertThat(throttle.reserve(5, 0), is(SECOND / 2));
+    now += SECOND / 2;
+    assertThat(throttle.reserve(0, 0), is(0L));
+  }
+
+  @Test
+  public void testBucketHoldsAtMostOneSecondOfTokens() {
+    Throttle throttle = new Throttle(10, 0, null, 0, () -> now);
+    now += 10 * SECOND;
+    assertThat(throttle.reserve(10, 0), is(0L));
+    assertThat(throttle.reserve(10, 0), is(SECOND));
+  }
+
+  @Test
+  public void testBytesAreLimitedIndependentlyOfDocuments() {
+    Throttle throttle = new Throttle(1000, 100, null, 0, () -> now);
+    assertThat(throttle.reserve(1, 200), is(2 * SECOND));
+  }
+
+  @Test
+  public void testRatesAreHalvedWhenQueryTimeIsAboveTheLimit() {
+    Throttle throttle = new Throttle(10, 0, Duration.ofSeconds(1), 0, () -> now);
+    throttle.recordQuery(2000, false);
+    assertThat(throttle.getFactor(), is(0.5));
+    assertThat(throttle.reserve(5, 0), is(SECOND));
+    throttle.recordQuery(100, false);
+    assertThat(throttle.getFactor(), is(0.55));
+  }
+
+  @Test
+  public void testRatesAreHalvedWhenErrorRateIsAboveTheLimit() {
+    Throttle throttle = new Throttle(10, 0, null, 0.15, () -> now);
+    throttle.recordQuery(10, true);
+    assertThat(throttle.getFactor(), is(1.0));
+    throttle.recordQuery(10, true);
+    assertThat(throttle.getFactor(), is(0.5));
+  }
+
+  @Test
+  public void testRatesCanBeChanged() {
+    Throttle throttle = new Throttle(10, 0, null, 0, () -> now);
+    throttle.setRates(0, 0);
+    assertThat(throttle.reserve(100, 0), is(0L));
+    assertThat(throttle.getDocumentsPerSecond(), is(0L));
+  }
+}
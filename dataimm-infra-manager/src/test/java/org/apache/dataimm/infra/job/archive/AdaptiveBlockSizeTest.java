@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+public class AdaptiveBlockSizeTest {
+  private static final long MILLIS = 1000000L;
+
+  @Test
+  public void testInitialBlockSizeIsBounded() {
+    assertThat(new AdaptiveBlockSize(5, 10, 100, Duration.ofSeconds(1), 0).get(), is(10));
+    assertThat(new AdaptiveBlockSize(500, 10, 100, Duration.ofSeconds(1), 0).get(), is(100));
+  }
+
+  @Test
+  public void testGrowsAtMostToTheDoubleWhenFasterThanTargetLatency() {
+    AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100, 10, 1000, Duration.ofMillis(1000), 0);
+    blockSize.record(100, 100 * MILLIS, 1000);
+    assertThat(blockSize.get(), is(200));
+  }
+
+  @Test
+  public void testShrinksToTargetLatency() {
+    AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100, 10, 1000, Duration.ofMillis(1000), 0);
+    blockSize.record(100, 4000 * MILLIS, 1000);
+    assertThat(blockSize.get(), is(25));
+  }
+
+  @Test
+  public void testShrinksToByteBudget() {
+    AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100, 10, 1000, null, 10000);
+    blockSize.record(100, MILLIS, 100000);
+    assertThat(blockSize.get(), is(10));
+  }
+
+  @Test
+  public void testEmptyBlockIsIgnored() {
+    AdaptiveBlockSize blockSize = new AdaptiveBlockSize(100, 10, 1000, Duration.ofMillis(1000), 10000);
+    blockSize.record(0, 4000 * MILLIS, 0);
+    assertThat(blockSize.get(), is(100));
+  }
+}
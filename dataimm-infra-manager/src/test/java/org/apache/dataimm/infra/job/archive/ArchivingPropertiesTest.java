@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class ArchivingPropertiesTest {
+  @Test
+  public void testValidateAcceptsCursorMarkWhenSortColumnContainsTheUniqueKey() {
+    ArchivingProperties archivingProperties = cursorMarkProperties("logtime", "id");
+    archivingProperties.validate();
+  }
+
+  @Test
+  public void testValidateRejectsCursorMarkWhenSortColumnMissesTheUniqueKey() {
+    ArchivingProperties archivingProperties = cursorMarkProperties("logtime");
+    try {
+      archivingProperties.validate();
+      fail("IllegalArgumentException expected");
+    }
+    catch (IllegalArgumentException ex) {
+      assertThat(ex.getMessage(), is("The property sortColumn must contain the unique key field when readMode is set to CURSOR_MARK!"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValidateRejectsCursorMarkWhenSortColumnIsNotSet() {
+    cursorMarkProperties((String[]) null).validate();
+  }
+
+  private ArchivingProperties cursorMarkProperties(String... sortColumn) {
+    SolrProperties solrProperties = new SolrProperties();
+    solrProperties.setZooKeeperConnectionString("localhost:9983");
+    solrProperties.setCollection("audit_logs");
+    solrProperties.setSortColumn(sortColumn);
+
+    ArchivingProperties archivingProperties = new ArchivingProperties();
+    archivingProperties.setReadBlockSize(10);
+    archivingProperties.setWriteBlockSize(10);
+    archivingProperties.setDestination(ExportDestination.LOCAL);
+    archivingProperties.setLocalDestinationDirectory("/tmp");
+    archivingProperties.setFileNameSuffixColumn("logtime");
+    archivingProperties.setReadMode(ReadMode.CURSOR_MARK);
+    archivingProperties.setSolr(solrProperties);
+    return archivingProperties;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+public class CoalescingDocumentWiperTest {
+  private static final Document DOCUMENT_1 = document("1");
+  private static final Document DOCUMENT_2 = document("2");
+  private static final Document DOCUMENT_3 = document("3");
+  private static final Document DOCUMENT_4 = document("4");
+
+  private final List<Document[]> deletedRanges = new ArrayList<>();
+  private final DocumentWiper documentWiper = (firstDocument, lastDocument) -> deletedRanges.add(new Document[] {firstDocument, lastDocument});
+  private int commitCount = 0;
+
+  private static Document document(String id) {
+    return new Document(new HashMap<String, Object>() {{ put("id", id); }});
+  }
+
+  @Test
+  public void testConsecutiveRangesAreDeletedTogether() {
+    CoalescingDocumentWiper wiper = new CoalescingDocumentWiper(documentWiper, 2, null);
+    wiper.open(new ExecutionContext());
+
+    wiper.delete(DOCUMENT_1, DOCUMENT_2);
+    assertThat(deletedRanges.size(), is(0));
+    wiper.delete(DOCUMENT_3, DOCUMENT_4);
+
+    assertThat(deletedRanges.size(), is(1));
+    assertThat(deletedRanges.get(0)[0], is(DOCUMENT_1));
+    assertThat(deletedRanges.get(0)[1], is(DOCUMENT_4));
+  }
+
+  @Test
+  public void testPendingRangeIsDeletedAndCommittedOnComplete() {
+    CoalescingDocumentWiper wiper = new CoalescingDocumentWiper(documentWiper, 10, () -> ++commitCount);
+    wiper.open(new ExecutionContext());
+
+    wiper.delete(DOCUMENT_1, DOCUMENT_2);
+    wiper.complete();
+    wiper.close();
+
+    assertThat(deletedRanges.size(), is(1));
+    assertThat(deletedRanges.get(0)[0], is(DOCUMENT_1));
+    assertThat(deletedRanges.get(0)[1], is(DOCUMENT_2));
+    assertThat(commitCount, is(1));
+  }
+
+  @Test
+  public void testPendingRangeIsNotDeletedWhenClosedAfterFailure() {
+    CoalescingDocumentWiper wiper = new CoalescingDocumentWiper(documentWiper, 10, () -> ++commitCount);
+    wiper.open(new ExecutionContext());
+
+    wiper.delete(DOCUMENT_1, DOCUMENT_2);
+    wiper.close();
+
+    assertThat(deletedRanges.size(), is(0));
+    assertThat(commitCount, is(0));
+  }
+
+  @Test
+  public void testPendingRangeIsRestoredAfterRestart() {
+    ExecutionContext executionContext = new ExecutionContext();
+    CoalescingDocumentWiper wiper = new CoalescingDocumentWiper(documentWiper, 2, null);
+    wiper.open(executionContext);
+    wiper.delete(DOCUMENT_1, DOCUMENT_2);
+    wiper.update(executionContext);
+
+    CoalescingDocumentWiper restartedWiper = new CoalescingDocumentWiper(documentWiper, 2, null);
+    restartedWiper.open(executionContext);
+    restartedWiper.delete(DOCUMENT_3, DOCUMENT_4);
+
+    assertThat(deletedRanges.size(), is(1));
+    assertThat(deletedRanges.get(0)[0], is(DOCUMENT_1));
+    assertThat(deletedRanges.get(0)[1], is(DOCUMENT_4));
+    restartedWiper.update(executionContext);
+    assertThat(executionContext.containsKey(CoalescingDocumentWiper.PENDING_START), is(false));
+  }
+}
@@ -119,8 +119,10 @@ public class DocumentExporterTest extends EasyMockSupport {
     expect(documentDestination.open(DOCUMENT)).andReturn(documentItemWriter);
     documentItemWriter.write(DOCUMENT); expectLastCall();
     expect(reader.read()).andReturn(null);
-    reader.close(); expectLastCall();
     documentItemWriter.close(); expectLastCall();
+    reader.update(executionContext(chunkContext));
+    jobContextRepository.updateExecutionContext(chunkContext.getStepContext().getStepExecution());
+    reader.close(); expectLastCall();
     replayAll();
 
     assertThat(documentExporter.execute(ANY_STEP_CONTRIBUTION, chunkContext), is(RepeatStatus.FINISHED));
@@ -141,9 +143,10 @@ public class DocumentExporterTest extends EasyMockSupport {
     expect(documentDestination.open(DOCUMENT_3)).andReturn(documentItemWriter2);
     documentItemWriter2.write(DOCUMENT_3); expectLastCall();
     expect(reader.read()).andReturn(null);
-    reader.update(executionContext(chunkContext));
-    reader.close(); expectLastCall();
+    reader.update(executionContext(chunkContext)); expectLastCall().times(2);
     documentItemWriter2.close(); expectLastCall();
+    jobContextRepository.updateExecutionContext(chunkContext.getStepContext().getStepExecution());
+    reader.close(); expectLastCall();
     replayAll();
 
     assertThat(documentExporter.execute(ANY_STEP_CONTRIBUTION, chunkContext), is(RepeatStatus.FINISHED));
@@ -203,9 +206,10 @@ public class DocumentExporterTest extends EasyMockSupport {
     expect(reader.read()).andReturn(DOCUMENT_3);
     expect(documentDestination.open(DOCUMENT_3)).andReturn(documentItemWriter3);
     documentItemWriter3.write(DOCUMENT_3); expectLastCall();
-    documentItemWriter3.close(); expectLastCall();
-
     expect(reader.read()).andReturn(null);
+    documentItemWriter3.close(); expectLastCall();
+    reader.update(executionContext(chunkContext));
+    jobContextRepository.updateExecutionContext(chunkContext.getStepContext().getStepExecution());
     reader.close(); expectLastCall();
     replayAll();
 
@@ -28,6 +28,8 @@ import static org.junit.Assert.assertThat;
 import java.util.HashMap;
 
 import org.apache.dataimm.infra.job.CloseableIterator;
+import org.apache.dataimm.infra.job.CursorIterator;
+import org.apache.dataimm.infra.job.CursorObjectSource;
 import org.apache.dataimm.infra.job.ObjectSource;
 import org.easymock.EasyMockRunner;
 import org.easymock.EasyMockSupport;
@@ -52,6 +54,12 @@ public class DocumentItemReaderTest extends EasyMockSupport {
   private CloseableIterator<Document> documentIterator;
   @Mock
   private CloseableIterator<Document> documentIterator2;
+  @Mock
+  private CursorObjectSource<Document> cursorSource;
+  @Mock
+  private CursorIterator<Document> cursorIterator;
+  @Mock
+  private CursorIterator<Document> cursorIterator2;
 
   @Before
   public void setUp() throws Exception {
@@ -196,4 +204,138 @@ public class DocumentItemReaderTest extends EasyMockSupport {
     assertThat(documentItemReader.read(), is(DOCUMENT_3));
     documentItemReader.close();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testReadStartsAfterInitialPosition() throws Exception {
+    expect(documentSource.open(DOCUMENT, 2)).andReturn(documentIterator);
+    expect(documentIterator.next()).andReturn(DOCUMENT_2);
+    expect(documentIterator.next()).andReturn(null);
+    documentIterator.close(); expectLastCall();
+    replayAll();
+
+    documentItemReader.setInitialPosition(DOCUMENT);
+    documentItemReader.open(new ExecutionContext());
+    assertThat(documentItemReader.read(), is(DOCUMENT_2));
+    assertThat(documentItemReader.read(), is(nullValue()));
+    documentItemReader.close();
+  }
+
+  @Test
+  public void testRestoredPositionOverridesInitialPosition() throws Exception {
+    expect(documentSource.open(DOCUMENT_2, 2)).andReturn(documentIterator);
+    expect(documentIterator.next()).andReturn(DOCUMENT_3);
+    documentIterator.close(); expectLastCall();
+    replayAll();
+
+    ExecutionContext executionContext = new ExecutionContext();
+    executionContext.put(DocumentItemReader.POSITION, DOCUMENT_2);
+    documentItemReader.setInitialPosition(DOCUMENT);
+    documentItemReader.open(executionContext);
+    assertThat(documentItemReader.read(), is(DOCUMENT_3));
+    documentItemReader.close();
+  }
+
+  @Test
+  public void testAdaptiveBlockSizeIsUsedByTheNextQuery() throws Exception {
+    expect(documentSource.open(null, 2)).andReturn(documentIterator);
+    expect(documentIterator.next()).andReturn(DOCUMENT);
+    expect(documentIterator.next()).andReturn(DOCUMENT_2);
+    expect(documentIterator.next()).andReturn(null);
+    documentIterator.close(); expectLastCall();
+    expect(documentSource.open(DOCUMENT_2, 4)).andReturn(documentIterator2);
+    expect(documentIterator2.next()).andReturn(DOCUMENT_3);
+    expect(documentIterator2.next()).andReturn(null);
+    documentIterator2.close(); expectLastCall();
+    replayAll();
+
+    documentItemReader.setAdaptiveBlockSize(new AdaptiveBlockSize(READ_BLOCK_SIZE, 1, 10, null, 1024 * 1024));
+    ExecutionContext executionContext = new ExecutionContext();
+    documentItemReader.open(executionContext);
+    assertThat(documentItemReader.read(), is(DOCUMENT));
+    assertThat(documentItemReader.read(), is(DOCUMENT_2));
+    assertThat(documentItemReader.read(), is(DOCUMENT_3));
+    documentItemReader.update(executionContext);
+    assertThat(executionContext.getInt(DocumentItemReader.READ_BLOCK_SIZE), is(4));
+    assertThat(documentItemReader.read(), is(nullValue()));
+  }
+
+  @Test
+  public void testCursorReadWhenCollectionContainsMoreElementsThanReadBlockSize() throws Exception {
+    DocumentItemReader cursorReader = new DocumentItemReader(cursorSource, READ_BLOCK_SIZE);
+    expect(cursorSource.open("*", 2)).andReturn(cursorIterator);
+    expect(cursorIterator.getNextCursorMark()).andReturn("mark1");
+    expect(cursorIterator.next()).andReturn(DOCUMENT);
+    expect(cursorIterator.next()).andReturn(DOCUMENT_2);
+    expect(cursorIterator.next()).andReturn(null);
+    cursorIterator.close(); expectLastCall();
+    expect(cursorSource.open("mark1", 2)).andReturn(cursorIterator2);
+    expect(cursorIterator2.getNextCursorMark()).andReturn("mark2");
+    expect(cursorIterator2.next()).andReturn(DOCUMENT_3);
+    expect(cursorIterator2.next()).andReturn(null);
+    cursorIterator2.close(); expectLastCall();
+    replayAll();
+
+    assertThat(cursorReader.read(), is(DOCUMENT));
+    assertThat(cursorReader.read(), is(DOCUMENT_2));
+    assertThat(cursorReader.read(), is(DOCUMENT_3));
+    assertThat(cursorReader.isComplete(null), is(false));
+    assertThat(cursorReader.read(), is(nullValue()));
+    assertThat(cursorReader.isComplete(null), is(true));
+  }
+
+  @Test
+  public void testCursorContinueFromCheckpointedCursorMark() throws Exception {
+    DocumentItemReader cursorReader = new DocumentItemReader(cursorSource, READ_BLOCK_SIZE);
+    expect(cursorSource.open("*", 2)).andReturn(cursorIterator);
+    expect(cursorIterator.getNextCursorMark()).andReturn("mark1");
+    expect(cursorIterator.next()).andReturn(DOCUMENT);
+    expect(cursorIterator.next()).andReturn(DOCUMENT_2);
+    cursorIterator.close(); expectLastCall();
+    expect(cursorSource.open("*", 2)).andReturn(cursorIterator2);
+    expect(cursorIterator2.getNextCursorMark()).andReturn("mark1");
+    expect(cursorIterator2.next()).andReturn(DOCUMENT);
+    expect(cursorIterator2.next()).andReturn(DOCUMENT_2);
+    cursorIterator2.close(); expectLastCall();
+    replayAll();
+
+    ExecutionContext executionContext = new ExecutionContext();
+    cursorReader.open(executionContext);
+    assertThat(cursorReader.read(), is(DOCUMENT));
+    assertThat(cursorReader.read(), is(DOCUMENT_2));
+    cursorReader.update(executionContext);
+    assertThat(executionContext.get(DocumentItemReader.POSITION), is(DOCUMENT));
+    assertThat(executionContext.getString(DocumentItemReader.CURSOR_MARK), is("*"));
+    assertThat(executionContext.getInt(DocumentItemReader.CURSOR_OFFSET), is(1));
+    cursorReader.close();
+
+    cursorReader.open(executionContext);
+    assertThat(cursorReader.read(), is(DOCUMENT_2));
+    cursorReader.close();
+  }
+
+  @Test
+  public void testPrefetchingReadReturnsAllDocumentsInOrder() throws Exception {
+    documentItemReader.setPrefetchDepth(1);
+    expect(documentSource.open(null, 2)).andReturn(documentIterator);
+    expect(documentIterator.next()).andReturn(DOCUMENT);
+    expect(documentIterator.next()).andReturn(DOCUMENT_2);
+    expect(documentIterator.next()).andReturn(null);
+    documentIterator.close(); expectLastCall();
+    expect(documentSource.open(DOCUMENT_2, 2)).andReturn(documentIterator2);
+    expect(documentIterator2.next()).andReturn(DOCUMENT_3);
+    expect(documentIterator2.next()).andReturn(null);
+    documentIterator2.close(); expectLastCall();
+    replayAll();
+
+    ExecutionContext executionContext = new ExecutionContext();
+    documentItemReader.open(executionContext);
+    assertThat(documentItemReader.read(), is(DOCUMENT));
+    assertThat(documentItemReader.read(), is(DOCUMENT_2));
+    assertThat(documentItemReader.read(), is(DOCUMENT_3));
+    documentItemReader.update(executionContext);
+    assertThat(executionContext.get(DocumentItemReader.POSITION), is(DOCUMENT_2));
+    assertThat(documentItemReader.read(), is(nullValue()));
+    assertThat(documentItemReader.isComplete(null), is(true));
+    documentItemReader.close();
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class DocumentJsonWriterTest {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @Test
+  public void testWriteKeepsValueTypes() throws Exception {
+    Map<String, Object> fieldMap = new LinkedHashMap<>();
+    fieldMap.put("id", "1");
+    fieldMap.put("seq_num", 10L);
+    fieldMap.put("result", 1);
+    fieldMap.put("score", 0.5d);
+    fieldMap.put("enforced", true);
+    fieldMap.put("tags", asList("a", "b"));
+    fieldMap.put("empty", null);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (DocumentJsonWriter writer = new DocumentJsonWriter(outputStream)) {
+      writer.write(new Document(fieldMap));
+      writer.write(new Document(fieldMap));
+    }
+
+    String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    assertThat(lines.length, is(2));
+    assertThat(lines[0], is("{\"id\":\"1\",\"seq_num\":10,\"result\":1,\"score\":0.5,\"enforced\":true,\"tags\":[\"a\",\"b\"]}"));
+    assertThat(lines[1], is(lines[0]));
+    assertThat(OBJECT_MAPPER.readValue(lines[0], Document.class).getFieldMap().get("tags"), is(asList("a", "b")));
+  }
+
+  @Test
+  public void testConvertFieldValueFormatsDatesAndKeepsTypedValues() {
+    assertThat(SolrDocumentIterator.convertFieldValue(new Date(0)), is("1970-01-01T00:00:00.000Z"));
+    assertThat(SolrDocumentIterator.convertFieldValue(1.5f), is(1.5f));
+    assertThat(SolrDocumentIterator.convertFieldValue(false), is(false));
+    assertThat(SolrDocumentIterator.convertFieldValue(null), is(nullValue()));
+    @SuppressWarnings("unchecked")
+    List<Object> converted = (List<Object>) SolrDocumentIterator.convertFieldValue(asList(new Date(0), 2L));
+    assertThat(converted, is(asList("1970-01-01T00:00:00.000Z", 2L)));
+  }
+}
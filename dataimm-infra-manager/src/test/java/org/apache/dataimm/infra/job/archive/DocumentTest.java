@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class DocumentTest {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @Test
+  public void testExtendReturnsSameSchemaWhenAllFieldsAreKnown() {
+    DocumentSchema schema = DocumentSchema.of(asList("id", "logtime"));
+    assertThat(schema.extend(asList("logtime", "id")), is(sameInstance(schema)));
+    assertThat(schema.extend(asList("id")), is(sameInstance(schema)));
+  }
+
+  @Test
+  public void testExtendAppendsMissingFields() {
+    DocumentSchema schema = DocumentSchema.of(asList("id", "logtime")).extend(asList("id", "level", "message"));
+    assertThat(schema.size(), is(4));
+    assertThat(schema.indexOf("id"), is(0));
+    assertThat(schema.indexOf("logtime"), is(1));
+    assertThat(schema.indexOf("level"), is(2));
+    assertThat(schema.indexOf("message"), is(3));
+    assertThat(schema.indexOf("unknown"), is(-1));
+  }
+
+  @Test
+  public void testFieldMapSkipsMissingValues() {
+    DocumentSchema schema = DocumentSchema.of(asList("id", "logtime", "level"));
+    Document document = new Document(schema, new Object[] {"1", null, "INFO"});
+
+    Map<String, Object> expected = new HashMap<>();
+    expected.put("id", "1");
+    expected.put("level", "INFO");
+    assertThat(document.getFieldMap(), is(expected));
+    assertThat(document.getString("logtime"), is(nullValue()));
+    assertThat(document.getString("unknown"), is(nullValue()));
+    assertThat(document.getFieldMap().containsKey("logtime"), is(false));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValueCountMustMatchSchema() {
+    new Document(DocumentSchema.of(asList("id", "logtime")), new Object[] {"1"});
+  }
+
+  @Test
+  public void testJsonRoundTrip() throws Exception {
+    Map<String, Object> fieldMap = new HashMap<>();
+    fieldMap.put("id", "1");
+    fieldMap.put("seq_num", 10);
+    fieldMap.put("tags", asList("a", "b"));
+    Document document = new Document(fieldMap);
+
+    String text = OBJECT_MAPPER.writeValueAsString(document);
+    assertThat(text.contains("schema"), is(false));
+    Document readBack = OBJECT_MAPPER.readValue(text, Document.class);
+    assertThat(readBack.getFieldMap(), is(fieldMap));
+  }
+}
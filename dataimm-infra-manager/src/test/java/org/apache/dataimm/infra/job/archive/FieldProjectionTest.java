@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class FieldProjectionTest {
+
+  @Test
+  public void testIncludedPatternsArePassedWithTheRequiredFieldsWhenNothingIsExcluded() {
+    FieldProjection fieldProjection = new FieldProjection(asList("evt*", "id"), emptyList(), asList("id", "logtime"));
+    assertThat(fieldProjection.needsSchema(), is(false));
+    assertThat(fieldProjection.toFieldList(), is(new String[] {"evt*", "id", "logtime"}));
+  }
+
+  @Test
+  public void testExcludedFieldsAreRemovedFromTheSchemaFields() {
+    FieldProjection fieldProjection = new FieldProjection(emptyList(), asList("_version_", "reqData*"), singletonList("id"));
+    assertThat(fieldProjection.needsSchema(), is(true));
+    assertThat(fieldProjection.toFieldList(
+            asList("id", "_version_", "reqData", "reqDataCopy", "reqUser"), asList("*_s", "reqData_*")),
+            is(new String[] {"id", "reqUser", "*_s"}));
+  }
+
+  @Test
+  public void testRequiredFieldsAreKeptWhenExcluded() {
+    FieldProjection fieldProjection = new FieldProjection(singletonList("req*"), singletonList("*"), singletonList("evtTime"));
+    assertThat(fieldProjection.toFieldList(asList("evtTime", "reqUser"), emptyList()), is(new String[] {"evtTime"}));
+  }
+}
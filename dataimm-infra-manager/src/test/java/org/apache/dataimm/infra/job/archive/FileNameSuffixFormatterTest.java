@@ -55,4 +55,9 @@ public class FileNameSuffixFormatterTest {
   public void testFormatWhenDateFormatIsSpecifiedAFormattedValueReturned() throws Exception {
     assertThat(formatter.format(new Document(new HashMap<String, Object>() {{ put("logtime", "2017-12-15T10:12:33.453Z"); }})), is("2017-12-15T10-12-33-453Z"));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFormatWhenDateValueHasNoFractionOfSecond() throws Exception {
+    assertThat(formatter.format(new Document(new HashMap<String, Object>() {{ put("logtime", "2017-12-15T10:12:33Z"); }})), is("2017-12-15T10-12-33-000Z"));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.easymock.EasyMockRunner;
+import org.easymock.EasyMockSupport;
+import org.easymock.Mock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(EasyMockRunner.class)
+public class HdfsDocumentItemWriterTest extends EasyMockSupport {
+
+  private static final Document DOCUMENT = new Document(new HashMap<String, Object>() {{ put("id", "1"); }});
+  private static final Document DOCUMENT2 = new Document(new HashMap<String, Object>() {{ put("id", "2"); }});
+
+  private File destinationDirectory;
+  private HdfsFileSystemRegistry fileSystemRegistry;
+  private HdfsFileSystemFactory fileSystemFactory;
+  @Mock
+  private ItemWriterListener itemWriterListener;
+
+  @Before
+  public void setUp() throws Exception {
+    destinationDirectory = Files.createTempDirectory("HdfsDocumentItemWriterTest").toFile();
+    fileSystemRegistry = new HdfsFileSystemRegistry();
+    fileSystemFactory = new HdfsFileSystemFactory(fileSystemRegistry, new HdfsProperties(
+            "file:///", destinationDirectory.getAbsolutePath(), new FsPermission("640"), null, null));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    fileSystemRegistry.close();
+    FileUtils.deleteDirectory(destinationDirectory);
+    verifyAll();
+  }
+
+  @Test
+  public void testCloseRenamesTemporaryFile() throws Exception {
+    itemWriterListener.onCompleted(anyObject(WriteCompletedEvent.class)); expectLastCall();
+    replayAll();
+
+    HdfsDocumentItemWriter writer = new HdfsDocumentItemWriter(fileSystemFactory, "test.json", new JsonFileFormat(new StreamCompressor(CompressionCodec.NONE)), itemWriterListener);
+    writer.write(DOCUMENT);
+    writer.write(DOCUMENT2);
+    writer.close();
+
+    List<String> lines = FileUtils.readLines(new File(destinationDirectory, "test.json"), "UTF-8");
+    assertThat(lines.size(), is(2));
+    assertThat(new File(destinationDirectory, ".test.json._COPYING_").exists(), is(false));
+  }
+
+  @Test
+  public void testTemporaryFileIsHiddenWhileWriting() throws Exception {
+    replayAll();
+
+    HdfsDocumentItemWriter writer = new HdfsDocumentItemWriter(fileSystemFactory, "test.json", new JsonFileFormat(new StreamCompressor(CompressionCodec.NONE)), itemWriterListener);
+    writer.write(DOCUMENT);
+
+    for (String fileName : destinationDirectory.list())
+      assertThat(fileName.startsWith("."), is(true));
+    writer.revert();
+  }
+
+  @Test
+  public void testRevertDeletesTemporaryFile() throws Exception {
+    replayAll();
+
+    HdfsDocumentItemWriter writer = new HdfsDocumentItemWriter(fileSystemFactory, "test.json", new JsonFileFormat(new StreamCompressor(CompressionCodec.NONE)), itemWriterListener);
+    writer.write(DOCUMENT);
+    writer.revert();
+
+    assertThat(new File(destinationDirectory, "test.json").exists(), is(false));
+    assertThat(new File(destinationDirectory, ".test.json._COPYING_").exists(), is(false));
+  }
+
+  @Test
+  public void testFileSystemIsSharedByWriters() throws Exception {
+    replayAll();
+
+    new HdfsDocumentItemWriter(fileSystemFactory, "test1.json", new JsonFileFormat(new StreamCompressor(CompressionCodec.NONE)), itemWriterListener).revert();
+    new HdfsDocumentItemWriter(fileSystemFactory, "test2.json", new JsonFileFormat(new StreamCompressor(CompressionCodec.NONE)), itemWriterListener).revert();
+
+    assertThat(fileSystemRegistry.getFileSystemCount(), is(1));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testExistingFileIsNotOverwritten() throws Exception {
+    replayAll();
+
+    FileUtils.touch(new File(destinationDirectory, "test.json"));
+    new HdfsDocumentItemWriter(fileSystemFactory, "test.json", new JsonFileFormat(new StreamCompressor(CompressionCodec.NONE)), itemWriterListener);
+  }
+}
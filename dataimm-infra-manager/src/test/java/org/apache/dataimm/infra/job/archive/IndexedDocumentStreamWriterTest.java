@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class IndexedDocumentStreamWriterTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void testEveryBlockCanBeReadFromItsOffset() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ByteArrayOutputStream manifestOutputStream = new ByteArrayOutputStream();
+    JsonFileFormat fileFormat = new JsonFileFormat(new StreamCompressor(CompressionCodec.GZIP), new ManifestSettings(2, asList("logtime", "id")));
+    try (DocumentStreamWriter writer = fileFormat.open(outputStream, manifestOutputStream)) {
+      for (int i = 0; i < 5; ++i)
+        writer.write(document(i));
+    }
+
+    List<Map<String, Object>> manifest = readManifest(manifestOutputStream.toByteArray());
+    assertThat(manifest.size(), is(4));
+    assertThat(manifest.get(0).get("format"), is("JSON"));
+    assertThat(manifest.get(0).get("compression"), is("GZIP"));
+    assertThat(manifest.get(0).get("columns"), is(asList("logtime", "id")));
+
+    Map<String, Object> secondBlock = manifest.get(2);
+    assertThat(secondBlock.get("count"), is(2));
+    assertThat(((Map<?, ?>) secondBlock.get("min")).get("id"), is("2"));
+    assertThat(((Map<?, ?>) secondBlock.get("max")).get("id"), is("3"));
+    assertThat(((Map<?, ?>) secondBlock.get("max")).get("logtime"), is("2014-04-04T05:00:03.000Z"));
+    assertThat(manifest.get(3).get("count"), is(1));
+
+    byte[] archive = outputStream.toByteArray();
+    int offset = ((Number) secondBlock.get("offset")).intValue();
+    int length = ((Number) secondBlock.get("length")).intValue();
+    List<String> lines = readLines(new GZIPInputStream(new ByteArrayInputStream(archive, offset, length)));
+    assertThat(lines.size(), is(2));
+    assertThat(objectMapper.readValue(lines.get(0), Map.class).get("id"), is("2"));
+
+    long lastBlockEnd = ((Number) manifest.get(3).get("offset")).longValue() + ((Number) manifest.get(3).get("length")).longValue();
+    assertThat(lastBlockEnd, is((long) archive.length));
+    assertThat(readLines(new GZIPInputStream(new ByteArrayInputStream(archive))).size(), is(5));
+  }
+
+  @Test
+  public void testCompareNumbersByValue() {
+    assertThat(IndexedDocumentStreamWriter.compare(9L, 10) < 0, is(true));
+    assertThat(IndexedDocumentStreamWriter.compare(1.5d, 1L) > 0, is(true));
+    assertThat(IndexedDocumentStreamWriter.compare("b", "a") > 0, is(true));
+  }
+
+  private Document document(int i) {
+    Map<String, Object> fieldMap = new HashMap<>();
+    fieldMap.put("id", Integer.toString(i));
+    fieldMap.put("logtime", String.format("2014-04-04T05:00:0%d.000Z", i));
+    return new Document(fieldMap);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Object>> readManifest(byte[] manifest) throws Exception {
+    List<Map<String, Object>> lines = new ArrayList<>();
+    for (String line : readLines(new ByteArrayInputStream(manifest)))
+      lines.add(objectMapper.readValue(line, Map.class));
+    return lines;
+  }
+
+  private List<String> readLines(InputStream inputStream) throws Exception {
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null)
+        lines.add(line);
+    }
+    return lines;
+  }
+}
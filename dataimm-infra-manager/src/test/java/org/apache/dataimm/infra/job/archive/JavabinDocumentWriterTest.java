@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+
+public class JavabinDocumentWriterTest {
+
+  @Test
+  public void testWriteAndReadBackInBlocks() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (JavabinDocumentWriter writer = new JavabinDocumentWriter(outputStream, 2)) {
+      for (int i = 0; i < 5; ++i)
+        writer.write(document(i));
+    }
+
+    List<Integer> blockSizes = new ArrayList<>();
+    List<SolrInputDocument> documents = new ArrayList<>();
+    try (JavabinDocumentReader reader = new JavabinDocumentReader(new ByteArrayInputStream(outputStream.toByteArray()))) {
+      List<SolrInputDocument> block;
+      while ((block = reader.readBlock()) != null) {
+        blockSizes.add(block.size());
+        documents.addAll(block);
+      }
+    }
+
+    assertThat(blockSizes, is(asList(2, 2, 1)));
+    assertThat(documents.get(3).getFieldValue("id"), is("3"));
+    assertThat(documents.get(3).getFieldValue("seq_num"), is(3L));
+    assertThat(documents.get(3).getFieldValue("result"), is(3));
+    assertThat(documents.get(3).getFieldValue("score"), is(1.5d));
+    assertThat(documents.get(3).getFieldValue("enforced"), is(true));
+    assertThat(documents.get(3).getFieldValues("tags"), is(asList("a", "b")));
+  }
+
+  @Test
+  public void testWriteCompressed() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    JavabinFileFormat fileFormat = new JavabinFileFormat(new StreamCompressor(CompressionCodec.GZIP), 10);
+    try (DocumentStreamWriter writer = fileFormat.open(outputStream)) {
+      writer.write(document(1));
+    }
+
+    try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+         JavabinDocumentReader reader = new JavabinDocumentReader(inputStream)) {
+      assertThat(reader.readBlock().get(0).getFieldValue("id"), is("1"));
+      assertThat(reader.readBlock(), is(nullValue()));
+    }
+    assertThat(fileFormat.getExtension(), is(".javabin.gz"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadFailsOnOtherFormat() throws Exception {
+    new JavabinDocumentReader(new ByteArrayInputStream("{\"id\":\"1\"}".getBytes("UTF-8")));
+  }
+
+  private Document document(int i) {
+    Map<String, Object> fieldMap = new LinkedHashMap<>();
+    fieldMap.put("id", Integer.toString(i));
+    fieldMap.put("seq_num", (long) i);
+    fieldMap.put("result", i);
+    fieldMap.put("score", 1.5d);
+    fieldMap.put("enforced", true);
+    fieldMap.put("tags", asList("a", "b"));
+    return new Document(fieldMap);
+  }
+}
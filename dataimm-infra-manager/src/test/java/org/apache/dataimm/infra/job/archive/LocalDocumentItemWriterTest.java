@@ -26,13 +26,17 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.easymock.EasyMockRunner;
 import org.easymock.EasyMockSupport;
 import org.easymock.Mock;
@@ -86,6 +90,34 @@ public class LocalDocumentItemWriterTest extends EasyMockSupport {
     assertThat(documentList.get(2).getString("id"), is(DOCUMENT3.getString("id")));
   }
 
+  @Test
+  public void testWriteCompressed() throws Exception {
+    File gzFile = File.createTempFile("LocalDocumentItemWriterTest", "json.gz.tmp");
+    try {
+      itemWriterListener.onCompleted(
+              cmp(new WriteCompletedEvent(gzFile, DOCUMENT, DOCUMENT2), writeCompletedEventEqualityComparator(), EQUAL)); expectLastCall();
+      replayAll();
+
+      LocalDocumentItemWriter gzWriter = new LocalDocumentItemWriter(gzFile, new JsonFileFormat(new StreamCompressor(CompressionCodec.GZIP)), itemWriterListener);
+      gzWriter.write(DOCUMENT);
+      gzWriter.write(DOCUMENT2);
+      gzWriter.close();
+
+      List<Document> documentList = new ArrayList<>();
+      try (InputStream inputStream = new GZIPInputStream(new FileInputStream(gzFile))) {
+        for (String line : IOUtils.readLines(inputStream, "UTF-8")) {
+          documentList.add(OBJECT_MAPPER.readValue(line, Document.class));
+        }
+      }
+      assertThat(documentList.size(), is(2));
+      assertThat(documentList.get(0).getString("id"), is(DOCUMENT.getString("id")));
+      assertThat(documentList.get(1).getString("id"), is(DOCUMENT2.getString("id")));
+    }
+    finally {
+      gzFile.delete();
+    }
+  }
+
   private Comparator<WriteCompletedEvent> writeCompletedEventEqualityComparator() {
     return (o1, o2) -> {
       if (o1.getOutFile().equals(o2.getOutFile()) &&
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelCompressorOutputStreamTest {
+  private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testGzipOutputIsReadableByStandardDecompressor() throws Exception {
+    byte[] data = randomText(123456);
+    byte[] compressed = compress(data, CompressionCodec.GZIP, 1000);
+
+    try (InputStream inputStream = new GzipCompressorInputStream(new ByteArrayInputStream(compressed), true)) {
+      assertThat(IOUtils.toByteArray(inputStream), is(data));
+    }
+  }
+
+  @Test
+  public void testBZip2OutputIsReadableByStandardDecompressor() throws Exception {
+    byte[] data = randomText(54321);
+    byte[] compressed = compress(data, CompressionCodec.BZIP2, 1000);
+
+    try (InputStream inputStream = new BZip2CompressorInputStream(new ByteArrayInputStream(compressed), true)) {
+      assertThat(IOUtils.toByteArray(inputStream), is(data));
+    }
+  }
+
+  @Test
+  public void testEmptyOutputIsAValidStream() throws Exception {
+    byte[] compressed = compress(new byte[0], CompressionCodec.GZIP, 1000);
+
+    try (InputStream inputStream = new GzipCompressorInputStream(new ByteArrayInputStream(compressed), true)) {
+      assertThat(IOUtils.toByteArray(inputStream).length, is(0));
+    }
+  }
+
+  @Test
+  public void testExecutorIsSharedByTheStreams() throws Exception {
+    byte[] data = randomText(12345);
+    compress(data, CompressionCodec.GZIP, 1000);
+    byte[] compressed = compress(data, CompressionCodec.GZIP, 1000);
+
+    assertThat(executorService.isShutdown(), is(false));
+    try (InputStream inputStream = new GzipCompressorInputStream(new ByteArrayInputStream(compressed), true)) {
+      assertThat(IOUtils.toByteArray(inputStream), is(data));
+    }
+  }
+
+  private byte[] compress(byte[] data, CompressionCodec compressionCodec, int blockSize) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream outputStream = new ParallelCompressorOutputStream(compressed, compressionCodec, CompressionCodec.DEFAULT_LEVEL, executorService, 4, blockSize)) {
+      int offset = 0;
+      while (offset < data.length) {
+        int length = Math.min(777, data.length - offset);
+        outputStream.write(data, offset, length);
+        offset += length;
+      }
+    }
+    return compressed.toByteArray();
+  }
+
+  private byte[] randomText(int length) {
+    Random random = new Random(1);
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; ++i)
+      data[i] = (byte) ('a' + random.nextInt(8));
+    return data;
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.dataimm.infra.job.restoring.ParquetArchivedDocumentReader;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParquetDocumentWriterTest {
+  private static final String OTHER_FIELDS_COLUMN =
+          " optional group _other_fields_ (MAP) { repeated group key_value { required binary key (STRING); required binary value (STRING); } }";
+
+  private File outFile;
+
+  @Before
+  public void setUp() throws Exception {
+    outFile = File.createTempFile("ParquetDocumentWriterTest", ".parquet");
+  }
+
+  @After
+  public void tearDown() {
+    outFile.delete();
+  }
+
+  @Test
+  public void testInferSchema() {
+    MessageType schema = ParquetDocumentWriteSupport.infer(asList(
+            document("id", "1", "logtime", "2014-02-04T05:00:00.000Z", "seq_num", 1, "tags", asList("a", "b")),
+            document("id", "2", "logtime", "2014-02-04T05:00:01.000Z", "seq_num", 2L, "score", 1.5d, "level", "INFO"),
+            document("id", "3", "logtime", "not a date", "score", 2, "enforced", true))).getSchema();
+
+    assertThat(schema, is(MessageTypeParser.parseMessageType(
+            "message document {" +
+                    " optional binary id (STRING);" +
+                    " optional binary logtime (STRING);" +
+                    " optional int64 seq_num;" +
+                    " repeated binary tags (STRING);" +
+                    " optional double score;" +
+                    " optional binary level (STRING);" +
+                    " optional boolean enforced;" +
+                    OTHER_FIELDS_COLUMN +
+                    " }")));
+  }
+
+  @Test
+  public void testInferSchemaUsesTheCollectionSchema() {
+    CollectionSchema collectionSchema = new CollectionSchema();
+    collectionSchema.addField("id", "solr.StrField", false);
+    collectionSchema.addField("logtime", "solr.DatePointField", false);
+    collectionSchema.addDynamicField("*_l", "solr.LongPointField", true);
+    collectionSchema.addDynamicField("*", "solr.StrField", false);
+
+    MessageType schema = ParquetDocumentWriteSupport.infer(asList(
+            document("id", "1", "logtime", "2014-02-04T05:00:00.000Z", "count_l", 1, "score", 1.5d)), collectionSchema).getSchema();
+
+    assertThat(schema, is(MessageTypeParser.parseMessageType(
+            "message document {" +
+                    " optional binary id (STRING);" +
+                    " optional int64 logtime (TIMESTAMP(MILLIS,true));" +
+                    " repeated int64 count_l;" +
+                    " optional binary score (STRING);" +
+                    OTHER_FIELDS_COLUMN +
+                    " }")));
+  }
+
+  @Test
+  public void testWriteAndReadBack() throws Exception {
+    try (ParquetDocumentWriter writer = new ParquetDocumentWriter(new FileOutputStream(outFile), CompressionCodecName.GZIP, 1024 * 1024, 2)) {
+      writer.write(document("id", "1", "logtime", "2014-02-04T05:00:00.000Z", "seq_num", 1L, "tags", asList("a", "b")));
+      writer.write(document("id", "2", "logtime", "2014-02-04T05:00:01.000Z", "seq_num", 2L));
+      writer.write(document("id", "3", "logtime", "2014-02-04T05:00:02.000Z", "seq_num", 3, "tags", asList("c")));
+    }
+
+    List<Group> records = readBack();
+    assertThat(records.size(), is(3));
+    assertThat(records.get(0).getString("id", 0), is("1"));
+    assertThat(records.get(0).getLong("logtime", 0), is(1391490000000L));
+    assertThat(records.get(0).getFieldRepetitionCount("tags"), is(2));
+    assertThat(records.get(1).getFieldRepetitionCount("tags"), is(0));
+    assertThat(records.get(2).getLong("seq_num", 0), is(3L));
+    assertThat(records.get(2).getString("tags", 0), is("c"));
+  }
+
+  @Test
+  public void testFieldsWhichDoNotFitTheColumnsAreWrittenIntoOtherFields() throws Exception {
+    try (ParquetDocumentWriter writer = new ParquetDocumentWriter(new FileOutputStream(outFile), CompressionCodecName.UNCOMPRESSED, 1024 * 1024, 1)) {
+      writer.write(document("id", "1", "seq_num", 1L));
+      writer.write(document("id", "2", "seq_num", "two", "level", "INFO", "tags", asList("a", "b")));
+    }
+
+    List<Group> records = readBack();
+    assertThat(records.get(0).getFieldRepetitionCount(ParquetDocumentWriteSupport.OTHER_FIELDS), is(0));
+    assertThat(records.get(1).getFieldRepetitionCount("seq_num"), is(0));
+
+    try (ParquetArchivedDocumentReader reader = new ParquetArchivedDocumentReader(
+            HadoopInputFile.fromPath(new Path(outFile.toURI()), new Configuration()))) {
+      SolrInputDocument first = reader.read();
+      assertThat(first.getFieldValue("seq_num"), is(1L));
+      SolrInputDocument second = reader.read();
+      assertThat(second.getFieldValue("id"), is("2"));
+      assertThat(second.getFieldValue("seq_num"), is("two"));
+      assertThat(second.getFieldValue("level"), is("INFO"));
+      assertThat(second.getFieldValues("tags"), is(asList("a", "b")));
+      assertThat(reader.read(), is(nullValue()));
+    }
+  }
+
+  private List<Group> readBack() throws Exception {
+    List<Group> records = new ArrayList<>();
+    try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), new Path(outFile.toURI())).build()) {
+      Group record;
+      while ((record = reader.read()) != null)
+        records.add(record);
+    }
+    return records;
+  }
+
+  private Document document(Object... keyValues) {
+    Map<String, Object> fieldMap = new LinkedHashMap<>();
+    for (int i = 0; i < keyValues.length; i += 2)
+      fieldMap.put((String) keyValues[i], keyValues[i + 1]);
+    return new Document(fieldMap);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+public class PostProcessingPipelineTest {
+  private static final Document DOCUMENT = new Document(new HashMap<String, Object>() {{ put("id", "1"); }});
+  private static final Document DOCUMENT_2 = new Document(new HashMap<String, Object>() {{ put("id", "2"); }});
+
+  private final List<Document> wipedDocuments = new CopyOnWriteArrayList<>();
+  private PostProcessingPipeline pipeline;
+
+  @After
+  public void tearDown() {
+    if (pipeline != null)
+      pipeline.close();
+  }
+
+  @Test
+  public void testCheckpointIsAvailableOnlyAfterTheFileIsProcessed() throws Exception {
+    CountDownLatch uploaded = new CountDownLatch(1);
+    pipeline = new PostProcessingPipeline(inputFile -> {
+      await(uploaded);
+      return inputFile;
+    }, (firstDocument, lastDocument) -> wipedDocuments.add(firstDocument), 2, 2);
+
+    ExecutionContext readerState = readerState("1");
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file1"), DOCUMENT, DOCUMENT));
+    pipeline.checkpoint(readerState);
+    assertThat(pipeline.pollCheckpoint(), is(nullValue()));
+
+    uploaded.countDown();
+    pipeline.await();
+    assertThat(pipeline.pollCheckpoint(), is(readerState));
+    assertThat(pipeline.pollCheckpoint(), is(nullValue()));
+    assertThat(wipedDocuments.size(), is(1));
+  }
+
+  @Test
+  public void testDocumentsOfLaterFilesAreNotWipedAfterFailure() throws Exception {
+    CountDownLatch secondFileUploaded = new CountDownLatch(1);
+    pipeline = new PostProcessingPipeline(inputFile -> {
+      if ("file1".equals(inputFile.getName())) {
+        await(secondFileUploaded);
+        throw new IllegalStateException("TEST");
+      }
+      secondFileUploaded.countDown();
+      return inputFile;
+    }, (firstDocument, lastDocument) -> wipedDocuments.add(firstDocument), 2, 2);
+
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file1"), DOCUMENT, DOCUMENT));
+    pipeline.checkpoint(readerState("1"));
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file2"), DOCUMENT_2, DOCUMENT_2));
+    pipeline.checkpoint(readerState("2"));
+    pipeline.await();
+
+    try {
+      pipeline.pollCheckpoint();
+      fail("The failure of the first file should be rethrown");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), is("TEST"));
+    }
+    assertThat(wipedDocuments.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testCheckpointOfTheProcessedFilesIsReturnedBeforeTheFailure() throws Exception {
+    pipeline = new PostProcessingPipeline(inputFile -> {
+      if ("file2".equals(inputFile.getName()))
+        throw new IllegalStateException("TEST");
+      return inputFile;
+    }, (firstDocument, lastDocument) -> wipedDocuments.add(firstDocument), 1, 2);
+
+    ExecutionContext firstReaderState = readerState("1");
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file1"), DOCUMENT, DOCUMENT));
+    pipeline.checkpoint(firstReaderState);
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file2"), DOCUMENT_2, DOCUMENT_2));
+    pipeline.checkpoint(readerState("2"));
+    pipeline.await();
+
+    assertThat(pipeline.pollCheckpoint(), is(firstReaderState));
+    try {
+      pipeline.pollCheckpoint();
+      fail("The failure of the second file should be rethrown");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), is("TEST"));
+    }
+    assertThat(wipedDocuments.size(), is(1));
+  }
+
+  @Test
+  public void testRestartRecreatesTheFilesUploadedAfterAFailedFile() throws Exception {
+    Set<String> destination = ConcurrentHashMap.newKeySet();
+    CountDownLatch secondFileUploaded = new CountDownLatch(1);
+    AtomicBoolean failFirstUpload = new AtomicBoolean(true);
+    FileAction uploader = new FileAction() {
+      @Override
+      public File perform(File inputFile) {
+        if ("file1".equals(inputFile.getName()) && failFirstUpload.get()) {
+          await(secondFileUploaded);
+          throw new IllegalStateException("TEST");
+        }
+        if (!destination.add(inputFile.getName()))
+          throw new UnsupportedOperationException(String.format("File '%s' already exists!", inputFile.getName()));
+        secondFileUploaded.countDown();
+        return inputFile;
+      }
+
+      @Override
+      public void revert(File inputFile) {
+        destination.remove(inputFile.getName());
+      }
+    };
+
+    pipeline = new PostProcessingPipeline(uploader, (firstDocument, lastDocument) -> wipedDocuments.add(firstDocument), 2, 2);
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file1"), DOCUMENT, DOCUMENT));
+    pipeline.checkpoint(readerState("1"));
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file2"), DOCUMENT_2, DOCUMENT_2));
+    pipeline.checkpoint(readerState("2"));
+    pipeline.await();
+    try {
+      pipeline.pollCheckpoint();
+      fail("The failure of the first file should be rethrown");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), is("TEST"));
+    }
+    pipeline.close();
+    assertThat(destination.isEmpty(), is(true));
+
+    // The restarted step starts from the persisted checkpoint which covers none of the files
+    failFirstUpload.set(false);
+    pipeline = new PostProcessingPipeline(uploader, (firstDocument, lastDocument) -> wipedDocuments.add(firstDocument), 2, 2);
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file1"), DOCUMENT, DOCUMENT));
+    pipeline.checkpoint(readerState("1"));
+    pipeline.onCompleted(new WriteCompletedEvent(new File("file2"), DOCUMENT_2, DOCUMENT_2));
+    ExecutionContext lastReaderState = readerState("2");
+    pipeline.checkpoint(lastReaderState);
+    pipeline.await();
+
+    assertThat(pipeline.pollCheckpoint(), is(lastReaderState));
+    assertThat(destination.size(), is(2));
+    assertThat(wipedDocuments.size(), is(2));
+  }
+
+  private ExecutionContext readerState(String position) {
+    ExecutionContext executionContext = new ExecutionContext();
+    executionContext.putString("last-read", position);
+    return executionContext;
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
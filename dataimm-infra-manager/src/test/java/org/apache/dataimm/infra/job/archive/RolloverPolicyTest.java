@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.easymock.EasyMockRunner;
+import org.easymock.EasyMockSupport;
+import org.easymock.Mock;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(EasyMockRunner.class)
+public class RolloverPolicyTest extends EasyMockSupport {
+
+  @Mock
+  private DocumentItemWriter writer;
+
+  @After
+  public void tearDown() {
+    verifyAll();
+  }
+
+  @Test
+  public void testDocumentCount() {
+    replayAll();
+    RolloverPolicy rolloverPolicy = new DocumentCountRolloverPolicy(2);
+    assertThat(rolloverPolicy.shouldRollover(writer, 1, document("2014-02-04T05:00:00.000Z"), document("2014-02-04T05:00:00.000Z")), is(false));
+    assertThat(rolloverPolicy.shouldRollover(writer, 2, document("2014-02-04T05:00:00.000Z"), document("2014-02-04T05:00:00.000Z")), is(true));
+  }
+
+  @Test
+  public void testUncompressedSize() {
+    expect(writer.getUncompressedSize()).andReturn(99L);
+    expect(writer.getUncompressedSize()).andReturn(100L);
+    replayAll();
+
+    RolloverPolicy rolloverPolicy = new SizeRolloverPolicy(SizeRolloverPolicy.Measure.UNCOMPRESSED, 100);
+    assertThat(rolloverPolicy.shouldRollover(writer, 1, null, null), is(false));
+    assertThat(rolloverPolicy.shouldRollover(writer, 1, null, null), is(true));
+  }
+
+  @Test
+  public void testFileSize() {
+    expect(writer.getFileSize()).andReturn(101L);
+    replayAll();
+
+    assertThat(new SizeRolloverPolicy(SizeRolloverPolicy.Measure.FILE, 100).shouldRollover(writer, 1, null, null), is(true));
+  }
+
+  @Test
+  public void testTimeBucket() {
+    replayAll();
+    RolloverPolicy rolloverPolicy = new TimeBucketRolloverPolicy("logtime", Duration.ofHours(1));
+    assertThat(rolloverPolicy.shouldRollover(writer, 1, document("2014-02-04T05:00:00.000Z"), document("2014-02-04T05:59:59.999Z")), is(false));
+    assertThat(rolloverPolicy.shouldRollover(writer, 1, document("2014-02-04T05:00:00.000Z"), document("2014-02-04T06:00:00.000Z")), is(true));
+    assertThat(rolloverPolicy.shouldRollover(writer, 1, document("2014-02-04T05:30:00.000Z"), document("2014-02-04T06:10:00.000+01:00")), is(false));
+  }
+
+  @Test
+  public void testCompositeRollsOverWhenAnyPolicyDoes() {
+    expect(writer.getFileSize()).andReturn(0L);
+    replayAll();
+
+    CompositeRolloverPolicy rolloverPolicy = new CompositeRolloverPolicy(new SizeRolloverPolicy(SizeRolloverPolicy.Measure.FILE, 100));
+    rolloverPolicy.add(new TimeBucketRolloverPolicy("logtime", Duration.ofHours(1)));
+    assertThat(rolloverPolicy.shouldRollover(writer, 1, document("2014-02-04T05:00:00.000Z"), document("2014-02-04T06:00:00.000Z")), is(true));
+  }
+
+  @Test
+  public void testAdaptiveDocumentCountMovesTowardTargetFileSize() {
+    expect(writer.getFileSize()).andReturn(4000L);
+    expect(writer.getFileSize()).andReturn(2000L);
+    replayAll();
+
+    AdaptiveDocumentCountRolloverPolicy rolloverPolicy = new AdaptiveDocumentCountRolloverPolicy(10000, 10, 5, 200);
+    assertThat(rolloverPolicy.shouldRollover(writer, 10, null, null), is(true));
+    rolloverPolicy.fileCompleted(writer, 10);
+    assertThat(rolloverPolicy.getDocumentCount(), is(25));
+    rolloverPolicy.fileCompleted(writer, 100);
+    assertThat(rolloverPolicy.getDocumentCount(), is(47));
+    assertThat(rolloverPolicy.shouldRollover(writer, 46, null, null), is(false));
+  }
+
+  private Document document(String logtime) {
+    Map<String, Object> fieldMap = new HashMap<>();
+    fieldMap.put("logtime", logtime);
+    return new Document(fieldMap);
+  }
+}
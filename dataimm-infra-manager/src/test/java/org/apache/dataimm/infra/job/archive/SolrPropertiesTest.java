@@ -63,4 +63,58 @@ public class  SolrPropertiesTest {
     assertThat(solrParameters.getSortColumn().length, is(1));
     assertThat(solrParameters.getSortColumn()[0], is("testColumn"));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testMergeFields() {
+    JobParameters jobParameters = new JobParametersBuilder()
+            .addString("fields[0]", "id")
+            .addString("fields[1]", "logtime")
+            .toJobParameters();
+
+    SolrProperties solrProperties = new SolrProperties();
+    solrProperties.setFields(new String[] {"testField"});
+    SolrProperties solrParameters = solrProperties.merge(jobParameters);
+    assertThat(solrParameters.getFields().length, is(2));
+    assertThat(solrParameters.getFields()[0], is("id"));
+    assertThat(solrParameters.getFields()[1], is("logtime"));
+  }
+
+  @Test
+  public void testMergeExcludeFields() {
+    JobParameters jobParameters = new JobParametersBuilder()
+            .addString("excludeFields[0]", "_version_")
+            .addString("excludeFields[1]", "reqData*")
+            .toJobParameters();
+
+    SolrProperties solrParameters = new SolrProperties().merge(jobParameters);
+    assertThat(solrParameters.getExcludeFields().length, is(2));
+    assertThat(solrParameters.getExcludeFields()[0], is("_version_"));
+    assertThat(solrParameters.getExcludeFields()[1], is("reqData*"));
+  }
+
+  @Test
+  public void testFieldProjectionIsNullWhenNoFieldIsIncludedOrExcluded() {
+    assertThat(new SolrProperties().fieldProjection("logtime"), is(nullValue()));
+  }
+
+  @Test
+  public void testFieldProjectionKeepsTheFieldsOfSortingAndDeleting() {
+    SolrProperties solrProperties = new SolrProperties();
+    solrProperties.setFields(new String[] {"message"});
+    solrProperties.setSortColumn(new String[] {"logtime", "id"});
+    solrProperties.setFilterQueryText("(logtime:${logtime} AND id:{${id} TO *]) OR logtime:{${logtime} TO ${end}]");
+    solrProperties.setDeleteQueryText("logtime:[${start.logtime} TO ${end.evtTime}]");
+
+    assertThat(solrProperties.fieldProjection("cluster").toFieldList(),
+            is(new String[] {"message", "logtime", "id", "evtTime", "cluster"}));
+  }
+
+  @Test
+  public void testMergeUniqueKeyDefaultsToId() {
+    JobParameters jobParameters = new JobParametersBuilder()
+            .toJobParameters();
+
+    SolrProperties solrParameters = new SolrProperties().merge(jobParameters);
+    assertThat(solrParameters.getUniqueKey(), is("id"));
+  }
+}
@@ -90,6 +90,18 @@ public class SolrQueryBuilderTest {
     assertThat(solrQuery.getFilterQueries(), is(nullValue()));
   }
 
+  @Test
+  public void testCursorMarkIsSetWhenSpecified() throws Exception {
+    SolrQuery solrQuery = new SolrQueryBuilder().addSort("logtime", "id").setCursorMark("*").build();
+    assertThat(solrQuery.get("cursorMark"), is("*"));
+  }
+
+  @Test
+  public void testCursorMarkIsNotSetByDefault() throws Exception {
+    SolrQuery solrQuery = new SolrQueryBuilder().addSort("logtime", "id").build();
+    assertThat(solrQuery.get("cursorMark"), is(nullValue()));
+  }
+
   @Test
   public void testSort() throws Exception {
     SolrQuery solrQuery = new SolrQueryBuilder().addSort("logtime", "id").build();
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.dataimm.infra.job.SolrClientRegistry;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.common.cloud.ClusterState;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Slice;
+import org.apache.solr.common.cloud.ZkStateReader;
+import org.easymock.EasyMockRunner;
+import org.easymock.EasyMockSupport;
+import org.easymock.Mock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
+
+@RunWith(EasyMockRunner.class)
+public class SolrShardPartitionerTest extends EasyMockSupport {
+  private static final String ZOO_KEEPER_CONNECTION_STRING = "localhost:9983";
+  private static final String COLLECTION = "audit_logs";
+
+  @Mock
+  private SolrClientRegistry solrClientRegistry;
+  @Mock
+  private SolrClientRegistry.Lease lease;
+  @Mock
+  private CloudSolrClient client;
+  @Mock
+  private ZkStateReader zkStateReader;
+  @Mock
+  private ClusterState clusterState;
+  @Mock
+  private DocCollection docCollection;
+  @Mock
+  private Slice shard1;
+  @Mock
+  private Slice shard2;
+
+  private SolrProperties solrProperties;
+
+  @Before
+  public void setUp() {
+    solrProperties = new SolrProperties();
+    solrProperties.setZooKeeperConnectionString(ZOO_KEEPER_CONNECTION_STRING);
+    solrProperties.setCollection(COLLECTION);
+
+    expect(solrClientRegistry.acquire(ZOO_KEEPER_CONNECTION_STRING)).andReturn(lease);
+    expect(lease.getClient()).andReturn(client);
+    client.connect(); expectLastCall();
+    expect(client.getZkStateReader()).andReturn(zkStateReader);
+    expect(zkStateReader.getClusterState()).andReturn(clusterState);
+    expect(clusterState.getCollection(COLLECTION)).andReturn(docCollection);
+    expect(docCollection.getActiveSlices()).andReturn(asList(shard1, shard2));
+    expect(shard1.getName()).andReturn("shard1").anyTimes();
+    expect(shard2.getName()).andReturn("shard2").anyTimes();
+    lease.close(); expectLastCall();
+  }
+
+  @After
+  public void tearDown() {
+    verifyAll();
+  }
+
+  @Test
+  public void testEveryActiveShardIsPartitionedWhenNoShardIsPlanned() {
+    replayAll();
+
+    Map<String, ExecutionContext> partitions = new SolrShardPartitioner(solrClientRegistry, solrProperties, new ExecutionContext()).partition(1);
+
+    assertThat(partitions.keySet(), is(new HashSet<>(asList("shard1", "shard2"))));
+    assertThat(partitions.get("shard1").getString(SolrShardPartitioner.SHARD), is("shard1"));
+    assertThat(partitions.get("shard2").getString(SolrShardPartitioner.SHARD), is("shard2"));
+  }
+
+  @Test
+  public void testOnlyThePlannedShardsArePartitioned() {
+    replayAll();
+
+    ExecutionContext jobExecutionContext = new ExecutionContext();
+    jobExecutionContext.put(SolrShardPartitioner.SHARDS, asList("shard2"));
+    Map<String, ExecutionContext> partitions = new SolrShardPartitioner(solrClientRegistry, solrProperties, jobExecutionContext).partition(1);
+
+    assertThat(partitions.keySet(), is(new HashSet<>(asList("shard2"))));
+    assertThat(partitions.get("shard2").getString(SolrShardPartitioner.SHARD), is("shard2"));
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class TimeRangePlannerTest {
+  private static final Instant DAY_1 = Instant.parse("2018-01-01T00:00:00Z");
+  private static final long DAY = Duration.ofDays(1).toMillis();
+
+  @Test
+  public void testEmptyIntervalIsOnePartition() {
+    List<TimeRangePartition> plan = new TimeRangePlanner(new Distribution(new ArrayList<>()), "logtime", 4)
+            .plan(null, "2018-01-10T00:00:00.000Z");
+    assertThat(plan.size(), is(1));
+    assertThat(plan.get(0).getStart(), is("*"));
+    assertThat(plan.get(0).getEnd(), is("2018-01-10T00:00:00.000Z"));
+  }
+
+  @Test
+  public void testUniformDocumentsAreSplitEvenly() {
+    List<Instant> documents = new ArrayList<>();
+    for (int i = 0; i < 8000; ++i)
+      documents.add(DAY_1.plusMillis(i * DAY / 1000));
+    Distribution distribution = new Distribution(documents);
+
+    List<TimeRangePartition> plan = new TimeRangePlanner(distribution, "logtime", 4).plan("*", "*");
+
+    assertThat(plan.size(), is(4));
+    assertCovers(plan, distribution);
+    for (TimeRangePartition partition : plan)
+      assertThat(Math.abs(partition.getDocumentCount() - 2000), lessThanOrEqualTo(200L));
+  }
+
+  @Test
+  public void testSkewedDayIsSplitIntoSeveralPartitions() {
+    List<Instant> documents = new ArrayList<>();
+    for (int day = 0; day < 10; ++day) {
+      int count = day == 3 ? 5000 : 100;
+      for (int i = 0; i < count; ++i)
+        documents.add(DAY_1.plusMillis(day * DAY + i * (DAY / count)));
+    }
+    Distribution distribution = new Distribution(documents);
+
+    List<TimeRangePartition> plan = new TimeRangePlanner(distribution, "logtime", 4).plan("2018-01-01T00:00:00.000Z", null);
+
+    assertThat(plan.size(), is(4));
+    assertThat(plan.get(0).getStart(), is("2018-01-01T00:00:00.000Z"));
+    assertThat(plan.get(3).getEnd(), is("*"));
+    assertCovers(plan, distribution);
+    for (TimeRangePartition partition : plan)
+      assertThat(partition.getDocumentCount(), lessThanOrEqualTo(5900 / 4 + 200L));
+  }
+
+  @Test
+  public void testSplitByTimeSpanMergesEmptySpans() {
+    List<Instant> documents = new ArrayList<>();
+    for (int day : new int[] {0, 1, 4}) {
+      for (int i = 0; i < 10; ++i)
+        documents.add(DAY_1.plusMillis(day * DAY + i * 1000));
+    }
+    Distribution distribution = new Distribution(documents);
+
+    List<TimeRangePartition> plan = new TimeRangePlanner(distribution, "logtime", 1).split("*", "*", Duration.ofDays(1));
+
+    assertThat(plan.size(), is(3));
+    assertThat(plan.get(1).getEnd(), is("2018-01-02T23:59:59.999Z"));
+    assertThat(plan.get(2).getStart(), is("2018-01-03T00:00:00Z"));
+    assertCovers(plan, distribution);
+  }
+
+  private void assertCovers(List<TimeRangePartition> plan, Distribution distribution) {
+    long total = 0;
+    for (int i = 0; i < plan.size(); ++i) {
+      TimeRangePartition partition = plan.get(i);
+      assertThat(distribution.countBetween(partition.getStart(), partition.getEnd()), is(partition.getDocumentCount()));
+      if (i > 0)
+        assertThat(Instant.parse(partition.getStart()), is(Instant.parse(plan.get(i - 1).getEnd()).plusMillis(1)));
+      total += partition.getDocumentCount();
+    }
+    assertThat(total, is((long) distribution.documents.size()));
+  }
+
+  private static class Distribution implements DocumentDistribution {
+    private final List<Instant> documents;
+
+    private Distribution(List<Instant> documents) {
+      this.documents = documents;
+    }
+
+    @Override
+    public Optional<Instant> min(String start, String end, String column) {
+      return documents.stream().min(Instant::compareTo);
+    }
+
+    @Override
+    public Optional<Instant> max(String start, String end, String column) {
+      return documents.stream().max(Instant::compareTo);
+    }
+
+    @Override
+    public long[] count(String start, String end, String column, Instant from, Duration gap, int buckets) {
+      long[] counts = new long[buckets];
+      for (Instant document : documents) {
+        long index = Duration.between(from, document).toMillis() / gap.toMillis();
+        if (!document.isBefore(from) && index < buckets)
+          ++counts[(int) index];
+      }
+      return counts;
+    }
+
+    private long countBetween(String start, String end) {
+      return documents.stream()
+              .filter(document -> "*".equals(start) || !document.isBefore(Instant.parse(start)))
+              .filter(document -> "*".equals(end) || !document.isAfter(Instant.parse(end)))
+              .count();
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.archive;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.solr.client.solrj.request.CollectionAdminRequest;
+import org.apache.solr.client.solrj.response.CollectionAdminResponse;
+import org.junit.Test;
+
+public class TimeShardRotationTest {
+  private static final Duration DAY = Duration.ofDays(1);
+
+  @Test
+  public void testShardNameIsTheStartOfThePeriod() {
+    assertThat(TimeShardRotation.shardName(Instant.parse("2018-01-01T23:59:59.999Z"), DAY), is("time_20180101T0000"));
+    assertThat(TimeShardRotation.shardName(Instant.parse("2018-01-01T19:30:00Z"), Duration.ofHours(6)), is("time_20180101T1800"));
+    assertThat(TimeShardRotation.shardStart("time_20180101T1800"), is(Optional.of(Instant.parse("2018-01-01T18:00:00Z"))));
+    assertThat(TimeShardRotation.shardStart("shard0"), is(Optional.empty()));
+  }
+
+  @Test
+  public void testShardsExpireWhenTheirPeriodEndedBeforeTheCutoff() {
+    assertThat(TimeShardRotation.expiredShards(
+            Arrays.asList("time_20180103T0000", "shard0", "time_20180101T0000", "time_20180102T0000"), DAY, Instant.parse("2018-01-02T23:59:59Z")),
+            is(Arrays.asList("time_20180101T0000")));
+  }
+
+  @Test
+  public void testExpiredShardIsExportedWithoutTheIntervalFilter() {
+    SolrProperties solrProperties = solrProperties();
+    solrProperties.setQueryText("logtime:[${start} TO ${end}]");
+
+    SolrProperties exportProperties = TimeShardRotation.exportProperties(solrProperties);
+
+    assertThat(exportProperties.toQueryBuilder().setInterval(null, null).build().getQuery(), is("*:*"));
+    assertThat(exportProperties.getCollection(), is("audit_logs"));
+    assertThat(solrProperties.getQueryText(), is("logtime:[${start} TO ${end}]"));
+  }
+
+  @Test
+  public void testShardHoldingADocumentOutsideOfTheIntervalIsDeletedOnlyWhenItWasArchived() {
+    // Two documents of the shard are in the archived interval and one was indexed with an older logtime
+    RecordingRotation rotation = new RecordingRotation(3);
+    try {
+      rotation.deleteShards(singletonList("time_20180101T0000"), singletonMap("time_20180101T0000", 2L));
+      fail("The shard should not be deleted");
+    } catch (IllegalStateException e) {
+      assertThat(rotation.deletedShards.isEmpty(), is(true));
+    }
+
+    rotation.deleteShards(singletonList("time_20180101T0000"), singletonMap("time_20180101T0000", 3L));
+    assertThat(rotation.deletedShards, is(singletonList("time_20180101T0000")));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testShardWithoutCompletedExportIsNotDeleted() {
+    new RecordingRotation(0).deleteShards(singletonList("time_20180101T0000"), new HashMap<>());
+  }
+
+  @Test
+  public void testPeriodsMustBeAlignedToDays() {
+    assertThat(TimeShardRotation.isValidPeriod(Duration.ofHours(6)), is(true));
+    assertThat(TimeShardRotation.isValidPeriod(Duration.ofDays(7)), is(true));
+    assertThat(TimeShardRotation.isValidPeriod(Duration.ofHours(7)), is(false));
+  }
+
+  private static SolrProperties solrProperties() {
+    SolrProperties solrProperties = new SolrProperties();
+    solrProperties.setZooKeeperConnectionString("localhost:2181");
+    solrProperties.setCollection("audit_logs");
+    return solrProperties;
+  }
+
+  private static class RecordingRotation extends TimeShardRotation {
+    private final long documentCount;
+    private final List<String> deletedShards = new ArrayList<>();
+
+    private RecordingRotation(long documentCount) {
+      super(null, solrProperties(), DAY);
+      this.documentCount = documentCount;
+    }
+
+    @Override
+    Set<String> activeShards() {
+      return new HashSet<>(Arrays.asList("time_20180101T0000", "time_20180102T0000"));
+    }
+
+    @Override
+    long countDocuments(String shardName) {
+      return documentCount;
+    }
+
+    @Override
+    void process(CollectionAdminRequest<CollectionAdminResponse> request) {
+      deletedShards.add(request.getParams().get("shard"));
+    }
+  }
+}
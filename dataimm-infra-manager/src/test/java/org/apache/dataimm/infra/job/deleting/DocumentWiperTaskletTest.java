@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.deleting;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.dataimm.infra.job.archive.TimeRangePartition;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+public class DocumentWiperTaskletTest {
+  private final List<String> deleted = Collections.synchronizedList(new ArrayList<>());
+  private final List<Integer> commits = new ArrayList<>();
+  private final List<DocumentWiperTasklet> tasklets = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    for (DocumentWiperTasklet tasklet : tasklets)
+      tasklet.afterStep(new StepExecution("deleteStep", new JobExecution(1L)));
+  }
+
+  @Test
+  public void testRestartContinuesWithTheFailedGroup() throws Exception {
+    ExecutionContext executionContext = executionContext(5);
+    RecordingTasklet tasklet = new RecordingTasklet(properties(2, 1), "logtime:[3 TO 4]");
+    assertThat(execute(tasklet, executionContext), is(RepeatStatus.CONTINUABLE));
+    try {
+      execute(tasklet, executionContext);
+      fail("The second group should fail");
+    } catch (IllegalStateException e) {
+      assertThat(executionContext.getInt(DocumentWiperTasklet.COMPLETED_CHUNK_COUNT), is(2));
+    }
+
+    deleted.clear();
+    RecordingTasklet restarted = new RecordingTasklet(properties(2, 1), null);
+    ExecutionContext restartedContext = new ExecutionContext(executionContext);
+    assertThat(execute(restarted, restartedContext), is(RepeatStatus.CONTINUABLE));
+    Collections.sort(deleted);
+    assertThat(deleted, is(asList("logtime:[2 TO 3]", "logtime:[3 TO 4]")));
+    assertThat(execute(restarted, restartedContext), is(RepeatStatus.FINISHED));
+    assertThat(deleted.get(2), is("logtime:[4 TO 5]"));
+    assertThat(restartedContext.getInt(DocumentWiperTasklet.COMPLETED_CHUNK_COUNT), is(5));
+  }
+
+  @Test
+  public void testCommitsAfterEveryCommitChunkCountChunksAndAtTheEnd() throws Exception {
+    ExecutionContext executionContext = executionContext(5);
+    RecordingTasklet tasklet = new RecordingTasklet(properties(1, 2), null);
+    RepeatStatus status;
+    do {
+      status = execute(tasklet, executionContext);
+    } while (status == RepeatStatus.CONTINUABLE);
+
+    assertThat(deleted.size(), is(5));
+    assertThat(commits, is(asList(2, 4, 5)));
+  }
+
+  @Test
+  public void testCommitCadenceCountsChunksOfConcurrentGroups() throws Exception {
+    ExecutionContext executionContext = executionContext(7);
+    RecordingTasklet tasklet = new RecordingTasklet(properties(2, 3), null);
+    RepeatStatus status;
+    do {
+      status = execute(tasklet, executionContext);
+    } while (status == RepeatStatus.CONTINUABLE);
+
+    assertThat(commits, is(asList(4, 6, 7)));
+  }
+
+  private DeletingProperties properties(int threadCount, int commitChunkCount) {
+    DeletingProperties properties = new DeletingProperties();
+    properties.setFilterField("logtime");
+    properties.setThreadCount(threadCount);
+    properties.setCommitChunkCount(commitChunkCount);
+    return properties;
+  }
+
+  private ExecutionContext executionContext(int chunkCount) {
+    List<TimeRangePartition> chunks = new ArrayList<>();
+    for (int i = 0; i < chunkCount; ++i)
+      chunks.add(new TimeRangePartition(Integer.toString(i), Integer.toString(i), Integer.toString(i + 1), 10));
+    ExecutionContext executionContext = new ExecutionContext();
+    executionContext.put(DocumentWiperTasklet.CHUNKS, chunks);
+    return executionContext;
+  }
+
+  private RepeatStatus execute(DocumentWiperTasklet tasklet, ExecutionContext executionContext) throws Exception {
+    StepExecution stepExecution = new StepExecution("deleteStep", new JobExecution(1L));
+    stepExecution.setExecutionContext(executionContext);
+    return tasklet.execute(new StepContribution(stepExecution), new ChunkContext(new StepContext(stepExecution)));
+  }
+
+  private class RecordingTasklet extends DocumentWiperTasklet {
+    private final String failingQuery;
+
+    private RecordingTasklet(DeletingProperties properties, String failingQuery) {
+      super(null, properties);
+      this.failingQuery = failingQuery;
+      tasklets.add(this);
+    }
+
+    @Override
+    protected void delete(String deleteQueryText, boolean commit) {
+      if (deleteQueryText.equals(failingQuery))
+        throw new IllegalStateException("solr is down");
+      deleted.add(deleteQueryText);
+    }
+
+    @Override
+    public void commit() {
+      commits.add(deleted.size());
+    }
+  }
+}
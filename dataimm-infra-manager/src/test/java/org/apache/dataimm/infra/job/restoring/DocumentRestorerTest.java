@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.dataimm.infra.job.archive.CompressionCodec;
+import org.apache.dataimm.infra.job.archive.Document;
+import org.apache.dataimm.infra.job.archive.DocumentFileFormat;
+import org.apache.dataimm.infra.job.archive.DocumentStreamWriter;
+import org.apache.dataimm.infra.job.archive.JavabinFileFormat;
+import org.apache.dataimm.infra.job.archive.JsonFileFormat;
+import org.apache.dataimm.infra.job.archive.ManifestSettings;
+import org.apache.dataimm.infra.job.archive.StreamCompressor;
+import org.apache.solr.common.SolrInputDocument;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMockRunner;
+import org.easymock.EasyMockSupport;
+import org.easymock.Mock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+
+@RunWith(EasyMockRunner.class)
+public class DocumentRestorerTest extends EasyMockSupport {
+  private static final TimeRange UNBOUNDED = new TimeRange(null, "*", "*");
+
+  @Mock
+  private SolrDocumentIndexer documentIndexer;
+
+  private File directory;
+  private LocalArchiveSource archiveSource;
+  private final Capture<List<SolrInputDocument>> batches = Capture.newInstance(CaptureType.ALL);
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("restore").toFile();
+    archiveSource = new LocalArchiveSource(directory);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    verifyAll();
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void testRestoreWholeFileInBatches() throws Exception {
+    write("audit_logs_-_1.json.gz", new JsonFileFormat(new StreamCompressor(CompressionCodec.GZIP)), 5);
+    expect(documentIndexer.add(capture(batches))).andReturn(CompletableFuture.completedFuture(null)).times(3);
+    replayAll();
+
+    StepContribution contribution = restore("audit_logs_-_1.json.gz", UNBOUNDED);
+
+    assertThat(ids(batches.getValues()), is(asList("0", "1", "2", "3", "4")));
+    assertThat(batches.getValues().get(2).size(), is(1));
+    assertThat(contribution.getWriteCount(), is(5));
+  }
+
+  @Test
+  public void testRestoreOnlyBlocksOverlappingTheTimeRange() throws Exception {
+    write("audit_logs_-_1.json.gz", new JsonFileFormat(new StreamCompressor(CompressionCodec.GZIP), new ManifestSettings(2, asList("logtime"))), 5);
+    expect(documentIndexer.add(capture(batches))).andReturn(CompletableFuture.completedFuture(null));
+    replayAll();
+
+    StepContribution contribution = restore("audit_logs_-_1.json.gz",
+            new TimeRange("logtime", "2014-04-04T05:00:03Z", "2014-04-04T05:00:04.000Z"));
+
+    assertThat(ids(batches.getValues()), is(asList("3")));
+    assertThat(contribution.getReadCount(), is(2));
+    assertThat(contribution.getFilterCount(), is(1));
+  }
+
+  @Test
+  public void testRestoreJavabinBlockAfterTheHeader() throws Exception {
+    write("audit_logs_-_1.javabin.zst", new JavabinFileFormat(new StreamCompressor(CompressionCodec.ZSTD), 2, new ManifestSettings(2, asList("logtime"))), 5);
+    expect(documentIndexer.add(capture(batches))).andReturn(CompletableFuture.completedFuture(null));
+    replayAll();
+
+    StepContribution contribution = restore("audit_logs_-_1.javabin.zst", new TimeRange("logtime", "2014-04-04T05:00:04.000Z", "*"));
+
+    assertThat(ids(batches.getValues()), is(asList("4")));
+    assertThat(contribution.getReadCount(), is(1));
+  }
+
+  @Test
+  public void testRestoredDocumentsHaveNoVersion() throws Exception {
+    write("audit_logs_-_1.javabin", new JavabinFileFormat(new StreamCompressor(CompressionCodec.NONE), 2), 1);
+    expect(documentIndexer.add(capture(batches))).andReturn(CompletableFuture.completedFuture(null));
+    replayAll();
+
+    restore("audit_logs_-_1.javabin", UNBOUNDED);
+
+    SolrInputDocument document = batches.getValue().get(0);
+    assertThat(document.getFieldValue("id"), is("0"));
+    assertThat(document.getFieldValue("_version_"), is(nullValue()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFailedBatchFailsTheFile() throws Exception {
+    write("audit_logs_-_1.json", new JsonFileFormat(new StreamCompressor(CompressionCodec.NONE)), 1);
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException("solr is down"));
+    expect(documentIndexer.add(capture(batches))).andReturn(failed);
+    replayAll();
+
+    restore("audit_logs_-_1.json", UNBOUNDED);
+  }
+
+  private StepContribution restore(String fileName, TimeRange timeRange) throws Exception {
+    StepExecution stepExecution = new StepExecution("restorePartition", new JobExecution(1L));
+    StepContribution contribution = new StepContribution(stepExecution);
+    ArchiveFile archiveFile = ArchiveFile.of(fileName).orElseThrow(IllegalArgumentException::new);
+    new DocumentRestorer(archiveSource, archiveFile, documentIndexer, timeRange, 2)
+            .execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+    return contribution;
+  }
+
+  private void write(String fileName, DocumentFileFormat fileFormat, int count) throws IOException {
+    File file = new File(directory, fileName);
+    try (OutputStream outputStream = new FileOutputStream(file);
+         OutputStream manifestOutputStream = new FileOutputStream(new File(directory, fileName + ".manifest"));
+         DocumentStreamWriter writer = fileFormat.open(outputStream, manifestOutputStream)) {
+      for (int i = 0; i < count; ++i)
+        writer.write(document(i));
+    }
+  }
+
+  private Document document(int i) {
+    Map<String, Object> fieldMap = new HashMap<>();
+    fieldMap.put("id", Integer.toString(i));
+    fieldMap.put("logtime", String.format("2014-04-04T05:00:0%d.000Z", i));
+    fieldMap.put("_version_", 1600000000000000000L + i);
+    return new Document(fieldMap);
+  }
+
+  private List<String> ids(List<List<SolrInputDocument>> batches) {
+    List<String> ids = new ArrayList<>();
+    for (List<SolrInputDocument> batch : batches) {
+      for (SolrInputDocument document : batch)
+        ids.add(document.getFieldValue("id").toString());
+    }
+    return ids;
+  }
+}
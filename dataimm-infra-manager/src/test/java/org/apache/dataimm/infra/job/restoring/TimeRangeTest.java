@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.job.restoring;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.util.Collections;
+
+import org.apache.dataimm.infra.job.archive.ArchiveFormat;
+import org.apache.dataimm.infra.job.archive.CompressionCodec;
+import org.junit.Test;
+
+public class TimeRangeTest {
+  private final TimeRange timeRange = new TimeRange("logtime", "2014-04-04T05:00:00Z", "2014-04-04T06:00:00.000Z");
+
+  @Test
+  public void testContainsIsHalfOpen() {
+    assertThat(timeRange.contains("2014-04-04T05:00:00.000Z"), is(true));
+    assertThat(timeRange.contains("2014-04-04T05:59:59.999Z"), is(true));
+    assertThat(timeRange.contains("2014-04-04T06:00:00.000Z"), is(false));
+    assertThat(timeRange.contains("2014-04-04T04:59:59.999Z"), is(false));
+    assertThat(timeRange.contains(null), is(false));
+    assertThat(timeRange.contains(asList("2014-04-04T04:00:00.000Z", "2014-04-04T05:30:00.000Z")), is(true));
+  }
+
+  @Test
+  public void testUnboundedContainsEverything() {
+    TimeRange unbounded = new TimeRange(null, "*", null);
+    assertThat(unbounded.isUnbounded(), is(true));
+    assertThat(unbounded.contains(null), is(true));
+  }
+
+  @Test
+  public void testNumbersAreComparedByValue() {
+    TimeRange numberRange = new TimeRange("seq_num", "9", "100");
+    assertThat(numberRange.contains(10L), is(true));
+    assertThat(numberRange.contains(100), is(false));
+  }
+
+  @Test
+  public void testOverlaps() {
+    assertThat(timeRange.overlaps(
+            singletonMap("logtime", "2014-04-04T04:00:00.000Z"), singletonMap("logtime", "2014-04-04T05:00:00.000Z")), is(true));
+    assertThat(timeRange.overlaps(
+            singletonMap("logtime", "2014-04-04T04:00:00.000Z"), singletonMap("logtime", "2014-04-04T04:59:59.999Z")), is(false));
+    assertThat(timeRange.overlaps(
+            singletonMap("logtime", "2014-04-04T06:00:00.000Z"), singletonMap("logtime", "2014-04-04T07:00:00.000Z")), is(false));
+    assertThat(timeRange.overlaps(Collections.emptyMap(), Collections.emptyMap()), is(true));
+  }
+
+  @Test
+  public void testArchiveFileIsRecognizedByExtension() {
+    assertThat(ArchiveFile.of("audit_logs_-_2014-04-04T05-00-00.000Z.json.bz2").get().getFormat(), is(ArchiveFormat.JSON));
+    assertThat(ArchiveFile.of("audit_logs_-_2014-04-04T05-00-00.000Z.json.bz2").get().getCompression(), is(CompressionCodec.BZIP2));
+    assertThat(ArchiveFile.of("a/audit_logs.javabin").get().getFormat(), is(ArchiveFormat.JAVABIN));
+    assertThat(ArchiveFile.of("audit_logs.parquet").get().getCompression(), is(CompressionCodec.NONE));
+    assertThat(ArchiveFile.of("audit_logs.json.gz.manifest").isPresent(), is(false));
+    assertThat(ArchiveFile.of("audit_logs.json.gz._COPYING_").isPresent(), is(false));
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.dataimm.infra.solr;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +31,7 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.lang.StringUtils;
+import org.apache.dataimm.infra.solr.util.TimeShardUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +46,7 @@ public class DataimmSolrCloudCLI {
   private static final String DOWNLOAD_CONFIG_COMMAND = "download-config";
   private static final String CONFIG_CHECK_COMMAND = "check-config";
   private static final String CREATE_SHARD_COMMAND = "create-shard";
+  private static final String DELETE_SHARD_COMMAND = "delete-shard";
   private static final String CREATE_ZNODE = "create-znode";
   private static final String SET_CLUSTER_PROP = "cluster-prop";
   private static final String SETUP_KERBEROS_PLUGIN = "setup-kerberos-plugin";
@@ -65,7 +68,9 @@ public class DataimmSolrCloudCLI {
       + "\n./solrCloudCli.sh --upload-config -z host1:2181,host2:2181/dataimm-solr -d /tmp/myconfig_dir -cs config_set"
       + "\n./solrCloudCli.sh --download-config -z host1:2181,host2:2181/dataimm-solr -cs config_set -d /tmp/myonfig_dir"
       + "\n./solrCloudCli.sh --check-config -z host1:2181,host2:2181/dataimm-solr -cs config_set"
+      + "\n./solrCloudCli.sh --create-collection -z host1:2181,host2:2181/dataimm-solr -c collection -cs conf_set -ir -tsp P1D -tsa 2"
       + "\n./solrCloudCli.sh --create-shard -z host1:2181,host2:2181/dataimm-solr -c collection -sn myshard"
+      + "\n./solrCloudCli.sh --delete-shard -z host1:2181,host2:2181/dataimm-solr -c collection -sn time_20240101T0000"
       + "\n./solrCloudCli.sh --remove-admin-handlers -z host1:2181,host2:2181/dataimm-solr -c collection"
       + "\n./solrCloudCli.sh --dump-collections -z host1:2181,host2:2181/dataimm-solr -o collection-data.json"
       + "\n./solrCloudCli.sh --create-znode -z host1:2181,host2:2181 -zn /dataimm-solr"
@@ -120,6 +125,11 @@ public class DataimmSolrCloudCLI {
       .desc("Create shard in Solr (command)")
       .build();
 
+    final Option deleteShardOption = Option.builder("dsh")
+      .longOpt(DELETE_SHARD_COMMAND)
+      .desc("Delete shard with its documents from Solr, e.g. an expired time shard (command)")
+      .build();
+
     final Option setClusterPropOption = Option.builder("cp")
       .longOpt(SET_CLUSTER_PROP)
       .desc("Set cluster property (command)")
@@ -172,7 +182,7 @@ public class DataimmSolrCloudCLI {
 
     final Option shardNameOption = Option.builder("sn")
       .longOpt("shard-name")
-      .desc("Name of the shard for create-shard command")
+      .desc("Name of the shard for create-shard and delete-shard commands")
       .numberOfArgs(1)
       .argName("my_new_shard")
       .build();
@@ -182,6 +192,20 @@ public class DataimmSolrCloudCLI {
       .desc("Use implicit routing when creating a collection")
       .build();
 
+    final Option timeShardPeriodOption = Option.builder("tsp")
+      .longOpt("time-shard-period")
+      .desc("Period of the time routed shards of an implicitly routed collection as ISO-8601 duration (e.g. PT1H, P1D)")
+      .numberOfArgs(1)
+      .argName("period")
+      .build();
+
+    final Option timeShardsAheadOption = Option.builder("tsa")
+      .longOpt("time-shards-ahead")
+      .desc("Number of time shards created ahead of the current period [default:1]")
+      .numberOfArgs(1)
+      .argName("number of shards")
+      .build();
+
     final Option zkConnectStringOption = Option.builder("z")
       .longOpt("zookeeper-connect-string")
       .desc("Zookeeper quorum [and Znode (optional)]")
@@ -415,11 +439,14 @@ public class DataimmSolrCloudCLI {
     options.addOption(routerFieldOption);
     options.addOption(shardNameOption);
     options.addOption(implicitRoutingOption);
+    options.addOption(timeShardPeriodOption);
+    options.addOption(timeShardsAheadOption);
     options.addOption(createCollectionOption);
     options.addOption(downloadConfigOption);
     options.addOption(uploadConfigurationOption);
     options.addOption(checkConfigOption);
     options.addOption(createShardOption);
+    options.addOption(deleteShardOption);
     options.addOption(jaasFileOption);
     options.addOption(keyStoreLocationOption);
     options.addOption(keyStorePasswordOption);
@@ -470,6 +497,9 @@ public class DataimmSolrCloudCLI {
       } else if (cli.hasOption("csh")) {
         command = CREATE_SHARD_COMMAND;
         validateRequiredOptions(cli, command, zkConnectStringOption, collectionOption, shardNameOption);
+      } else if (cli.hasOption("dsh")) {
+        command = DELETE_SHARD_COMMAND;
+        validateRequiredOptions(cli, command, zkConnectStringOption, collectionOption, shardNameOption);
       } else if (cli.hasOption("chc")) {
         command = CONFIG_CHECK_COMMAND;
         validateRequiredOptions(cli, command, zkConnectStringOption, configSetOption);
@@ -510,7 +540,7 @@ public class DataimmSolrCloudCLI {
         command = SET_AUTO_SCALING_COMMAND;
         validateRequiredOptions(cli, command, zkConnectStringOption, znodeOption, autoScalingJsonLocationOption);
       } else {
-        List<String> commands = Arrays.asList(CREATE_COLLECTION_COMMAND, CREATE_SHARD_COMMAND, UPLOAD_CONFIG_COMMAND,
+        List<String> commands = Arrays.asList(CREATE_COLLECTION_COMMAND, CREATE_SHARD_COMMAND, DELETE_SHARD_COMMAND, UPLOAD_CONFIG_COMMAND,
           DOWNLOAD_CONFIG_COMMAND, CONFIG_CHECK_COMMAND, SET_CLUSTER_PROP, CREATE_ZNODE, SECURE_ZNODE_COMMAND, UNSECURE_ZNODE_COMMAND,
           SECURE_SOLR_ZNODE_COMMAND, CHECK_ZNODE, SETUP_KERBEROS_PLUGIN, REMOVE_ADMIN_HANDLERS, TRANSFER_ZNODE_COMMAND, DELETE_ZNODE_COMMAND,
           DUMP_COLLECTIONS_DATA_COMMAND, SET_AUTO_SCALING_COMMAND);
@@ -531,6 +561,11 @@ public class DataimmSolrCloudCLI {
       String routerField = cli.hasOption("rf") ? cli.getOptionValue("rf") : null;
       String shardName = cli.hasOption("sn") ? cli.getOptionValue("sn") : null;
       boolean implicitRouting = cli.hasOption("ir");
+      Duration timeShardPeriod = cli.hasOption("tsp") ? Duration.parse(cli.getOptionValue("tsp")) : null;
+      int timeShardsAhead = cli.hasOption("tsa") ? Integer.parseInt(cli.getOptionValue("tsa")) : 1;
+      if (timeShardPeriod != null) {
+        TimeShardUtils.validatePeriod(timeShardPeriod);
+      }
       String jaasFile = cli.hasOption("jf") ? cli.getOptionValue("jf") : null;
       String keyStoreLocation = cli.hasOption("ksl") ? cli.getOptionValue("ksl") : null;
       String keyStorePassword = cli.hasOption("ksp") ? cli.getOptionValue("ksp") : null;
@@ -564,6 +599,8 @@ public class DataimmSolrCloudCLI {
         .withRouterField(routerField)
         .withJaasFile(jaasFile) // call before creating SolrClient
         .isImplicitRouting(implicitRouting)
+        .withTimeShardPeriod(timeShardPeriod)
+        .withTimeShardsAhead(timeShardsAhead)
         .withSolrZkClient(ZK_CLIENT_TIMEOUT, ZK_CLIENT_CONNECT_TIMEOUT)
         .withKeyStoreLocation(keyStoreLocation)
         .withKeyStorePassword(keyStorePassword)
@@ -616,6 +653,12 @@ public class DataimmSolrCloudCLI {
             .build();
           solrCloudClient.createShard(shardName);
           break;
+        case DELETE_SHARD_COMMAND:
+          solrCloudClient = clientBuilder
+            .withSolrCloudClient()
+            .build();
+          solrCloudClient.deleteShard(shardName);
+          break;
         case SET_CLUSTER_PROP:
           solrCloudClient = clientBuilder.build();
           solrCloudClient.setClusterProp();
@@ -18,6 +18,8 @@
  */
 package org.apache.dataimm.infra.solr;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
@@ -26,6 +28,7 @@ import org.apache.dataimm.infra.solr.commands.CheckZnodeZkCommand;
 import org.apache.dataimm.infra.solr.commands.CreateCollectionCommand;
 import org.apache.dataimm.infra.solr.commands.CreateShardCommand;
 import org.apache.dataimm.infra.solr.commands.CreateSolrZnodeZkCommand;
+import org.apache.dataimm.infra.solr.commands.DeleteShardCommand;
 import org.apache.dataimm.infra.solr.commands.DeleteZnodeZkCommand;
 import org.apache.dataimm.infra.solr.commands.DownloadConfigZkCommand;
 import org.apache.dataimm.infra.solr.commands.DumpCollectionsCommand;
@@ -42,6 +45,7 @@ import org.apache.dataimm.infra.solr.commands.TransferZnodeZkCommand;
 import org.apache.dataimm.infra.solr.commands.UnsecureZNodeZkCommand;
 import org.apache.dataimm.infra.solr.commands.UploadConfigZkCommand;
 import org.apache.dataimm.infra.solr.util.ShardUtils;
+import org.apache.dataimm.infra.solr.util.TimeShardUtils;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.cloud.SolrZkClient;
@@ -69,6 +73,8 @@ public class DataimmSolrCloudClient {
   private final String routerName;
   private final String routerField;
   private final boolean implicitRouting;
+  private final Duration timeShardPeriod;
+  private final int timeShardsAhead;
   private final String jaasFile;
   private final String znode;
   private final String saslUsers;
@@ -99,6 +105,8 @@ public class DataimmSolrCloudClient {
     this.routerName = builder.routerName;
     this.routerField = builder.routerField;
     this.implicitRouting = builder.implicitRouting;
+    this.timeShardPeriod = builder.timeShardPeriod;
+    this.timeShardsAhead = builder.timeShardsAhead;
     this.znode = builder.znode;
     this.saslUsers = builder.saslUsers;
     this.propName = builder.propName;
@@ -131,7 +139,11 @@ public class DataimmSolrCloudClient {
     } else {
       logger.info("Collection '{}' already exits.", getCollection());
       if (this.isImplicitRouting()) {
-        createShard(null);
+        if (this.isTimeRouting()) {
+          createTimeShards(Instant.now());
+        } else {
+          createShard(null);
+        }
       }
     }
     return getCollection();
@@ -266,6 +278,38 @@ public class DataimmSolrCloudClient {
     return existingShards;
   }
 
+  /**
+   * Create the time shards of the current period and of the configured number of following periods, so documents
+   * routed to an upcoming period always find their shard
+   */
+  public Collection<String> createTimeShards(Instant now) throws Exception {
+    Collection<String> existingShards = getShardNames();
+    for (String shardName : TimeShardUtils.generateTimeShardList(now, getTimeShardPeriod(), getTimeShardsAhead())) {
+      if (!existingShards.contains(shardName)) {
+        new CreateShardCommand(shardName, getRetryTimes(), getInterval()).run(this);
+        logger.info("Adding new time shard to collection request sent ('{}': {})", getCollection(), shardName);
+        existingShards.add(shardName);
+      }
+    }
+    return existingShards;
+  }
+
+  /**
+   * Drop a whole shard with its documents (implicit routing only)
+   */
+  public String deleteShard(String shard) throws Exception {
+    String deletedShard = new DeleteShardCommand(shard, getRetryTimes(), getInterval()).run(this);
+    logger.info("Deleting shard of collection request sent ('{}': {})", getCollection(), deletedShard);
+    return deletedShard;
+  }
+
+  /**
+   * Get the time shards having no documents newer than the cutoff
+   */
+  public List<String> getExpiredTimeShards(Instant cutoff) throws Exception {
+    return TimeShardUtils.getExpiredTimeShards(getShardNames(), getTimeShardPeriod(), cutoff);
+  }
+
   /**
    * Get shard names
    */
@@ -362,6 +406,18 @@ public class DataimmSolrCloudClient {
     return implicitRouting;
   }
 
+  public boolean isTimeRouting() {
+    return timeShardPeriod != null;
+  }
+
+  public Duration getTimeShardPeriod() {
+    return timeShardPeriod;
+  }
+
+  public int getTimeShardsAhead() {
+    return timeShardsAhead;
+  }
+
   public String getJaasFile() {
     return jaasFile;
   }
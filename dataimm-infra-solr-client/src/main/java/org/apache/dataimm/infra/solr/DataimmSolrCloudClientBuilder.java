@@ -21,6 +21,7 @@ package org.apache.dataimm.infra.solr;
 
 import static java.util.Collections.singletonList;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
@@ -51,6 +52,8 @@ public class DataimmSolrCloudClientBuilder {
   CloudSolrClient solrCloudClient;
   SolrZkClient solrZkClient;
   boolean implicitRouting;
+  Duration timeShardPeriod;
+  int timeShardsAhead = 1;
   String jaasFile;
   String znode;
   String saslUsers;
@@ -129,6 +132,16 @@ public class DataimmSolrCloudClientBuilder {
     return this;
   }
 
+  public DataimmSolrCloudClientBuilder withTimeShardPeriod(Duration timeShardPeriod) {
+    this.timeShardPeriod = timeShardPeriod;
+    return this;
+  }
+
+  public DataimmSolrCloudClientBuilder withTimeShardsAhead(int timeShardsAhead) {
+    this.timeShardsAhead = timeShardsAhead;
+    return this;
+  }
+
   public DataimmSolrCloudClientBuilder withJaasFile(String jaasFile) {
     this.jaasFile = jaasFile;
     setupSecurity(jaasFile);
@@ -18,8 +18,11 @@
  */
 package org.apache.dataimm.infra.solr.commands;
 
+import java.time.Instant;
+
 import org.apache.dataimm.infra.solr.DataimmSolrCloudClient;
 import org.apache.dataimm.infra.solr.util.ShardUtils;
+import org.apache.dataimm.infra.solr.util.TimeShardUtils;
 import org.apache.solr.client.solrj.request.CollectionAdminRequest;
 import org.apache.solr.client.solrj.response.CollectionAdminResponse;
 
@@ -42,7 +45,12 @@ public class CreateCollectionCommand extends AbstractSolrRetryCommand<Collection
     if (client.isImplicitRouting()) {
       request.setRouterName(client.getRouterName());
       request.setRouterField(client.getRouterField());
-      request.setShards(ShardUtils.generateShardListStr(client.getMaxShardsPerNode()));
+      if (client.isTimeRouting()) {
+        request.setShards(String.join(",",
+          TimeShardUtils.generateTimeShardList(Instant.now(), client.getTimeShardPeriod(), client.getTimeShardsAhead())));
+      } else {
+        request.setShards(ShardUtils.generateShardListStr(client.getMaxShardsPerNode()));
+      }
     }
     return request;
   }
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.solr.commands;
+
+import org.apache.dataimm.infra.solr.DataimmSolrCloudClient;
+import org.apache.solr.client.solrj.request.CollectionAdminRequest;
+import org.apache.solr.client.solrj.response.CollectionAdminResponse;
+
+public class DeleteShardCommand extends AbstractSolrRetryCommand<CollectionAdminRequest.DeleteShard, String> {
+
+  private final String shardName;
+
+  public DeleteShardCommand(String shardName, int maxRetries, int interval) {
+    super(maxRetries, interval);
+    this.shardName = shardName;
+  }
+
+  @Override
+  public String handleResponse(CollectionAdminResponse response, DataimmSolrCloudClient client) throws Exception {
+    return shardName;
+  }
+
+  @Override
+  public CollectionAdminRequest.DeleteShard createRequest(DataimmSolrCloudClient client) {
+    return CollectionAdminRequest.deleteShard(client.getCollection(), shardName);
+  }
+
+  @Override
+  public String errorMessage(DataimmSolrCloudClient client) {
+    return String.format("Cannot delete shard '%s' of collection '%s'", shardName, client.getCollection());
+  }
+}
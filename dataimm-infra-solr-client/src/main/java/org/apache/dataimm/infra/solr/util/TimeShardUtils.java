@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.solr.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Naming of time routed shards of implicitly routed collections. A time shard holds the documents of one period
+ * and is named after the UTC start of that period, e.g. time_20240101T0000 for a daily period. Producers set the
+ * router field of a document to the shard name of its time, so expired periods can be dropped as whole shards.
+ */
+public class TimeShardUtils {
+
+  public static final String TIME_SHARD_PREFIX = "time_";
+  private static final DateTimeFormatter TIME_SHARD_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm").withZone(ZoneOffset.UTC);
+  private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+  public static void validatePeriod(Duration period) {
+    long periodMillis = period.toMillis();
+    if (periodMillis < Duration.ofMinutes(1).toMillis() || (DAY_MILLIS % periodMillis != 0 && periodMillis % DAY_MILLIS != 0))
+      throw new IllegalArgumentException(String.format(
+        "Time shard period %s should be at least a minute and divide a day or be a multiple of days", period));
+  }
+
+  public static Instant getPeriodStart(Instant time, Duration period) {
+    long periodMillis = period.toMillis();
+    return Instant.ofEpochMilli(Math.floorDiv(time.toEpochMilli(), periodMillis) * periodMillis);
+  }
+
+  /**
+   * Name of the shard holding the documents of the given time: the value of the router field of those documents.
+   */
+  public static String getTimeShardName(Instant time, Duration period) {
+    return TIME_SHARD_PREFIX + TIME_SHARD_FORMATTER.format(getPeriodStart(time, period));
+  }
+
+  /**
+   * Start of the period of a time shard or null if the shard is not a time shard.
+   */
+  public static Instant getTimeShardStart(String shardName) {
+    if (shardName == null || !shardName.startsWith(TIME_SHARD_PREFIX))
+      return null;
+    try {
+      return TIME_SHARD_FORMATTER.parse(shardName.substring(TIME_SHARD_PREFIX.length()), Instant::from);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Shards of the current period and of the following aheadCount periods.
+   */
+  public static List<String> generateTimeShardList(Instant now, Duration period, int aheadCount) {
+    List<String> shardList = new ArrayList<>();
+    Instant periodStart = getPeriodStart(now, period);
+    for (int i = 0; i <= aheadCount; i++) {
+      shardList.add(getTimeShardName(periodStart.plus(period.multipliedBy(i)), period));
+    }
+    return shardList;
+  }
+
+  /**
+   * Time shards whose period ended before the cutoff: none of their documents are newer than the cutoff.
+   */
+  public static List<String> getExpiredTimeShards(Collection<String> shardNames, Duration period, Instant cutoff) {
+    List<String> expiredShards = new ArrayList<>();
+    for (String shardName : shardNames) {
+      Instant start = getTimeShardStart(shardName);
+      if (start != null && !start.plus(period).isAfter(cutoff)) {
+        expiredShards.add(shardName);
+      }
+    }
+    expiredShards.sort(null);
+    return expiredShards;
+  }
+}
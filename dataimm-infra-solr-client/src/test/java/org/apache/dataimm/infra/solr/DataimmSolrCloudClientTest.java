@@ -123,6 +123,19 @@ public class DataimmSolrCloudClientTest {
     assertEquals(2, result.size());
   }
 
+  @Test
+  public void testDeleteShard() throws Exception {
+    // GIVEN
+    expect(mockedSolrClient.request(anyObject(CollectionAdminRequest.class), anyString())).andReturn(new NamedList<>()).times(1);
+    replay(mockedSolrClient);
+
+    // WHEN
+    String result = underTest.deleteShard("time_20240101T0000");
+    // THEN
+    assertEquals("time_20240101T0000", result);
+    verify(mockedSolrClient);
+  }
+
   @Test(expected = DataimmSolrCloudClientException.class)
   public void testRetries() throws Exception {
     // GIVEN
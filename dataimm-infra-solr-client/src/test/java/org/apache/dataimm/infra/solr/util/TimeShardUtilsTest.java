@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.dataimm.infra.solr.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimeShardUtilsTest {
+
+  private static final Duration DAY = Duration.ofDays(1);
+
+  @Test
+  public void testGetTimeShardNameOfTimeInPeriod() {
+    assertEquals("time_20240101T0000", TimeShardUtils.getTimeShardName(Instant.parse("2024-01-01T23:59:59.999Z"), DAY));
+    assertEquals("time_20240101T1800", TimeShardUtils.getTimeShardName(Instant.parse("2024-01-01T19:30:00Z"), Duration.ofHours(6)));
+  }
+
+  @Test
+  public void testGetTimeShardStartOfNonTimeShard() {
+    assertEquals(Instant.parse("2024-01-01T00:00:00Z"), TimeShardUtils.getTimeShardStart("time_20240101T0000"));
+    assertNull(TimeShardUtils.getTimeShardStart("shard0"));
+    assertNull(TimeShardUtils.getTimeShardStart("time_x"));
+  }
+
+  @Test
+  public void testGenerateTimeShardListCreatesShardsAhead() {
+    List<String> shards = TimeShardUtils.generateTimeShardList(Instant.parse("2024-01-31T10:00:00Z"), DAY, 2);
+    assertEquals(Arrays.asList("time_20240131T0000", "time_20240201T0000", "time_20240202T0000"), shards);
+  }
+
+  @Test
+  public void testGetExpiredTimeShardsKeepsPeriodsEndingAfterCutoff() {
+    List<String> shards = Arrays.asList("time_20240103T0000", "shard0", "time_20240101T0000", "time_20240102T0000");
+    List<String> expired = TimeShardUtils.getExpiredTimeShards(shards, DAY, Instant.parse("2024-01-03T00:00:00Z"));
+    assertEquals(Arrays.asList("time_20240101T0000", "time_20240102T0000"), expired);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValidatePeriodNotDividingADay() {
+    TimeShardUtils.validatePeriod(Duration.ofHours(7));
+  }
+}